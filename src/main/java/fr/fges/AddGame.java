@@ -1,8 +1,10 @@
 package fr.fges;
 
+import java.util.List;
 import java.util.Scanner;
 
 public class AddGame {
+    private static final int SUGGESTIONS = 3;
 
     private final GameCollection collection;
     private final Scanner scanner;
@@ -17,23 +19,26 @@ public class AddGame {
     public void execute() {
         String title = readTitle();
         
-        boolean gameExists = collection.getGames().stream()
-                .anyMatch(game -> game.title().equalsIgnoreCase(title));
-        
-        if (gameExists) {
+        if (collection.containsTitle(title)) {
             System.out.println("Error: A game with title \"" + title + "\" already exists in the collection\n");
             return;
         }
+
+        // Un titre presque identique est probablement le même jeu : on prévient sans bloquer
+        List<String> similar = collection.similarTitles(title, SUGGESTIONS);
+        if (!similar.isEmpty()) {
+            System.out.println("Warning: similar titles already in the collection: " + String.join(", ", similar));
+        }
         
         int minPlayers = readMinPlayers();
         int maxPlayers = readMaxPlayers(minPlayers);
         String category = readCategory();
 
         BoardGame game = new BoardGame(title, minPlayers, maxPlayers, category);
-        collection.addGame(game);
+        BoardGame added = collection.addGame(game);
         
-        // Enregistrer l'action pour l'undo
-        undoManager.recordAction(new undo.UndoableAction(undo.UndoableAction.ActionType.ADD, game));
+        // Enregistrer l'action pour l'undo, avec l'identifiant attribué par la collection
+        undoManager.recordAction(new undo.UndoableAction(undo.UndoableAction.ActionType.ADD, added));
         
         System.out.println("Board game added successfully.");
     }
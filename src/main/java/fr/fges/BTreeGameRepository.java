@@ -0,0 +1,661 @@
+package fr.fges;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Dépôt B+arbre sur un seul fichier (.bgt), indexé par titre normalisé. Le fichier est
+ * découpé en pages de 8 Ko : la page 0 est l'en-tête, les autres sont des feuilles (jeux
+ * triés par clé) ou des nœuds internes (clés séparatrices et pages filles).
+ *
+ * Un ajout ou une suppression ne réécrit que les pages du chemin racine-feuille, et une
+ * recherche par titre descend directement dans l'arbre : avec {@code --streaming}, la
+ * collection n'est jamais chargée entièrement en mémoire. Les clés sont (titre normalisé,
+ * numéro de séquence) pour accepter les titres en double. Une feuille vidée est libérée et
+ * recyclée ; les feuilles peu remplies ne sont pas fusionnées.
+ *
+ * Les mises à jour ponctuelles écrivent en place : un arrêt brutal pendant la découpe d'une
+ * page peut perdre les jeux de cette page. Une sauvegarde complète reste atomique.
+ */
+public class BTreeGameRepository implements GameRepository {
+    static final int PAGE_SIZE = 8192;
+
+    private static final int MAGIC = 0x42475431; // "BGT1"
+    private static final int VERSION = 1;
+    private static final int ROOT_OFFSET = 12;
+    private static final int PAGE_COUNT_OFFSET = 16;
+    private static final int FREE_HEAD_OFFSET = 20;
+    private static final int COUNT_OFFSET = 24;
+    private static final int NEXT_SEQUENCE_OFFSET = 32;
+    private static final int HEADER_SIZE = 40;
+
+    private static final byte FREE = 0;
+    private static final byte LEAF = 1;
+    private static final byte INTERNAL = 2;
+    // Type de page + nombre d'entrées
+    private static final int NODE_HEADER = 3;
+    // Au plus un quart de page par entrée : une page découpée en deux tient toujours
+    private static final int MAX_ENTRY_SIZE = (PAGE_SIZE - NODE_HEADER - Integer.BYTES) / 4;
+    // Remplissage des pages lors d'une sauvegarde complète, pour laisser de la place aux ajouts
+    private static final int BULK_FILL = PAGE_SIZE * 3 / 4;
+    private static final int CACHE_PAGES = 256;
+
+    private enum Removal { NOT_FOUND, REMOVED, EMPTIED }
+
+    private record Key(String title, long sequence) implements Comparable<Key> {
+        @Override
+        public int compareTo(Key other) {
+            int byTitle = title.compareTo(other.title);
+            return byTitle != 0 ? byTitle : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    // Nœud décodé : une feuille porte un jeu par clé, un nœud interne une page fille de plus que de clés
+    private static final class Node {
+        final boolean leaf;
+        final List<Key> keys = new ArrayList<>();
+        final List<BoardGame> games = new ArrayList<>();
+        final List<Integer> children = new ArrayList<>();
+
+        Node(boolean leaf) {
+            this.leaf = leaf;
+        }
+    }
+
+    private record Split(Key separator, int rightPage) {
+    }
+
+    private final Path path;
+    private final DurableFileWriter writer;
+    private final ByteBuffer pageBuffer = ByteBuffer.allocate(PAGE_SIZE);
+    // Pages récemment lues (LRU) : la racine et les premiers niveaux restent en mémoire
+    private final Map<Integer, Node> cache = new LinkedHashMap<>(CACHE_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Node> eldest) {
+            return size() > CACHE_PAGES;
+        }
+    };
+    private FileChannel channel;
+    private int root;
+    private int pageCount;
+    private int freeHead;
+    private long count;
+    private long nextSequence;
+    private boolean synced;
+
+    public BTreeGameRepository(String filePath) {
+        this(filePath, new DurableFileWriter(DurabilityPolicy.ALWAYS));
+    }
+
+    public BTreeGameRepository(String filePath, DurableFileWriter writer) {
+        this.path = Path.of(filePath);
+        this.writer = writer;
+    }
+
+    @Override
+    public synchronized void save(List<BoardGame> games) throws IOException {
+        List<Key> keys = new ArrayList<>(games.size());
+        for (int i = 0; i < games.size(); i++) {
+            BoardGame game = games.get(i);
+            checkEntrySize(game);
+            keys.add(new Key(BoardGame.normalizeTitle(game.title()), i));
+        }
+        List<Integer> order = new ArrayList<>(games.size());
+        for (int i = 0; i < games.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(keys::get));
+
+        releaseChannel();
+        writer.replaceWithChannel(path, target -> bulkLoad(target, order, keys, games));
+        open();
+        synced = true;
+    }
+
+    @Override
+    public synchronized List<BoardGame> load() throws IOException {
+        List<BoardGame> games = new ArrayList<>();
+        forEach(games::add);
+        synced = true;
+        return games;
+    }
+
+    @Override
+    public synchronized void forEach(Consumer<BoardGame> action) throws IOException {
+        if (open()) {
+            visit(root, action);
+        }
+    }
+
+    @Override
+    public synchronized List<BoardGame> findByTitle(String title) throws IOException {
+        List<BoardGame> matches = new ArrayList<>();
+        if (open()) {
+            find(root, BoardGame.normalizeTitle(title), matches);
+        }
+        return matches;
+    }
+
+    @Override
+    public synchronized long count() throws IOException {
+        return open() ? count : 0;
+    }
+
+    @Override
+    public synchronized void add(BoardGame game) throws IOException {
+        if (!open()) {
+            save(List.of());
+        }
+        insert(game);
+    }
+
+    @Override
+    public synchronized void remove(BoardGame game) throws IOException {
+        if (open()) {
+            delete(game);
+        }
+    }
+
+    @Override
+    public boolean writesIncrementally() {
+        return true;
+    }
+
+    @Override
+    public synchronized void onGameAdded(BoardGame game, List<BoardGame> games) throws IOException {
+        // Sans chargement préalable, le contenu disque est inconnu : réécriture complète
+        if (!synced || !open()) {
+            save(games);
+            return;
+        }
+        insert(game);
+    }
+
+    @Override
+    public synchronized void onGameRemoved(BoardGame game, List<BoardGame> games) throws IOException {
+        if (!synced || !open()) {
+            save(games);
+            return;
+        }
+        delete(game);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        // Les synchronisations groupées en attente utilisent encore le canal ouvert
+        writer.close();
+        releaseChannel();
+    }
+
+    private void insert(BoardGame game) throws IOException {
+        checkEntrySize(game);
+        try {
+            Key key = new Key(BoardGame.normalizeTitle(game.title()), nextSequence++);
+            Split split = insert(root, key, game);
+            if (split != null) {
+                Node newRoot = new Node(false);
+                newRoot.children.add(root);
+                newRoot.keys.add(split.separator());
+                newRoot.children.add(split.rightPage());
+                root = allocate();
+                writeNode(root, newRoot);
+            }
+            count++;
+            commit();
+        } catch (IOException | RuntimeException e) {
+            reopen();
+            throw e;
+        }
+    }
+
+    private Split insert(int page, Key key, BoardGame game) throws IOException {
+        Node node = readNode(page);
+        int index = upperBound(node.keys, key);
+        if (node.leaf) {
+            node.keys.add(index, key);
+            node.games.add(index, game);
+        } else {
+            Split split = insert(node.children.get(index), key, game);
+            if (split == null) {
+                return null;
+            }
+            node.keys.add(index, split.separator());
+            node.children.add(index + 1, split.rightPage());
+        }
+        if (encodedSize(node) <= PAGE_SIZE) {
+            writeNode(page, node);
+            return null;
+        }
+        return split(page, node);
+    }
+
+    private Split split(int page, Node node) throws IOException {
+        int middle = splitPoint(node);
+        Node left = new Node(node.leaf);
+        Node right = new Node(node.leaf);
+        Key separator;
+        if (node.leaf) {
+            left.keys.addAll(node.keys.subList(0, middle));
+            left.games.addAll(node.games.subList(0, middle));
+            right.keys.addAll(node.keys.subList(middle, node.keys.size()));
+            right.games.addAll(node.games.subList(middle, node.games.size()));
+            separator = right.keys.get(0);
+        } else {
+            // La clé du milieu remonte au parent
+            left.keys.addAll(node.keys.subList(0, middle));
+            left.children.addAll(node.children.subList(0, middle + 1));
+            right.keys.addAll(node.keys.subList(middle + 1, node.keys.size()));
+            right.children.addAll(node.children.subList(middle + 1, node.children.size()));
+            separator = node.keys.get(middle);
+        }
+        writeNode(page, left);
+        int rightPage = allocate();
+        writeNode(rightPage, right);
+        return new Split(separator, rightPage);
+    }
+
+    // Indice de découpe équilibrant la taille encodée des deux moitiés
+    private static int splitPoint(Node node) {
+        int total = encodedSize(node);
+        int size = NODE_HEADER;
+        int middle = 0;
+        while (middle < node.keys.size() - 1 && size < total / 2) {
+            size += node.leaf ? leafEntrySize(node.keys.get(middle), node.games.get(middle))
+                    : internalEntrySize(node.keys.get(middle));
+            middle++;
+        }
+        return Math.max(1, Math.min(middle, node.keys.size() - (node.leaf ? 1 : 2)));
+    }
+
+    private void delete(BoardGame game) throws IOException {
+        try {
+            Removal removal = delete(root, BoardGame.normalizeTitle(game.title()), game);
+            if (removal == Removal.NOT_FOUND) {
+                return;
+            }
+            collapseRoot();
+            count--;
+            commit();
+        } catch (IOException | RuntimeException e) {
+            reopen();
+            throw e;
+        }
+    }
+
+    private Removal delete(int page, String title, BoardGame game) throws IOException {
+        Node node = readNode(page);
+        int from = upperBound(node.keys, new Key(title, Long.MIN_VALUE));
+        if (node.leaf) {
+            for (int i = from; i < node.keys.size() && node.keys.get(i).title().equals(title); i++) {
+                if (node.games.get(i).equals(game)) {
+                    node.keys.remove(i);
+                    node.games.remove(i);
+                    writeNode(page, node);
+                    return node.keys.isEmpty() ? Removal.EMPTIED : Removal.REMOVED;
+                }
+            }
+            return Removal.NOT_FOUND;
+        }
+        int to = upperBound(node.keys, new Key(title, Long.MAX_VALUE));
+        for (int child = from; child <= to; child++) {
+            Removal removal = delete(node.children.get(child), title, game);
+            if (removal == Removal.NOT_FOUND) {
+                continue;
+            }
+            if (removal == Removal.EMPTIED) {
+                free(node.children.remove(child));
+                if (!node.keys.isEmpty()) {
+                    node.keys.remove(Math.max(0, child - 1));
+                }
+                writeNode(page, node);
+                return node.children.isEmpty() ? Removal.EMPTIED : Removal.REMOVED;
+            }
+            return Removal.REMOVED;
+        }
+        return Removal.NOT_FOUND;
+    }
+
+    // Une racine interne réduite à une seule fille est remplacée par celle-ci
+    private void collapseRoot() throws IOException {
+        Node node = readNode(root);
+        while (!node.leaf && node.children.size() <= 1) {
+            if (node.children.isEmpty()) {
+                writeNode(root, new Node(true));
+                return;
+            }
+            int child = node.children.get(0);
+            free(root);
+            root = child;
+            node = readNode(root);
+        }
+    }
+
+    private void find(int page, String title, List<BoardGame> matches) throws IOException {
+        Node node = readNode(page);
+        int from = upperBound(node.keys, new Key(title, Long.MIN_VALUE));
+        if (node.leaf) {
+            for (int i = from; i < node.keys.size() && node.keys.get(i).title().equals(title); i++) {
+                matches.add(node.games.get(i));
+            }
+            return;
+        }
+        int to = upperBound(node.keys, new Key(title, Long.MAX_VALUE));
+        for (int child = from; child <= to; child++) {
+            find(node.children.get(child), title, matches);
+        }
+    }
+
+    private void visit(int page, Consumer<BoardGame> action) throws IOException {
+        Node node = readNode(page);
+        if (node.leaf) {
+            node.games.forEach(action);
+            return;
+        }
+        for (int child : node.children) {
+            visit(child, action);
+        }
+    }
+
+    // Nombre de clés inférieures ou égales à key : indice de la fille à suivre
+    private static int upperBound(List<Key> keys, Key key) {
+        int low = 0;
+        int high = keys.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys.get(middle).compareTo(key) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void bulkLoad(FileChannel target, List<Integer> order, List<Key> keys, List<BoardGame> games)
+            throws IOException {
+        int nextPage = 1;
+        List<Key> levelKeys = new ArrayList<>();
+        List<Integer> levelPages = new ArrayList<>();
+        Node leaf = new Node(true);
+        int size = NODE_HEADER;
+        for (int index : order) {
+            int entrySize = leafEntrySize(keys.get(index), games.get(index));
+            if (!leaf.keys.isEmpty() && size + entrySize > BULK_FILL) {
+                levelKeys.add(leaf.keys.get(0));
+                levelPages.add(nextPage);
+                writePage(target, nextPage++, leaf);
+                leaf = new Node(true);
+                size = NODE_HEADER;
+            }
+            leaf.keys.add(keys.get(index));
+            leaf.games.add(games.get(index));
+            size += entrySize;
+        }
+        levelKeys.add(leaf.keys.isEmpty() ? null : leaf.keys.get(0));
+        levelPages.add(nextPage);
+        writePage(target, nextPage++, leaf);
+
+        // Niveaux internes construits de bas en haut jusqu'à une racine unique
+        while (levelPages.size() > 1) {
+            List<Key> parentKeys = new ArrayList<>();
+            List<Integer> parentPages = new ArrayList<>();
+            Node node = null;
+            Key firstKey = null;
+            for (int i = 0; i < levelPages.size(); i++) {
+                if (node != null && encodedSize(node) + internalEntrySize(levelKeys.get(i)) > BULK_FILL) {
+                    parentKeys.add(firstKey);
+                    parentPages.add(nextPage);
+                    writePage(target, nextPage++, node);
+                    node = null;
+                }
+                if (node == null) {
+                    node = new Node(false);
+                    firstKey = levelKeys.get(i);
+                } else {
+                    node.keys.add(levelKeys.get(i));
+                }
+                node.children.add(levelPages.get(i));
+            }
+            parentKeys.add(firstKey);
+            parentPages.add(nextPage);
+            writePage(target, nextPage++, node);
+            levelKeys = parentKeys;
+            levelPages = parentPages;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putInt(PAGE_SIZE)
+                .putInt(levelPages.get(0)).putInt(nextPage).putInt(0)
+                .putLong(games.size()).putLong(games.size())
+                .flip();
+        writeFully(target, header, 0);
+    }
+
+    private boolean open() throws IOException {
+        if (channel != null) {
+            return true;
+        }
+        if (!Files.exists(path)) {
+            return false;
+        }
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getInt() != PAGE_SIZE) {
+            releaseChannel();
+            throw new IOException("Not a board game tree file: " + path);
+        }
+        root = header.getInt(ROOT_OFFSET);
+        pageCount = header.getInt(PAGE_COUNT_OFFSET);
+        freeHead = header.getInt(FREE_HEAD_OFFSET);
+        count = header.getLong(COUNT_OFFSET);
+        nextSequence = header.getLong(NEXT_SEQUENCE_OFFSET);
+        return true;
+    }
+
+    // Après un échec, l'état en mémoire est relu depuis le disque
+    private void reopen() throws IOException {
+        releaseChannel();
+        open();
+    }
+
+    private void releaseChannel() throws IOException {
+        cache.clear();
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void commit() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE - ROOT_OFFSET);
+        header.putInt(root).putInt(pageCount).putInt(freeHead).putLong(count).putLong(nextSequence).flip();
+        writeFully(channel, header, ROOT_OFFSET);
+        writer.synced(path, this::forceChannel);
+    }
+
+    private void forceChannel() throws IOException {
+        FileChannel current;
+        synchronized (this) {
+            current = channel;
+        }
+        if (current == null) {
+            return;
+        }
+        try {
+            current.force(false);
+        } catch (ClosedChannelException e) {
+            // Fichier réécrit entre-temps : la sauvegarde complète a fait sa propre synchronisation
+        }
+    }
+
+    private int allocate() throws IOException {
+        if (freeHead == 0) {
+            return pageCount++;
+        }
+        int page = freeHead;
+        ByteBuffer next = ByteBuffer.allocate(Integer.BYTES);
+        readFully(next, (long) page * PAGE_SIZE + 1);
+        freeHead = next.flip().getInt();
+        return page;
+    }
+
+    private void free(int page) throws IOException {
+        cache.remove(page);
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES);
+        buffer.put(FREE).putInt(freeHead).flip();
+        writeFully(channel, buffer, (long) page * PAGE_SIZE);
+        freeHead = page;
+    }
+
+    private Node readNode(int page) throws IOException {
+        Node cached = cache.get(page);
+        if (cached != null) {
+            return cached;
+        }
+        pageBuffer.clear();
+        readFully(pageBuffer, (long) page * PAGE_SIZE);
+        pageBuffer.flip();
+        Node node = decode(pageBuffer);
+        cache.put(page, node);
+        return node;
+    }
+
+    private void writeNode(int page, Node node) throws IOException {
+        writePage(channel, page, node);
+        cache.put(page, node);
+    }
+
+    private void writePage(FileChannel target, int page, Node node) throws IOException {
+        pageBuffer.clear();
+        encode(node, pageBuffer);
+        // Page écrite en entier pour que le fichier couvre toujours pageCount pages
+        pageBuffer.clear();
+        writeFully(target, pageBuffer, (long) page * PAGE_SIZE);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Truncated board game tree file: " + path);
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            target.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static void encode(Node node, ByteBuffer buffer) {
+        buffer.put(node.leaf ? LEAF : INTERNAL);
+        buffer.putShort((short) node.keys.size());
+        if (node.leaf) {
+            for (int i = 0; i < node.keys.size(); i++) {
+                BoardGame game = node.games.get(i);
+                buffer.putLong(node.keys.get(i).sequence());
+                buffer.putInt(game.minPlayers());
+                buffer.putInt(game.maxPlayers());
+                putString(buffer, game.title());
+                putString(buffer, game.category());
+            }
+            return;
+        }
+        buffer.putInt(node.children.get(0));
+        for (int i = 0; i < node.keys.size(); i++) {
+            buffer.putLong(node.keys.get(i).sequence());
+            putString(buffer, node.keys.get(i).title());
+            buffer.putInt(node.children.get(i + 1));
+        }
+    }
+
+    private static Node decode(ByteBuffer buffer) throws IOException {
+        byte type = buffer.get();
+        if (type != LEAF && type != INTERNAL) {
+            throw new IOException("Corrupted board game tree page");
+        }
+        Node node = new Node(type == LEAF);
+        int entries = Short.toUnsignedInt(buffer.getShort());
+        if (node.leaf) {
+            for (int i = 0; i < entries; i++) {
+                long sequence = buffer.getLong();
+                int minPlayers = buffer.getInt();
+                int maxPlayers = buffer.getInt();
+                String title = getString(buffer);
+                String category = getString(buffer);
+                node.keys.add(new Key(BoardGame.normalizeTitle(title), sequence));
+                node.games.add(new BoardGame(title, minPlayers, maxPlayers, category));
+            }
+            return node;
+        }
+        node.children.add(buffer.getInt());
+        for (int i = 0; i < entries; i++) {
+            long sequence = buffer.getLong();
+            node.keys.add(new Key(getString(buffer), sequence));
+            node.children.add(buffer.getInt());
+        }
+        return node;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static int encodedSize(Node node) {
+        int size = NODE_HEADER;
+        if (node.leaf) {
+            for (int i = 0; i < node.keys.size(); i++) {
+                size += leafEntrySize(node.keys.get(i), node.games.get(i));
+            }
+            return size;
+        }
+        size += Integer.BYTES;
+        for (Key key : node.keys) {
+            size += internalEntrySize(key);
+        }
+        return size;
+    }
+
+    private static int leafEntrySize(Key key, BoardGame game) {
+        return Long.BYTES + 2 * Integer.BYTES + stringSize(game.title()) + stringSize(game.category());
+    }
+
+    private static int internalEntrySize(Key key) {
+        return Long.BYTES + stringSize(key.title()) + Integer.BYTES;
+    }
+
+    private static int stringSize(String value) {
+        return Short.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static void checkEntrySize(BoardGame game) throws IOException {
+        Key key = new Key(BoardGame.normalizeTitle(game.title()), 0);
+        if (leafEntrySize(key, game) > MAX_ENTRY_SIZE || internalEntrySize(key) > MAX_ENTRY_SIZE) {
+            throw new IOException("Title or category too long for the tree format: " + game.title());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package fr.fges;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Dépôt binaire (.bgc) : le fichier est mappé en mémoire via {@link FileChannel} et lu
+ * avec la disposition de {@link GameRecordTable}. Un ajout écrit un enregistrement en
+ * place dans l'espace réservé, une suppression marque l'enregistrement comme supprimé,
+ * retrouvé par l'index des titres de la table plutôt que par un parcours ;
+ * le fichier n'est réécrit que lorsqu'une capacité est atteinte ou que les
+ * enregistrements supprimés deviennent majoritaires.
+ *
+ * Les mappings sont libérés explicitement ({@link DirectBuffers#free}) avant chaque
+ * réécriture et à la fermeture : sous Windows, un fichier encore mappé ne peut être ni
+ * renommé ni tronqué.
+ */
+public class BinaryGameRepository implements GameRepository {
+    private static final int MIN_RECORD_CAPACITY = 16;
+    private static final int MIN_CATEGORY_CAPACITY = 16;
+    private static final int MIN_STRING_CAPACITY = 1024;
+
+    private final Path path;
+    private final DurableFileWriter writer;
+    private FileChannel channel;
+    private MappedByteBuffer mapping;
+    private GameRecordTable table;
+    // Écritures en place pas encore forcées sur disque, en attente du commit groupé
+    private boolean mappingDirty;
+    private boolean synced;
+
+    public BinaryGameRepository(String filePath) {
+        this(filePath, new DurableFileWriter(DurabilityPolicy.ALWAYS));
+    }
+
+    public BinaryGameRepository(String filePath, DurableFileWriter writer) {
+        this.path = Path.of(filePath);
+        this.writer = writer;
+    }
+
+    @Override
+    public void save(List<BoardGame> games) throws IOException {
+        releaseMapping();
+        Set<String> categories = new HashSet<>();
+        long stringBytes = 0;
+        for (BoardGame game : games) {
+            GameRecordTable.checkPlayers(game);
+            stringBytes += utf8Length(game.title());
+            if (categories.add(game.category())) {
+                stringBytes += utf8Length(game.category());
+            }
+        }
+        int recordCapacity = grow(games.size(), MIN_RECORD_CAPACITY);
+        int categoryCapacity = grow(categories.size() * 2L, MIN_CATEGORY_CAPACITY);
+        int stringCapacity = grow(stringBytes, MIN_STRING_CAPACITY);
+        long size = GameRecordTable.sizeFor(recordCapacity, categoryCapacity, stringCapacity);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Collection too large for the binary format");
+        }
+
+        writer.replaceWithChannel(path, target -> {
+            MappedByteBuffer buffer = target.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            GameRecordTable newTable = GameRecordTable.format(buffer, recordCapacity, categoryCapacity, stringCapacity);
+            for (BoardGame game : games) {
+                newTable.append(game);
+            }
+            if (writer.syncsBeforeRename()) {
+                buffer.force();
+            }
+            // Le fichier temporaire va être renommé sur la cible
+            DirectBuffers.free(buffer);
+        });
+        open();
+        synced = true;
+    }
+
+    @Override
+    public List<BoardGame> load() throws IOException {
+        List<BoardGame> games = new ArrayList<>();
+        forEach(games::add);
+        synced = true;
+        return games;
+    }
+
+    @Override
+    public void forEach(Consumer<BoardGame> action) throws IOException {
+        if (!open()) {
+            return;
+        }
+        for (int slot = 0; slot < table.recordCount(); slot++) {
+            if (table.isLive(slot)) {
+                action.accept(table.game(slot));
+            }
+        }
+    }
+
+    @Override
+    public boolean writesIncrementally() {
+        return true;
+    }
+
+    @Override
+    public void onGameAdded(BoardGame game, List<BoardGame> games) throws IOException {
+        // Sans chargement préalable, le contenu disque est inconnu : réécriture complète
+        if (!synced || !open() || !table.append(game)) {
+            save(games);
+            return;
+        }
+        syncMapping();
+    }
+
+    @Override
+    public void onGameRemoved(BoardGame game, List<BoardGame> games) throws IOException {
+        if (!synced || !open()) {
+            save(games);
+            return;
+        }
+        int slot = table.findLive(game);
+        if (slot >= 0) {
+            table.markDeleted(slot);
+        }
+        if (table.deletedCount() > MIN_RECORD_CAPACITY && table.deletedCount() > table.liveCount()) {
+            save(games);
+            return;
+        }
+        syncMapping();
+    }
+
+    /**
+     * Copie du fichier dans un tampon direct, pour une collection hors tas qui démarre sur son
+     * contenu sans créer d'objets. Le fichier n'est pas mappé, même en copie privée : les pages
+     * non encore modifiées d'un tel mapping suivent le fichier, si bien qu'une réécriture en
+     * place la changerait et qu'une troncature ferait planter la lecture. Null si le fichier
+     * n'existe pas ou dépasse la taille d'un tampon.
+     */
+    ByteBuffer readOffHeap() throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer copy;
+        try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = source.size();
+            if (size > Integer.MAX_VALUE) {
+                return null;
+            }
+            copy = ByteBuffer.allocateDirect((int) size);
+            while (copy.hasRemaining()) {
+                if (source.read(copy) < 0) {
+                    throw new IOException("Binary file shrank while loading: " + path);
+                }
+            }
+        }
+        // La collection en mémoire reflète le fichier : les mutations suivantes s'écrivent en place
+        synced = true;
+        return copy.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        releaseMapping();
+        writer.close();
+    }
+
+    private void syncMapping() throws IOException {
+        synchronized (this) {
+            mappingDirty = writer.policy().mode() != DurabilityPolicy.Mode.NONE;
+        }
+        writer.synced(path, this::forceMapping);
+    }
+
+    // Appelé aussi par le thread du commit groupé : jamais sur un mapping déjà libéré
+    private synchronized void forceMapping() {
+        if (mapping != null && mappingDirty) {
+            mapping.force();
+        }
+        mappingDirty = false;
+    }
+
+    private synchronized void releaseMapping() throws IOException {
+        if (mapping != null) {
+            // Une synchronisation en attente ne trouvera plus le mapping : elle est faite maintenant
+            forceMapping();
+            DirectBuffers.free(mapping);
+        }
+        mapping = null;
+        table = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private boolean open() throws IOException {
+        if (table != null) {
+            return true;
+        }
+        if (!Files.exists(path)) {
+            return false;
+        }
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapping = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        table = GameRecordTable.open(mapping);
+        return true;
+    }
+
+    private static int grow(long needed, int minimum) throws IOException {
+        long capacity = Math.max(minimum, needed + needed / 2);
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Collection too large for the binary format");
+        }
+        return (int) capacity;
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
@@ -1,9 +1,61 @@
 package fr.fges;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Jeu de la collection. L'identifiant est attribué par la collection et enregistré dans les
+ * fichiers JSON et CSV ; il ne participe pas à l'égalité, qui reste celle des quatre valeurs
+ * (détection des doublons, annulation, rechargement à chaud).
+ */
 public record BoardGame(
         String title,
         int minPlayers,
         int maxPlayers,
-        String category
+        String category,
+        // Omis en JSON tant qu'il n'est pas attribué, comme dans JsonGameCodec
+        @JsonInclude(JsonInclude.Include.NON_DEFAULT) long id
 ) {
+    // Jeu qui n'a pas encore reçu d'identifiant
+    public static final long NO_ID = 0;
+
+    public BoardGame(String title, int minPlayers, int maxPlayers, String category) {
+        this(title, minPlayers, maxPlayers, category, NO_ID);
+    }
+
+    // Forme de comparaison d'un titre : sans espaces de bord ni distinction de casse
+    public static String normalizeTitle(String title) {
+        return title.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public boolean supportsPlayers(int playerCount) {
+        return minPlayers <= playerCount && playerCount <= maxPlayers;
+    }
+
+    public boolean hasId() {
+        return id != NO_ID;
+    }
+
+    public BoardGame withId(long newId) {
+        return new BoardGame(title, minPlayers, maxPlayers, category, newId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BoardGame other
+                && minPlayers == other.minPlayers
+                && maxPlayers == other.maxPlayers
+                && Objects.equals(title, other.title)
+                && Objects.equals(category, other.category);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Objects.hashCode(title);
+        hash = 31 * hash + minPlayers;
+        hash = 31 * hash + maxPlayers;
+        return 31 * hash + Objects.hashCode(category);
+    }
 }
@@ -0,0 +1,60 @@
+package fr.fges;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Dictionnaire des catégories : chaque texte de catégorie reçoit un identifiant compact
+ * et une seule instance de chaîne, partagée par tous les jeux de la catégorie. À chaque
+ * identifiant correspond la liste de ses jeux (index inversé), dont la taille donne le
+ * nombre de jeux de la catégorie sans parcours. Un jeu en est retiré par son identifiant,
+ * en temps constant, sans toucher à un autre jeu égal en valeur.
+ */
+final class CategoryIndex {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<SlottedGameList> members = new ArrayList<>();
+
+    /** Enregistre le jeu et le renvoie avec sa catégorie internée. */
+    BoardGame add(BoardGame game) {
+        Integer id = ids.get(game.category());
+        if (id == null) {
+            id = names.size();
+            ids.put(game.category(), id);
+            names.add(game.category());
+            members.add(new SlottedGameList());
+        }
+        String category = names.get(id);
+        BoardGame interned = category == game.category()
+                ? game
+                : new BoardGame(game.title(), game.minPlayers(), game.maxPlayers(), category, game.id());
+        members.get(id).add(interned);
+        return interned;
+    }
+
+    void remove(BoardGame game) {
+        Integer id = ids.get(game.category());
+        if (id != null) {
+            members.get(id).removeById(game.id());
+        }
+    }
+
+    List<BoardGame> games(String category) {
+        Integer id = ids.get(category);
+        return id == null ? new ArrayList<>() : new ArrayList<>(members.get(id));
+    }
+
+    /** Nombre de jeux par catégorie non vide, triées par nom. */
+    Map<String, Integer> counts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (int id = 0; id < names.size(); id++) {
+            if (!members.get(id).isEmpty()) {
+                counts.put(names.get(id), members.get(id).size());
+            }
+        }
+        return counts;
+    }
+}
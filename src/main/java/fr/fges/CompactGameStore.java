@@ -0,0 +1,185 @@
+package fr.fges;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stockage compact des jeux résidents (option --compact), en colonnes plutôt qu'en objets :
+ * nombres de joueurs dans deux tableaux d'octets, identifiant de catégorie sur 16 bits,
+ * identifiant du jeu, et titres encodés en UTF-8 bout à bout dans un seul tableau,
+ * délimités par leurs positions.
+ * Les {@link BoardGame} sont recréés à chaque lecture ; la liste garde l'ordre d'insertion.
+ *
+ * Les nombres de joueurs doivent tenir entre 0 et 255 et la collection compter au plus
+ * 65 536 catégories distinctes.
+ */
+final class CompactGameStore extends AbstractList<BoardGame> {
+    static final int MAX_PLAYERS = 255;
+    static final int MAX_CATEGORIES = 1 << 16;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private byte[] minPlayers = new byte[INITIAL_CAPACITY];
+    private byte[] maxPlayers = new byte[INITIAL_CAPACITY];
+    private short[] categoryIds = new short[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    // Le titre du jeu i occupe titles[titleOffsets[i], titleOffsets[i + 1])
+    private int[] titleOffsets = new int[INITIAL_CAPACITY + 1];
+    private byte[] titles = new byte[INITIAL_CAPACITY * 16];
+    private int size;
+    // Catégories internées : chaque texte n'est gardé qu'une fois, les jeux en partagent l'identifiant
+    private final List<String> categories = new ArrayList<>();
+    private final Map<String, Short> categoryIdsByName = new HashMap<>();
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public BoardGame get(int index) {
+        checkIndex(index);
+        int start = titleOffsets[index];
+        return new BoardGame(
+                new String(titles, start, titleOffsets[index + 1] - start, StandardCharsets.UTF_8),
+                Byte.toUnsignedInt(minPlayers[index]),
+                Byte.toUnsignedInt(maxPlayers[index]),
+                categories.get(Short.toUnsignedInt(categoryIds[index])),
+                ids[index]);
+    }
+
+    @Override
+    public boolean add(BoardGame game) {
+        if (!fits(game)) {
+            throw new IllegalArgumentException("Compact storage supports 0 to " + MAX_PLAYERS + " players: " + game.title());
+        }
+        byte[] title = game.title().getBytes(StandardCharsets.UTF_8);
+        short category = categoryId(game.category());
+        if (size == minPlayers.length) {
+            int capacity = Math.max(INITIAL_CAPACITY, size + (size >> 1));
+            minPlayers = Arrays.copyOf(minPlayers, capacity);
+            maxPlayers = Arrays.copyOf(maxPlayers, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            titleOffsets = Arrays.copyOf(titleOffsets, capacity + 1);
+        }
+        int end = titleOffsets[size];
+        if (end + title.length > titles.length) {
+            titles = Arrays.copyOf(titles, Math.max(end + title.length, titles.length + (titles.length >> 1)));
+        }
+        System.arraycopy(title, 0, titles, end, title.length);
+        minPlayers[size] = (byte) game.minPlayers();
+        maxPlayers[size] = (byte) game.maxPlayers();
+        categoryIds[size] = category;
+        ids[size] = game.id();
+        titleOffsets[size + 1] = end + title.length;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public BoardGame remove(int index) {
+        BoardGame removed = get(index);
+        int start = titleOffsets[index];
+        int length = titleOffsets[index + 1] - start;
+        int end = titleOffsets[size];
+        // Les titres suivants reculent d'autant : le pool reste contigu, sans trou à récupérer
+        System.arraycopy(titles, start + length, titles, start, end - start - length);
+        for (int i = index + 1; i <= size; i++) {
+            titleOffsets[i - 1] = titleOffsets[i] - length;
+        }
+        int moved = size - index - 1;
+        System.arraycopy(minPlayers, index + 1, minPlayers, index, moved);
+        System.arraycopy(maxPlayers, index + 1, maxPlayers, index, moved);
+        System.arraycopy(categoryIds, index + 1, categoryIds, index, moved);
+        System.arraycopy(ids, index + 1, ids, index, moved);
+        size--;
+        modCount++;
+        return removed;
+    }
+
+    // Compare colonne par colonne, sans recréer les jeux parcourus
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof BoardGame game)) {
+            return -1;
+        }
+        Short id = categoryIdsByName.get(game.category());
+        if (id == null || !fits(game)) {
+            return -1;
+        }
+        short category = id;
+        byte min = (byte) game.minPlayers();
+        byte max = (byte) game.maxPlayers();
+        byte[] title = game.title().getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < size; i++) {
+            if (categoryIds[i] == category && minPlayers[i] == min && maxPlayers[i] == max
+                    && Arrays.equals(titles, titleOffsets[i], titleOffsets[i + 1], title, 0, title.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        titleOffsets[0] = 0;
+        modCount++;
+    }
+
+    // Rend la marge de croissance des tableaux, après un chargement complet
+    void trimToSize() {
+        minPlayers = Arrays.copyOf(minPlayers, size);
+        maxPlayers = Arrays.copyOf(maxPlayers, size);
+        categoryIds = Arrays.copyOf(categoryIds, size);
+        ids = Arrays.copyOf(ids, size);
+        titleOffsets = Arrays.copyOf(titleOffsets, size + 1);
+        titles = Arrays.copyOf(titles, titleOffsets[size]);
+    }
+
+    private short categoryId(String category) {
+        Short id = categoryIdsByName.get(category);
+        if (id != null) {
+            return id;
+        }
+        if (categories.size() == MAX_CATEGORIES) {
+            throw new IllegalStateException("Compact storage supports at most " + MAX_CATEGORIES + " categories");
+        }
+        short created = (short) categories.size();
+        categories.add(category);
+        categoryIdsByName.put(category, created);
+        return created;
+    }
+
+    private static boolean fits(BoardGame game) {
+        return game.minPlayers() >= 0 && game.minPlayers() <= MAX_PLAYERS
+                && game.maxPlayers() >= 0 && game.maxPlayers() <= MAX_PLAYERS;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+}
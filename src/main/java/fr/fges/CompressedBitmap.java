@@ -0,0 +1,289 @@
+package fr.fges;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Ensemble d'entiers positifs compressé à la manière de Roaring : les 16 bits de poids
+ * fort choisissent un conteneur, les 16 bits de poids faible y sont rangés. Un conteneur
+ * peu rempli est un tableau trié de {@code char} (2 octets par valeur) ; au-delà de 4096
+ * valeurs il devient une table de 65 536 bits (8 Ko), plus compacte et dont les
+ * intersections et unions se font mot à mot.
+ */
+final class CompressedBitmap {
+    // Au-delà, un tableau trié occupe plus que la table de bits
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    // Conteneur : soit values/size (tableau trié), soit words (table de bits) et size = cardinal
+    private static final class Container {
+        char[] values;
+        long[] words;
+        int size;
+
+        static Container ofArray(char[] values, int size) {
+            Container container = new Container();
+            container.values = values;
+            container.size = size;
+            return container;
+        }
+
+        static Container ofWords(long[] words) {
+            Container container = new Container();
+            container.words = words;
+            for (long word : words) {
+                container.size += Long.bitCount(word);
+            }
+            return container;
+        }
+
+        boolean contains(char low) {
+            if (words != null) {
+                return (words[low >>> 6] & 1L << low) != 0;
+            }
+            return Arrays.binarySearch(values, 0, size, low) >= 0;
+        }
+
+        boolean add(char low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) != 0) {
+                    return false;
+                }
+                words[low >>> 6] |= bit;
+                size++;
+                return true;
+            }
+            int position = Arrays.binarySearch(values, 0, size, low);
+            if (position >= 0) {
+                return false;
+            }
+            position = -position - 1;
+            if (size == ARRAY_LIMIT) {
+                words = toWords();
+                values = null;
+                words[low >>> 6] |= 1L << low;
+                size++;
+                return true;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, size * 2)));
+            }
+            System.arraycopy(values, position, values, position + 1, size - position);
+            values[position] = low;
+            size++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) == 0) {
+                    return false;
+                }
+                words[low >>> 6] &= ~bit;
+                size--;
+                if (size == ARRAY_LIMIT) {
+                    values = toValues(words, size);
+                    words = null;
+                }
+                return true;
+            }
+            int position = Arrays.binarySearch(values, 0, size, low);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(values, position + 1, values, position, size - position - 1);
+            size--;
+            return true;
+        }
+
+        long[] toWords() {
+            if (words != null) {
+                return words.clone();
+            }
+            long[] bits = new long[BITMAP_WORDS];
+            for (int i = 0; i < size; i++) {
+                bits[values[i] >>> 6] |= 1L << values[i];
+            }
+            return bits;
+        }
+
+        void forEach(int high, IntConsumer action) {
+            if (words == null) {
+                for (int i = 0; i < size; i++) {
+                    action.accept(high | values[i]);
+                }
+                return;
+            }
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                for (long word = words[w]; word != 0; word &= word - 1) {
+                    action.accept(high | w << 6 | Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+    }
+
+    // Conteneurs non vides triés par clé (16 bits de poids fort)
+    private char[] keys = new char[0];
+    private Container[] containers = new Container[0];
+    private int count;
+
+    void add(int value) {
+        char key = (char) (value >>> 16);
+        int position = Arrays.binarySearch(keys, 0, count, key);
+        if (position < 0) {
+            position = -position - 1;
+            insertContainer(position, key, Container.ofArray(new char[4], 0));
+        }
+        containers[position].add((char) value);
+    }
+
+    void remove(int value) {
+        int position = Arrays.binarySearch(keys, 0, count, (char) (value >>> 16));
+        if (position < 0 || !containers[position].remove((char) value) || containers[position].size > 0) {
+            return;
+        }
+        System.arraycopy(keys, position + 1, keys, position, count - position - 1);
+        System.arraycopy(containers, position + 1, containers, position, count - position - 1);
+        containers[--count] = null;
+    }
+
+    boolean contains(int value) {
+        int position = Arrays.binarySearch(keys, 0, count, (char) (value >>> 16));
+        return position >= 0 && containers[position].contains((char) value);
+    }
+
+    int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < count; i++) {
+            cardinality += containers[i].size;
+        }
+        return cardinality;
+    }
+
+    /** Valeurs dans l'ordre croissant. */
+    void forEach(IntConsumer action) {
+        for (int i = 0; i < count; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < count && j < other.count) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result.append(keys[i], combine(containers[i], other.containers[j], Operation.AND));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < count || j < other.count) {
+            if (j == other.count || i < count && keys[i] < other.keys[j]) {
+                result.append(keys[i], copy(containers[i]));
+                i++;
+            } else if (i == count || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], copy(other.containers[j]));
+                j++;
+            } else {
+                result.append(keys[i], combine(containers[i], other.containers[j], Operation.OR));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap();
+        int j = 0;
+        for (int i = 0; i < count; i++) {
+            while (j < other.count && other.keys[j] < keys[i]) {
+                j++;
+            }
+            boolean overlaps = j < other.count && other.keys[j] == keys[i];
+            result.append(keys[i], overlaps ? combine(containers[i], other.containers[j], Operation.AND_NOT) : copy(containers[i]));
+        }
+        return result;
+    }
+
+    private enum Operation { AND, OR, AND_NOT }
+
+    private static Container combine(Container left, Container right, Operation operation) {
+        // Deux tableaux triés : fusion directe, sans passer par les tables de bits
+        if (left.words == null && right.words == null && operation != Operation.OR) {
+            char[] values = new char[left.size];
+            int size = 0;
+            for (int i = 0; i < left.size; i++) {
+                boolean inRight = Arrays.binarySearch(right.values, 0, right.size, left.values[i]) >= 0;
+                if (inRight == (operation == Operation.AND)) {
+                    values[size++] = left.values[i];
+                }
+            }
+            return Container.ofArray(values, size);
+        }
+        long[] words = left.toWords();
+        long[] rightWords = right.words != null ? right.words : right.toWords();
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            words[w] = switch (operation) {
+                case AND -> words[w] & rightWords[w];
+                case OR -> words[w] | rightWords[w];
+                case AND_NOT -> words[w] & ~rightWords[w];
+            };
+        }
+        Container result = Container.ofWords(words);
+        if (result.size <= ARRAY_LIMIT) {
+            return Container.ofArray(toValues(words, result.size), result.size);
+        }
+        return result;
+    }
+
+    private static Container copy(Container container) {
+        return container.words != null
+                ? Container.ofWords(container.words.clone())
+                : Container.ofArray(Arrays.copyOf(container.values, container.size), container.size);
+    }
+
+    private static char[] toValues(long[] words, int size) {
+        char[] values = new char[size];
+        int i = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                values[i++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+            }
+        }
+        return values;
+    }
+
+    // Ajout en fin d'un conteneur de clé croissante ; les conteneurs vides sont ignorés
+    private void append(char key, Container container) {
+        if (container.size > 0) {
+            insertContainer(count, key, container);
+        }
+    }
+
+    private void insertContainer(int position, char key, Container container) {
+        if (count == keys.length) {
+            keys = Arrays.copyOf(keys, Math.max(4, count * 2));
+            containers = Arrays.copyOf(containers, keys.length);
+        }
+        System.arraycopy(keys, position, keys, position + 1, count - position);
+        System.arraycopy(containers, position, containers, position + 1, count - position);
+        keys[position] = key;
+        containers[position] = container;
+        count++;
+    }
+}
@@ -0,0 +1,316 @@
+package fr.fges;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Lecteur CSV conforme RFC 4180 (champs entre guillemets, "" échappés, retours à la
+ * ligne dans les guillemets) travaillant directement sur des octets UTF-8. Les champs
+ * sont repérés par leurs bornes dans le tampon et ne sont décodés qu'au moment de
+ * construire le {@link BoardGame}. La première ligne (en-tête) est ignorée. La cinquième
+ * colonne, l'identifiant du jeu, est facultative : vide ou absente, le jeu n'en a pas.
+ */
+public class CsvGameParser {
+    static final int CHUNK_SIZE = 1 << 20;
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int FIELDS = 5;
+    private static final int REQUIRED_FIELDS = 4;
+    private static final int ID_FIELD = 4;
+
+    private static final byte QUOTE = '"';
+    private static final byte COMMA = ',';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    // Bornes des champs de l'enregistrement courant, réutilisées d'un enregistrement à l'autre
+    private final int[] fieldStart = new int[FIELDS];
+    private final int[] fieldEnd = new int[FIELDS];
+    private final boolean[] fieldQuoted = new boolean[FIELDS];
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Découpe le tampon en blocs alignés sur des fins d'enregistrement et les analyse
+     * en parallèle sur le pool fork-join commun ; l'ordre du fichier est conservé.
+     */
+    public static List<BoardGame> parseParallel(ByteBuffer data) {
+        int bodyStart = new CsvGameParser().skipRecord(data, 0, data.limit());
+        List<int[]> chunks = splitChunks(data, bodyStart, data.limit(), CHUNK_SIZE);
+        List<List<BoardGame>> parts = IntStream.range(0, chunks.size())
+                .parallel()
+                .mapToObj(i -> {
+                    List<BoardGame> part = new ArrayList<>();
+                    int[] chunk = chunks.get(i);
+                    new CsvGameParser().parseRecords(data, chunk[0], chunk[1], true, part::add);
+                    return part;
+                })
+                .toList();
+        List<BoardGame> games = new ArrayList<>(parts.stream().mapToInt(List::size).sum());
+        parts.forEach(games::addAll);
+        return games;
+    }
+
+    public void parse(ByteBuffer data, Consumer<BoardGame> action) {
+        int bodyStart = skipRecord(data, 0, data.limit());
+        parseRecords(data, bodyStart, data.limit(), true, action);
+    }
+
+    /**
+     * Analyse un flux par fenêtres : seul l'enregistrement en cours de lecture est
+     * conservé d'une fenêtre à l'autre, la mémoire utilisée reste constante.
+     */
+    public void parse(InputStream in, Consumer<BoardGame> action) throws IOException {
+        byte[] window = new byte[STREAM_BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(window);
+        int filled = 0;
+        boolean header = true;
+        boolean eof = false;
+        while (!eof) {
+            int read = in.read(window, filled, window.length - filled);
+            if (read == -1) {
+                eof = true;
+            } else {
+                filled += read;
+            }
+            int start = 0;
+            if (header) {
+                int afterHeader = scanRecord(buffer, 0, filled);
+                if (afterHeader < 0 && !eof) {
+                    window = growIfFull(window, filled);
+                    buffer = ByteBuffer.wrap(window);
+                    continue;
+                }
+                start = afterHeader < 0 ? filled : afterHeader;
+                header = false;
+            }
+            int consumed = parseRecords(buffer, start, filled, eof, action);
+            System.arraycopy(window, consumed, window, 0, filled - consumed);
+            filled -= consumed;
+            window = growIfFull(window, filled);
+            buffer = ByteBuffer.wrap(window);
+        }
+    }
+
+    /** Note la position et la longueur en octets de chaque enregistrement valide. */
+    void index(ByteBuffer data, TitleIndex.Builder index) {
+        int position = skipRecord(data, 0, data.limit());
+        while (position < data.limit()) {
+            int next = skipRecord(data, position, data.limit());
+            BoardGame game = buildGame(data);
+            if (game != null) {
+                index.add(game, position, next - position);
+            }
+            position = next;
+        }
+    }
+
+    /**
+     * Coupe [from, to) après le premier saut de ligne qui termine un enregistrement une fois
+     * {@code chunkSize} octets dépassés. Les guillemets suivent la règle de {@link #scanRecord} :
+     * seul un guillemet en début de champ ouvre une zone citée, un guillemet isolé au milieu
+     * d'un champ non cité (12" Pizza) reste un caractère ordinaire et ne décale pas les blocs.
+     */
+    static List<int[]> splitChunks(ByteBuffer data, int from, int to, int chunkSize) {
+        List<int[]> chunks = new ArrayList<>();
+        int start = from;
+        int position = from;
+        boolean atFieldStart = true;
+        boolean inQuotes = false;
+        while (position < to) {
+            byte b = data.get(position++);
+            if (inQuotes) {
+                if (b == QUOTE) {
+                    if (position < to && data.get(position) == QUOTE) {
+                        position++; // "" échappé
+                    } else {
+                        inQuotes = false;
+                    }
+                }
+            } else if (b == QUOTE && atFieldStart) {
+                inQuotes = true;
+            } else if (b == LF && position - start >= chunkSize) {
+                chunks.add(new int[] {start, position});
+                start = position;
+            }
+            atFieldStart = !inQuotes && (b == COMMA || b == LF);
+        }
+        if (start < to) {
+            chunks.add(new int[] {start, to});
+        }
+        return chunks;
+    }
+
+    /**
+     * Analyse les enregistrements complets de [from, to) et renvoie la position qui suit
+     * le dernier. Si {@code eof} est faux, un enregistrement sans fin de ligne est laissé
+     * pour l'appel suivant.
+     */
+    int parseRecords(ByteBuffer data, int from, int to, boolean eof, Consumer<BoardGame> action) {
+        int position = from;
+        while (position < to) {
+            int next = scanRecord(data, position, to);
+            if (next < 0) {
+                if (!eof) {
+                    return position;
+                }
+                next = to;
+            }
+            BoardGame game = buildGame(data);
+            if (game != null) {
+                action.accept(game);
+            }
+            position = next;
+        }
+        return position;
+    }
+
+    private int skipRecord(ByteBuffer data, int from, int to) {
+        int next = scanRecord(data, from, to);
+        return next < 0 ? to : next;
+    }
+
+    /**
+     * Repère les bornes des champs d'un enregistrement. Renvoie la position après le
+     * saut de ligne, ou -1 si l'enregistrement n'est pas terminé avant {@code to}.
+     */
+    private int scanRecord(ByteBuffer data, int from, int to) {
+        int field = 0;
+        int position = from;
+        int start = from;
+        boolean quoted = false;
+        boolean inQuotes = false;
+        for (int i = 0; i < FIELDS; i++) {
+            fieldStart[i] = -1;
+        }
+        while (position < to) {
+            byte b = data.get(position);
+            if (inQuotes) {
+                if (b == QUOTE) {
+                    if (position + 1 < to && data.get(position + 1) == QUOTE) {
+                        position++; // "" échappé
+                    } else {
+                        inQuotes = false;
+                    }
+                }
+            } else if (b == QUOTE && position == start) {
+                quoted = true;
+                inQuotes = true;
+            } else if (b == COMMA) {
+                recordField(field++, start, position, quoted);
+                start = position + 1;
+                quoted = false;
+            } else if (b == LF) {
+                int end = position > start && data.get(position - 1) == CR ? position - 1 : position;
+                recordField(field, start, end, quoted);
+                return position + 1;
+            }
+            position++;
+        }
+        recordField(field, start, to, quoted);
+        return -1;
+    }
+
+    private void recordField(int field, int start, int end, boolean quoted) {
+        if (field < FIELDS) {
+            fieldStart[field] = start;
+            fieldEnd[field] = end;
+            fieldQuoted[field] = quoted;
+        }
+    }
+
+    private BoardGame buildGame(ByteBuffer data) {
+        for (int i = 0; i < REQUIRED_FIELDS; i++) {
+            if (fieldStart[i] < 0) {
+                return null;
+            }
+        }
+        int minPlayers = parseInt(data, 1);
+        int maxPlayers = parseInt(data, 2);
+        if (minPlayers < 0 || maxPlayers < 0) {
+            return null;
+        }
+        long id = fieldStart[ID_FIELD] < 0 ? BoardGame.NO_ID : parseId(data);
+        return new BoardGame(decode(data, 0), minPlayers, maxPlayers, decode(data, 3), id);
+    }
+
+    private String decode(ByteBuffer data, int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (fieldQuoted[field]) {
+            start++;
+            if (end > start && data.get(end - 1) == QUOTE) {
+                end--;
+            }
+        }
+        if (scratch.length < end - start) {
+            scratch = new byte[Math.max(end - start, scratch.length * 2)];
+        }
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            byte b = data.get(i);
+            scratch[length++] = b;
+            if (b == QUOTE && fieldQuoted[field]) {
+                i++; // "" -> "
+            }
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    // Renvoie -1 si le champ n'est pas un entier positif
+    private int parseInt(ByteBuffer data, int field) {
+        int start = fieldStart[field];
+        int end = fieldEnd[field];
+        if (fieldQuoted[field]) {
+            start++;
+            end--;
+        }
+        if (start >= end || end - start > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = data.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Un identifiant illisible est ignoré : la collection en attribuera un nouveau
+    private long parseId(ByteBuffer data) {
+        int start = fieldStart[ID_FIELD];
+        int end = fieldEnd[ID_FIELD];
+        if (fieldQuoted[ID_FIELD]) {
+            start++;
+            end--;
+        }
+        if (start >= end || end - start > 18) {
+            return BoardGame.NO_ID;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = data.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return BoardGame.NO_ID;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static byte[] growIfFull(byte[] window, int filled) {
+        if (filled < window.length) {
+            return window;
+        }
+        byte[] larger = new byte[window.length * 2];
+        System.arraycopy(window, 0, larger, 0, filled);
+        return larger;
+    }
+}
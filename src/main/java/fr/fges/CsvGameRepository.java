@@ -1,72 +1,201 @@
 package fr.fges;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class CsvGameRepository implements GameRepository {
     private final String filePath;
     private static final String HEADER = "title,minPlayers,maxPlayers,category";
+    private static final String HEADER_WITH_ID = HEADER + ",id";
+    private final StorageCodec compression;
+    private final DurableFileWriter fileWriter;
+    // Index des titres sur disque, seulement pour un fichier non compressé
+    private final boolean indexed;
+    private TitleIndex titleIndex;
 
     public CsvGameRepository(String filePath) {
+        this(filePath, new DurableFileWriter(DurabilityPolicy.ALWAYS));
+    }
+
+    public CsvGameRepository(String filePath, DurableFileWriter fileWriter) {
+        this(filePath, fileWriter, false);
+    }
+
+    public CsvGameRepository(String filePath, DurableFileWriter fileWriter, boolean titleIndex) {
         this.filePath = filePath;
+        this.compression = StorageCodec.forPath(filePath);
+        this.fileWriter = fileWriter;
+        this.indexed = titleIndex && compression == StorageCodec.NONE;
     }
 
     @Override
     public void save(List<BoardGame> games) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            writer.write(HEADER);
-            writer.newLine();
-            for (BoardGame game : games) {
-                writer.write(formatGame(game));
-                writer.newLine();
-            }
+        saveFrom(games::forEach);
+    }
+
+    @Override
+    public void saveFrom(GameSource games) throws IOException {
+        Path path = Path.of(filePath);
+        if (compression != StorageCodec.NONE) {
+            fileWriter.replace(path, out -> compression.encode(out,
+                    compressed -> writeCsv(games, Channels.newChannel(compressed), null)));
+            return;
+        }
+        TitleIndex.Builder builder = indexed ? new TitleIndex.Builder() : null;
+        titleIndex = null;
+        fileWriter.replaceWithChannel(path, channel -> writeCsv(games, channel, builder));
+        if (builder != null) {
+            builder.write(path, fileWriter);
         }
     }
 
+    /**
+     * Les positions en octets tenues par l'écrivain donnent directement les entrées de l'index.
+     * La colonne id n'est écrite que si le premier jeu a un identifiant : une collection sans
+     * identifiants garde le format à quatre colonnes.
+     */
+    private void writeCsv(GameSource games, WritableByteChannel channel, TitleIndex.Builder index) throws IOException {
+        CsvGameWriter writer = new CsvGameWriter(channel, index == null ? null : index.checksum());
+        // null tant que l'en-tête n'est pas écrit
+        Boolean[] withIds = {null};
+        try {
+            games.forEach(game -> {
+                try {
+                    if (withIds[0] == null) {
+                        withIds[0] = game.hasId();
+                        writer.writeHeader(withIds[0] ? HEADER_WITH_ID : HEADER);
+                    }
+                    long start = writer.position();
+                    writer.write(game, withIds[0]);
+                    if (index != null) {
+                        index.add(game, start, (int) (writer.position() - start));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (withIds[0] == null) {
+            writer.writeHeader(HEADER);
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        fileWriter.close();
+    }
+
     @Override
     public List<BoardGame> load() throws IOException {
-        List<BoardGame> games = new ArrayList<>();
-        File file = new File(filePath);
-        if (!file.exists()) {
-            return games;
+        ByteBuffer data = readAll();
+        if (data == null) {
+            return streamAll();
         }
+        return CsvGameParser.parseParallel(data);
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            boolean isHeader = true;
-            while ((line = reader.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
-                }
-                BoardGame game = parseGame(line);
-                if (game != null) {
-                    games.add(game);
-                }
+    // Parcours en flux, mémoire constante : le fichier n'est jamais lu en entier
+    @Override
+    public void forEach(Consumer<BoardGame> action) throws IOException {
+        try (InputStream in = openStream()) {
+            if (in != null) {
+                new CsvGameParser().parse(in, action);
             }
         }
-        return games;
     }
 
-    private String formatGame(BoardGame game) {
-        return game.title() + "," + game.minPlayers() + "," + game.maxPlayers() + "," + game.category();
+    @Override
+    public List<BoardGame> findByTitle(String title) throws Exception {
+        TitleIndex index = titleIndex();
+        if (index == null) {
+            return GameRepository.super.findByTitle(title);
+        }
+        List<BoardGame> matches = new ArrayList<>();
+        CsvGameParser parser = new CsvGameParser();
+        for (byte[] record : index.lookup(title)) {
+            parser.parseRecords(ByteBuffer.wrap(record), 0, record.length, true, matches::add);
+        }
+        return matches;
+    }
+
+    @Override
+    public long count() throws Exception {
+        TitleIndex index = titleIndex();
+        return index == null ? GameRepository.super.count() : index.size();
     }
 
-    private BoardGame parseGame(String line) {
-        String[] parts = line.split(",");
-        if (parts.length < 4) {
+    private TitleIndex titleIndex() throws IOException {
+        Path path = Path.of(filePath);
+        if (!indexed || !Files.exists(path)) {
             return null;
         }
-        try {
-            return new BoardGame(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), parts[3]);
-        } catch (NumberFormatException e) {
+        if (titleIndex == null || !titleIndex.isCurrent()) {
+            titleIndex = TitleIndex.openOrRebuild(path, fileWriter, this::scanOffsets);
+        }
+        return titleIndex;
+    }
+
+    private void scanOffsets(TitleIndex.Builder builder) throws IOException {
+        ByteBuffer data = readAll();
+        if (data != null) {
+            builder.checksum().update(data.duplicate());
+            new CsvGameParser().index(data, builder);
+        }
+    }
+
+    private List<BoardGame> streamAll() throws IOException {
+        List<BoardGame> games = new ArrayList<>();
+        try (InputStream in = openStream()) {
+            if (in != null) {
+                new CsvGameParser().parse(in, games::add);
+            }
+        }
+        return games;
+    }
+
+    /**
+     * Contenu du fichier dans un tampon du tas, ou null s'il est absent, vide, compressé ou
+     * trop grand pour un seul tableau. Le fichier n'est pas mappé : un mapping reste actif
+     * jusqu'au passage du ramasse-miettes, et sous Windows il empêcherait de renommer le
+     * fichier temporaire sur data.csv à la sauvegarde suivante.
+     */
+    private ByteBuffer readAll() throws IOException {
+        Path path = Path.of(filePath);
+        if (compression != StorageCodec.NONE || !Files.exists(path)) {
             return null;
         }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || size > Integer.MAX_VALUE - 8) {
+                return null;
+            }
+            ByteBuffer data = ByteBuffer.allocate((int) size);
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) {
+                    break; // fichier raccourci pendant la lecture
+                }
+            }
+            return data.flip();
+        }
+    }
+
+    private InputStream openStream() throws IOException {
+        Path path = Path.of(filePath);
+        return Files.exists(path) ? compression.decode(Files.newInputStream(path)) : null;
     }
 }
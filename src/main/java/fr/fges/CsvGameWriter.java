@@ -0,0 +1,164 @@
+package fr.fges;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Écriture CSV directement dans un tampon NIO vidé sur le canal quand il est plein :
+ * les champs sont encodés en UTF-8 caractère par caractère, sans construire de chaîne
+ * par ligne. La position en octets est suivie pour l'index des titres.
+ */
+final class CsvGameWriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Pire cas d'un caractère encodé en UTF-8 (paire de substitution)
+    private static final int MAX_CHAR_BYTES = 4;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+
+    private final WritableByteChannel channel;
+    // Voit passer tous les octets écrits, pour l'en-tête de l'index ; peut être nul
+    private final CRC32 checksum;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long flushed;
+
+    CsvGameWriter(WritableByteChannel channel, CRC32 checksum) {
+        this.channel = channel;
+        this.checksum = checksum;
+    }
+
+    long position() {
+        return flushed + buffer.position();
+    }
+
+    void writeHeader(String header) throws IOException {
+        writeText(header);
+        endLine();
+    }
+
+    // Avec withId, une cinquième colonne porte l'identifiant (vide pour un jeu qui n'en a pas)
+    void write(BoardGame game, boolean withId) throws IOException {
+        writeField(game.title());
+        put((byte) ',');
+        writeNumber(game.minPlayers());
+        put((byte) ',');
+        writeNumber(game.maxPlayers());
+        put((byte) ',');
+        writeField(game.category());
+        if (withId) {
+            put((byte) ',');
+            if (game.hasId()) {
+                writeNumber(game.id());
+            }
+        }
+        endLine();
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        if (checksum != null) {
+            checksum.update(buffer.duplicate());
+        }
+        while (buffer.hasRemaining()) {
+            flushed += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Guillemets RFC 4180 uniquement quand le champ contient un séparateur, un guillemet ou un saut de ligne
+    private void writeField(String field) throws IOException {
+        if (!needsQuotes(field)) {
+            writeText(field);
+            return;
+        }
+        put((byte) '"');
+        for (int i = 0; i < field.length(); i++) {
+            if (field.charAt(i) == '"') {
+                put((byte) '"');
+            }
+            i = writeChar(field, i);
+        }
+        put((byte) '"');
+    }
+
+    private static boolean needsQuotes(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeText(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            i = writeChar(text, i);
+        }
+    }
+
+    // Encode le caractère à l'indice i et renvoie l'indice du dernier caractère consommé
+    private int writeChar(String text, int i) throws IOException {
+        char c = text.charAt(i);
+        if (c < 0x80) {
+            put((byte) c);
+            return i;
+        }
+        ensure(MAX_CHAR_BYTES);
+        if (c < 0x800) {
+            buffer.put((byte) (0xC0 | c >> 6));
+            buffer.put((byte) (0x80 | c & 0x3F));
+            return i;
+        }
+        if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, text.charAt(i + 1));
+            buffer.put((byte) (0xF0 | codePoint >> 18));
+            buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+            buffer.put((byte) (0x80 | codePoint & 0x3F));
+            return i + 1;
+        }
+        if (Character.isSurrogate(c)) {
+            // Substitution isolée : même remplacement que String.getBytes
+            buffer.put((byte) '?');
+            return i;
+        }
+        buffer.put((byte) (0xE0 | c >> 12));
+        buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+        buffer.put((byte) (0x80 | c & 0x3F));
+        return i;
+    }
+
+    private void writeNumber(long value) throws IOException {
+        ensure(20);
+        long remaining = value;
+        if (remaining < 0) {
+            buffer.put((byte) '-');
+            remaining = -remaining;
+        }
+        long divisor = 1;
+        while (divisor <= remaining / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            buffer.put((byte) ('0' + remaining / divisor % 10));
+        }
+    }
+
+    private void endLine() throws IOException {
+        ensure(LINE_SEPARATOR.length);
+        buffer.put(LINE_SEPARATOR);
+    }
+
+    private void put(byte b) throws IOException {
+        ensure(1);
+        buffer.put(b);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package fr.fges;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+
+/**
+ * Libération explicite des tampons directs et des mappings de fichiers, sans attendre le
+ * ramasse-miettes : un mapping encore actif empêche sous Windows de renommer ou tronquer
+ * son fichier, et les tampons directs abandonnés comptent contre MaxDirectMemorySize
+ * jusqu'à leur collecte. Le tampon ne doit plus être lu ni écrit après {@link #free}.
+ */
+final class DirectBuffers {
+    // Unsafe.invokeCleaner, null si indisponible : la mémoire est alors libérée par le ramasse-miettes
+    private static final MethodHandle CLEANER = findCleaner();
+
+    private DirectBuffers() {
+    }
+
+    static void free(ByteBuffer buffer) {
+        if (CLEANER == null || buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        try {
+            CLEANER.invokeExact(buffer);
+        } catch (Throwable e) {
+            // vue d'un autre tampon, ou déjà libéré : laissé au ramasse-miettes
+        }
+    }
+
+    private static MethodHandle findCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field instance = unsafeClass.getDeclaredField("theUnsafe");
+            instance.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(instance.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package fr.fges;
+
+/**
+ * Politique de synchronisation disque des sauvegardes :
+ * ALWAYS (fsync à chaque sauvegarde), GROUP (un fsync groupé au plus tous les
+ * {@code groupCommitMillis} ms) ou NONE (le système décide quand écrire).
+ */
+public record DurabilityPolicy(Mode mode, long groupCommitMillis) {
+    static final long DEFAULT_GROUP_COMMIT_MILLIS = 50;
+
+    public static final DurabilityPolicy ALWAYS = new DurabilityPolicy(Mode.ALWAYS, 0);
+    public static final DurabilityPolicy NONE = new DurabilityPolicy(Mode.NONE, 0);
+
+    public enum Mode {
+        ALWAYS,
+        GROUP,
+        NONE
+    }
+
+    public static DurabilityPolicy group(long groupCommitMillis) {
+        return new DurabilityPolicy(Mode.GROUP, groupCommitMillis);
+    }
+
+    // Formats acceptés : always, none, group, group:<ms>
+    public static DurabilityPolicy parse(String value) {
+        if (value.equals("always")) {
+            return ALWAYS;
+        }
+        if (value.equals("none")) {
+            return NONE;
+        }
+        if (value.equals("group")) {
+            return group(DEFAULT_GROUP_COMMIT_MILLIS);
+        }
+        if (value.startsWith("group:")) {
+            try {
+                long millis = Long.parseLong(value.substring("group:".length()));
+                if (millis > 0) {
+                    return group(millis);
+                }
+            } catch (NumberFormatException e) {
+                // message d'erreur commun ci-dessous
+            }
+        }
+        throw new IllegalArgumentException("Invalid fsync policy: " + value + " (expected always, none or group[:<ms>])");
+    }
+}
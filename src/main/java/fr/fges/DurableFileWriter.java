@@ -0,0 +1,208 @@
+package fr.fges;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Écritures de fichiers résistantes aux arrêts brutaux : le contenu est écrit dans
+ * un fichier temporaire voisin puis renommé atomiquement sur la cible, qui n'est donc
+ * jamais vue à moitié écrite par un autre programme. Les fsync suivent la {@link DurabilityPolicy}.
+ *
+ * Avec ALWAYS et GROUP, le fichier temporaire est synchronisé avant le renommage : après
+ * une coupure de courant, la cible est l'ancienne ou la nouvelle version, jamais un mélange.
+ * GROUP ne diffère que le fsync du dossier, qui rend le renommage lui-même durable ; une
+ * coupure dans la fenêtre peut donc ramener l'ancienne version. Avec NONE, rien n'est
+ * synchronisé et cette garantie ne tient que tant que le système ne s'arrête pas : après
+ * une coupure, la cible peut être vide ou incomplète.
+ */
+public class DurableFileWriter {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    public interface StreamBody {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    public interface ChannelBody {
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    public interface SyncAction {
+        void sync() throws IOException;
+    }
+
+    private final DurabilityPolicy policy;
+    // Synchronisations en attente du prochain commit groupé, une par fichier
+    private final Map<Path, PendingSync> pendingSyncs = new LinkedHashMap<>();
+    private ScheduledExecutorService groupCommitter;
+
+    public DurableFileWriter(DurabilityPolicy policy) {
+        this.policy = policy;
+    }
+
+    public DurabilityPolicy policy() {
+        return policy;
+    }
+
+    public boolean syncsEachWrite() {
+        return policy.mode() == DurabilityPolicy.Mode.ALWAYS;
+    }
+
+    /**
+     * Vrai si le contenu d'un remplacement doit être synchronisé avant le renommage. Un corps
+     * qui écrit par un mapping doit alors forcer le mapping lui-même.
+     */
+    public boolean syncsBeforeRename() {
+        return policy.mode() != DurabilityPolicy.Mode.NONE;
+    }
+
+    public void replace(Path target, StreamBody body) throws IOException {
+        replaceWithChannel(target, channel -> {
+            OutputStream out = Channels.newOutputStream(channel);
+            body.writeTo(out);
+            out.flush();
+        });
+    }
+
+    public void replaceWithChannel(Path target, ChannelBody body) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.READ, StandardOpenOption.TRUNCATE_EXISTING)) {
+            body.writeTo(channel);
+            if (syncsBeforeRename()) {
+                channel.force(true);
+            }
+        } catch (IOException | RuntimeException e) {
+            // La cible n'a pas été touchée : on abandonne seulement le fichier temporaire
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (policy.mode() == DurabilityPolicy.Mode.GROUP) {
+            scheduleGroupCommit(target, null);
+        } else if (syncsEachWrite()) {
+            forceDirectory(target);
+        }
+    }
+
+    /**
+     * À appeler après une écriture en place (ajout au journal, mise à jour d'un mapping) :
+     * l'action de synchronisation est exécutée tout de suite, différée ou ignorée selon la politique.
+     */
+    public void synced(Path path, SyncAction action) throws IOException {
+        switch (policy.mode()) {
+            case ALWAYS -> action.sync();
+            case GROUP -> scheduleGroupCommit(path, action);
+            case NONE -> {
+            }
+        }
+    }
+
+    public void close() throws IOException {
+        ScheduledExecutorService committer;
+        synchronized (this) {
+            committer = groupCommitter;
+            groupCommitter = null;
+        }
+        if (committer != null) {
+            committer.shutdown();
+        }
+        commitPending();
+    }
+
+    // Sans action, la synchronisation est celle d'un remplacement : le dossier, le fichier l'étant déjà
+    private synchronized void scheduleGroupCommit(Path path, SyncAction inPlace) {
+        // Une seule entrée par fichier : plusieurs écritures rapprochées coûtent un seul fsync
+        boolean firstPending = pendingSyncs.isEmpty();
+        PendingSync pending = pendingSyncs.computeIfAbsent(path.toAbsolutePath(), PendingSync::new);
+        if (inPlace == null) {
+            // Les écritures en place qui précèdent visaient l'ancien fichier, remplacé depuis
+            pending.replaced = true;
+            pending.inPlace = null;
+        } else {
+            pending.inPlace = inPlace;
+        }
+        if (!firstPending) {
+            return;
+        }
+        if (groupCommitter == null) {
+            groupCommitter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "group-commit-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        groupCommitter.schedule(this::commitInBackground, policy.groupCommitMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void commitInBackground() {
+        try {
+            commitPending();
+        } catch (IOException e) {
+            System.out.println("Error syncing games: " + e.getMessage());
+        }
+    }
+
+    private void commitPending() throws IOException {
+        Map<Path, PendingSync> syncs;
+        synchronized (this) {
+            syncs = new LinkedHashMap<>(pendingSyncs);
+            pendingSyncs.clear();
+        }
+        for (PendingSync pending : syncs.values()) {
+            pending.sync();
+        }
+    }
+
+    /**
+     * Ce qu'un fichier attend du prochain commit groupé. Un remplacement puis des écritures en
+     * place dans la même fenêtre demandent les deux : la dernière action en place et le fsync
+     * du dossier qui rend le renommage durable.
+     */
+    private static final class PendingSync {
+        private final Path path;
+        private boolean replaced;
+        private SyncAction inPlace;
+
+        PendingSync(Path path) {
+            this.path = path;
+        }
+
+        void sync() throws IOException {
+            if (inPlace != null) {
+                inPlace.sync();
+            }
+            if (replaced) {
+                forceDirectory(path);
+            }
+        }
+    }
+
+    // Rend le renommage durable ; certains systèmes (Windows) ne permettent pas d'ouvrir un dossier
+    private static void forceDirectory(Path path) {
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // fsync du dossier non supporté
+        }
+    }
+}
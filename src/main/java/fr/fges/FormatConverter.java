@@ -0,0 +1,50 @@
+package fr.fges;
+
+import java.io.IOException;
+
+/**
+ * Conversion d'un fichier de stockage vers un autre format ({@code convert in.json out.csv}).
+ * Les jeux passent un par un de la lecture en streaming de la source à l'écriture de la
+ * cible : vers JSON ou CSV, la mémoire utilisée ne dépend pas de la taille du fichier.
+ * Les options de stockage ne s'appliquent qu'à la cible ; la source est lue sans être modifiée.
+ */
+public final class FormatConverter {
+
+    public record Result(long games, long elapsedNanos) {
+        public double gamesPerSecond() {
+            return elapsedNanos == 0 ? 0 : games * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+
+    private FormatConverter() {
+    }
+
+    public static Result convert(String input, String output, StorageOptions options) throws Exception {
+        GameRepository source = RepositoryFactory.openSource(input);
+        GameRepository target = RepositoryFactory.create(output, options);
+        try {
+            return convert(source, target);
+        } finally {
+            target.close();
+            source.close();
+        }
+    }
+
+    public static Result convert(GameRepository source, GameRepository target) throws Exception {
+        long start = System.nanoTime();
+        long[] count = {0};
+        target.saveFrom(action -> {
+            try {
+                source.forEach(game -> {
+                    count[0]++;
+                    action.accept(game);
+                });
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        });
+        return new Result(count[0], System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,278 @@
+package fr.fges;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index des titres normalisés pour les suggestions à distance d'édition au plus 2.
+ *
+ * Chaque titre est découpé en trois segments. Deux modifications ne peuvent en toucher
+ * que deux : un titre à distance 2 ou moins de la saisie contient donc l'un de ses
+ * segments intact, décalé d'au plus deux caractères. Une recherche se limite aux titres
+ * qui partagent un segment avec la saisie (pour chaque longueur compatible, chaque
+ * segment et chaque décalage). Un masque des caractères de chaque titre écarte ensuite
+ * la plupart des candidats avant le calcul de la distance de Levenshtein.
+ *
+ * Les segments sont rangés par empreinte 64 bits dans une table à adressage ouvert dont
+ * les entrées sont chaînées dans des tableaux d'entiers. Une collision ne fait
+ * qu'ajouter un candidat, écarté à la vérification. Un titre retiré laisse des entrées
+ * mortes, et l'index est reconstruit quand elles deviennent majoritaires.
+ */
+final class FuzzyTitleIndex {
+    static final int MAX_DISTANCE = 2;
+    private static final int SEGMENTS = MAX_DISTANCE + 1;
+    private static final int MIN_REBUILD = 1024;
+
+    record Match(String title, int distance) {
+    }
+
+    // Identifiant -> titre, null une fois retiré
+    private String[] titles = new String[16];
+    // Caractères présents dans chaque titre, un bit par caractère modulo 64
+    private long[] charMasks = new long[16];
+    private int titleCount;
+    private final Map<String, Integer> ids = new HashMap<>();
+    private int removed;
+    // Titres trop courts pour trois segments, toujours vérifiés
+    private final List<Integer> shortTitles = new ArrayList<>();
+    private int[] seen = new int[0];
+    private int searches;
+
+    // Table des segments : empreinte -> première entrée + 1 (0 = case vide)
+    private long[] slotHashes = new long[64];
+    private int[] slotHeads = new int[64];
+    private int slotsUsed;
+    // Entrées chaînées : titre et entrée suivante + 1 de la même case
+    private int[] entryTitles = new int[64];
+    private int[] entryNext = new int[64];
+    private int entryCount;
+
+    // Deux modifications couvrent l'inversion de deux lettres ; une seule pour un titre très court
+    static int tolerance(String title) {
+        return title.length() <= 3 ? 1 : MAX_DISTANCE;
+    }
+
+    void add(String title) {
+        if (ids.containsKey(title)) {
+            return;
+        }
+        if (titleCount == titles.length) {
+            titles = Arrays.copyOf(titles, titleCount * 2);
+            charMasks = Arrays.copyOf(charMasks, titleCount * 2);
+        }
+        int id = titleCount++;
+        titles[id] = title;
+        charMasks[id] = charMask(title);
+        ids.put(title, id);
+        int length = title.length();
+        if (length < SEGMENTS) {
+            shortTitles.add(id);
+            return;
+        }
+        for (int segment = 0; segment < SEGMENTS; segment++) {
+            int start = segmentStart(length, segment);
+            link(hash(length, segment, title, start, segmentStart(length, segment + 1)), id);
+        }
+    }
+
+    void remove(String title) {
+        Integer id = ids.remove(title);
+        if (id == null) {
+            return;
+        }
+        titles[id] = null;
+        shortTitles.remove(id);
+        removed++;
+        if (removed > MIN_REBUILD && removed > ids.size()) {
+            rebuild();
+        }
+    }
+
+    /** Titres à distance au plus maxDistance (2 au maximum), du plus proche au plus lointain. */
+    List<Match> search(String query, int maxDistance, int limit) {
+        int tolerance = Math.min(maxDistance, MAX_DISTANCE);
+        List<Match> matches = new ArrayList<>();
+        long queryMask = charMask(query);
+        for (int id : shortTitles) {
+            verify(query, queryMask, id, tolerance, matches);
+        }
+        // Marque des titres déjà vérifiés pendant cette recherche
+        if (seen.length < titleCount) {
+            seen = new int[titles.length];
+        }
+        int stamp = ++searches;
+        int queryLength = query.length();
+        for (int length = Math.max(SEGMENTS, queryLength - tolerance); length <= queryLength + tolerance; length++) {
+            int delta = queryLength - length;
+            for (int segment = 0; segment < SEGMENTS; segment++) {
+                int position = segmentStart(length, segment);
+                int segmentLength = segmentStart(length, segment + 1) - position;
+                for (int shift = -tolerance; shift <= tolerance; shift++) {
+                    // Les modifications à gauche du segment font le décalage, celles à droite le reste de l'écart
+                    int start = position + shift;
+                    if (Math.abs(shift) + Math.abs(delta - shift) > tolerance || start < 0
+                            || start + segmentLength > queryLength) {
+                        continue;
+                    }
+                    int entry = find(hash(length, segment, query, start, start + segmentLength));
+                    for (; entry > 0; entry = entryNext[entry - 1]) {
+                        int id = entryTitles[entry - 1];
+                        if (seen[id] != stamp) {
+                            seen[id] = stamp;
+                            verify(query, queryMask, id, tolerance, matches);
+                        }
+                    }
+                }
+            }
+        }
+        matches.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::title));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    private void verify(String query, long queryMask, int id, int tolerance, List<Match> matches) {
+        // Chaque modification ajoute ou retire au plus un caractère distinct : filtre sans lire le titre
+        long mask = charMasks[id];
+        if (titles[id] == null || Long.bitCount(queryMask & ~mask) > tolerance
+                || Long.bitCount(mask & ~queryMask) > tolerance) {
+            return;
+        }
+        int distance = distance(query, titles[id], tolerance);
+        if (distance <= tolerance) {
+            matches.add(new Match(titles[id], distance));
+        }
+    }
+
+    private static long charMask(String title) {
+        long mask = 0;
+        for (int i = 0; i < title.length(); i++) {
+            mask |= 1L << title.charAt(i);
+        }
+        return mask;
+    }
+
+    private static int segmentStart(int length, int segment) {
+        return segment * length / SEGMENTS;
+    }
+
+    private static long hash(int length, int segment, String text, int from, int to) {
+        long hash = 0xcbf29ce484222325L ^ (length * 31L + segment);
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+        }
+        // Mélange final pour répartir les bits de poids faible utilisés par la table
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ hash >>> 33;
+    }
+
+    private int find(long hash) {
+        int mask = slotHashes.length - 1;
+        for (int slot = (int) hash & mask; slotHeads[slot] != 0; slot = (slot + 1) & mask) {
+            if (slotHashes[slot] == hash) {
+                return slotHeads[slot];
+            }
+        }
+        return 0;
+    }
+
+    private void link(long hash, int id) {
+        if (entryCount == entryTitles.length) {
+            entryTitles = Arrays.copyOf(entryTitles, entryCount * 2);
+            entryNext = Arrays.copyOf(entryNext, entryCount * 2);
+        }
+        if ((slotsUsed + 1) * 2 > slotHashes.length) {
+            resize(slotHashes.length * 2);
+        }
+        int mask = slotHashes.length - 1;
+        int slot = (int) hash & mask;
+        while (slotHeads[slot] != 0 && slotHashes[slot] != hash) {
+            slot = (slot + 1) & mask;
+        }
+        if (slotHeads[slot] == 0) {
+            slotHashes[slot] = hash;
+            slotsUsed++;
+        }
+        entryTitles[entryCount] = id;
+        entryNext[entryCount] = slotHeads[slot];
+        slotHeads[slot] = ++entryCount;
+    }
+
+    private void resize(int capacity) {
+        long[] oldHashes = slotHashes;
+        int[] oldHeads = slotHeads;
+        slotHashes = new long[capacity];
+        slotHeads = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldHeads.length; i++) {
+            if (oldHeads[i] != 0) {
+                int slot = (int) oldHashes[i] & mask;
+                while (slotHeads[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slotHashes[slot] = oldHashes[i];
+                slotHeads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+    private void rebuild() {
+        List<String> live = new ArrayList<>(ids.keySet());
+        titles = new String[Math.max(16, live.size())];
+        charMasks = new long[titles.length];
+        titleCount = 0;
+        ids.clear();
+        removed = 0;
+        shortTitles.clear();
+        slotHashes = new long[64];
+        slotHeads = new int[64];
+        slotsUsed = 0;
+        entryCount = 0;
+        live.forEach(this::add);
+    }
+
+    /**
+     * Distance de Levenshtein, ou limit + 1 dès qu'elle dépasse limit. Seule la bande de
+     * largeur 2 * limit + 1 autour de la diagonale est calculée.
+     */
+    static int distance(String a, String b, int limit) {
+        int n = a.length();
+        int m = b.length();
+        if (Math.abs(n - m) > limit) {
+            return limit + 1;
+        }
+        int outside = limit + 1;
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int j = 0; j <= m; j++) {
+            previous[j] = Math.min(j, outside);
+        }
+        for (int i = 1; i <= n; i++) {
+            int from = Math.max(1, i - limit);
+            int to = Math.min(m, i + limit);
+            current[from - 1] = from == 1 ? Math.min(i, outside) : outside;
+            int rowMin = current[from - 1];
+            char c = a.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int substitution = previous[j - 1] + (c == b.charAt(j - 1) ? 0 : 1);
+                int above = j <= i - 1 + limit ? previous[j] : outside;
+                int value = Math.min(substitution, Math.min(above, current[j - 1]) + 1);
+                current[j] = Math.min(value, outside);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (to < m) {
+                current[to + 1] = outside;
+            }
+            if (rowMin > limit) {
+                return outside;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+}
@@ -0,0 +1,123 @@
+package fr.fges;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Index bitmap des jeux résidents : chaque jeu reçoit un identifiant dense (les
+ * identifiants libérés sont réutilisés) et figure dans un {@link CompressedBitmap} par
+ * nombre de joueurs (1 à {@link GameCollection#MAX_INDEXED_PLAYERS}) et par catégorie.
+ * Un {@link GameFilter} s'évalue alors par intersections, unions et différences.
+ */
+final class GameBitmapIndex {
+    private BoardGame[] games = new BoardGame[16];
+    // Par instance : deux jeux égaux en valeur ont chacun leur identifiant
+    private final Map<BoardGame, Integer> ids = new IdentityHashMap<>();
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    private int nextId;
+    private final CompressedBitmap[] byPlayers = new CompressedBitmap[GameCollection.MAX_INDEXED_PLAYERS + 1];
+    // Jeux jouables au-delà du dernier nombre indexé, vérifiés un par un pour ces nombres
+    private final CompressedBitmap beyondIndexed = new CompressedBitmap();
+    private final Map<String, CompressedBitmap> byCategory = new HashMap<>();
+
+    GameBitmapIndex() {
+        for (int players = 1; players <= GameCollection.MAX_INDEXED_PLAYERS; players++) {
+            byPlayers[players] = new CompressedBitmap();
+        }
+    }
+
+    void add(BoardGame game) {
+        int id = freeIds.isEmpty() ? nextId++ : freeIds.pop();
+        if (id == games.length) {
+            games = Arrays.copyOf(games, id * 2);
+        }
+        games[id] = game;
+        ids.put(game, id);
+        int last = Math.min(game.maxPlayers(), GameCollection.MAX_INDEXED_PLAYERS);
+        for (int players = Math.max(game.minPlayers(), 1); players <= last; players++) {
+            byPlayers[players].add(id);
+        }
+        if (game.maxPlayers() > GameCollection.MAX_INDEXED_PLAYERS) {
+            beyondIndexed.add(id);
+        }
+        byCategory.computeIfAbsent(game.category(), key -> new CompressedBitmap()).add(id);
+    }
+
+    void remove(BoardGame game) {
+        Integer id = ids.remove(game);
+        if (id == null) {
+            return;
+        }
+        games[id] = null;
+        freeIds.push(id);
+        int last = Math.min(game.maxPlayers(), GameCollection.MAX_INDEXED_PLAYERS);
+        for (int players = Math.max(game.minPlayers(), 1); players <= last; players++) {
+            byPlayers[players].remove(id);
+        }
+        beyondIndexed.remove(id);
+        CompressedBitmap category = byCategory.get(game.category());
+        category.remove(id);
+        if (category.cardinality() == 0) {
+            byCategory.remove(game.category());
+        }
+    }
+
+    /**
+     * Jeux qui satisfont le filtre, par identifiant croissant. Les débuts de titre passent
+     * par titlePrefix, qui donne les jeux concernés depuis l'index trié des titres.
+     */
+    List<BoardGame> filter(GameFilter filter, Function<String, List<BoardGame>> titlePrefix) {
+        List<BoardGame> matches = new ArrayList<>();
+        evaluate(filter, titlePrefix).forEach(id -> matches.add(games[id]));
+        return matches;
+    }
+
+    private CompressedBitmap evaluate(GameFilter filter, Function<String, List<BoardGame>> titlePrefix) {
+        return switch (filter) {
+            case GameFilter.Category category -> {
+                CompressedBitmap games = byCategory.get(category.category());
+                yield games == null ? new CompressedBitmap() : games;
+            }
+            case GameFilter.Players players -> players(players.count());
+            case GameFilter.TitlePrefix prefix -> idsOf(titlePrefix.apply(prefix.prefix()));
+            case GameFilter.And and -> evaluate(and.left(), titlePrefix).and(evaluate(and.right(), titlePrefix));
+            case GameFilter.Or or -> evaluate(or.left(), titlePrefix).or(evaluate(or.right(), titlePrefix));
+            case GameFilter.AndNot andNot ->
+                    evaluate(andNot.left(), titlePrefix).andNot(evaluate(andNot.right(), titlePrefix));
+        };
+    }
+
+    private CompressedBitmap players(int count) {
+        if (count >= 1 && count <= GameCollection.MAX_INDEXED_PLAYERS) {
+            return byPlayers[count];
+        }
+        CompressedBitmap matches = new CompressedBitmap();
+        if (count > GameCollection.MAX_INDEXED_PLAYERS) {
+            beyondIndexed.forEach(id -> {
+                if (games[id].supportsPlayers(count)) {
+                    matches.add(id);
+                }
+            });
+        }
+        return matches;
+    }
+
+    // Identifiants des jeux listés, qui sont les instances indexées (doublons compris)
+    private CompressedBitmap idsOf(List<BoardGame> matches) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (BoardGame game : matches) {
+            Integer id = ids.get(game);
+            if (id != null) {
+                bitmap.add(id);
+            }
+        }
+        return bitmap;
+    }
+}
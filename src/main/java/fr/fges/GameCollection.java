@@ -1,49 +1,638 @@
 package fr.fges;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 public class GameCollection {
-    private final List<BoardGame> games = new ArrayList<>();
+    // Nombre de joueurs maximal accepté par AddGame ; au-delà, les requêtes parcourent la collection
+    static final int MAX_INDEXED_PLAYERS = 30;
+
+    // Jeux identifiés, colonnes compactes avec --compact ou tampon direct avec --off-heap
+    private final List<BoardGame> games;
+    private final SlottedGameList slotted;
+    private final CompactGameStore compact;
+    private final OffHeapGameStore offHeap;
+    // Titre normalisé -> jeux résidents portant ce titre, tenu à jour à chaque mutation de games
+    private final Map<String, List<BoardGame>> byTitle = new HashMap<>();
+    // Mêmes titres normalisés, triés, pour la recherche par préfixe
+    private final TreeSet<String> sortedTitles = new TreeSet<>();
+    // Index des fautes de frappe, construit à la première suggestion puis tenu à jour
+    private FuzzyTitleIndex fuzzyTitles;
+    // byPlayers.get(n) : jeux résidents jouables à n joueurs, dans l'ordre de la collection ;
+    // un jeu en est retiré par son identifiant, en temps constant
+    private final List<SlottedGameList> byPlayers = new ArrayList<>(MAX_INDEXED_PLAYERS + 1);
+    // Plages [minPlayers, maxPlayers] des jeux résidents, pour les requêtes sur un intervalle
+    private final PlayerRangeIndex byRange = new PlayerRangeIndex();
+    // Catégories internées et index inversé catégorie -> jeux
+    private final CategoryIndex byCategory = new CategoryIndex();
+    // Vues triées pour l'affichage, construites au premier listage puis tenues à jour
+    private SortedGameViews sortedViews;
+    // Index bitmap des filtres composés, construit au premier filtre puis tenu à jour
+    private GameBitmapIndex bitmaps;
     private final GameRepository repository;
     private final GameCollectionPresenter presenter;
+    // En mode streaming, les jeux restent sur disque et sont relus à chaque parcours
+    private final boolean resident;
+    // Index tenus seulement pour une liste d'objets : en mode compact ou hors tas, les requêtes parcourent le stockage
+    private final boolean indexed;
+    // Chargement en arrière-plan : les accès aux jeux attendent sa fin
+    private volatile CompletableFuture<Integer> loading = CompletableFuture.completedFuture(0);
+    // Surveillance des modifications externes (--watch), démarrée après le chargement
+    private final HotReloader reloader;
+    private final AtomicBoolean closed = new AtomicBoolean();
 
     public GameCollection(String storageFile) {
-        this.repository = RepositoryFactory.create(storageFile);
+        this(storageFile, StorageOptions.defaults());
+    }
+
+    public GameCollection(String storageFile, StorageOptions options) {
+        this.repository = RepositoryFactory.create(storageFile, options);
         this.presenter = new GameCollectionPresenter();
+        this.resident = !options.streaming();
+        this.compact = options.compact() ? new CompactGameStore() : null;
+        this.offHeap = options.offHeap() ? new OffHeapGameStore() : null;
+        this.slotted = compact == null && offHeap == null ? new SlottedGameList() : null;
+        this.games = compact != null ? compact : offHeap != null ? offHeap : slotted;
+        this.indexed = resident && compact == null && offHeap == null;
+        this.reloader = options.watch() ? new HotReloader(Path.of(storageFile), repository) : null;
+        for (int players = 0; players <= MAX_INDEXED_PLAYERS; players++) {
+            byPlayers.add(new SlottedGameList());
+        }
     }
 
     public List<BoardGame> getGames() {
-        return games;
+        awaitLoaded();
+        return resident ? Collections.unmodifiableList(games) : loadStored();
     }
 
-    public void addGame(BoardGame game) {
-        games.add(game);
-        save();
+    public void forEachGame(Consumer<BoardGame> action) {
+        awaitLoaded();
+        if (resident) {
+            games.forEach(action);
+            return;
+        }
+        try {
+            repository.forEach(action);
+        } catch (Exception e) {
+            System.out.println("Error loading games: " + e.getMessage());
+        }
     }
 
+    public long size() {
+        awaitLoaded();
+        if (resident) {
+            return games.size();
+        }
+        try {
+            return repository.count();
+        } catch (Exception e) {
+            System.out.println("Error loading games: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    public boolean isEmpty() {
+        awaitLoaded();
+        if (resident) {
+            return games.isEmpty();
+        }
+        try {
+            return repository.count() == 0;
+        } catch (Exception e) {
+            System.out.println("Error loading games: " + e.getMessage());
+            return true;
+        }
+    }
+
+    // Jeux dont le titre correspond sans distinction de casse ni espaces de bord
+    public List<BoardGame> findByTitle(String title) {
+        awaitLoaded();
+        if (indexed) {
+            return List.copyOf(byTitle.getOrDefault(BoardGame.normalizeTitle(title), List.of()));
+        }
+        if (resident) {
+            String key = BoardGame.normalizeTitle(title);
+            List<BoardGame> matches = new ArrayList<>();
+            forEachGame(game -> {
+                if (BoardGame.normalizeTitle(game.title()).equals(key)) {
+                    matches.add(game);
+                }
+            });
+            return matches;
+        }
+        try {
+            return repository.findByTitle(title);
+        } catch (Exception e) {
+            System.out.println("Error loading games: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Jeux dont le titre normalisé commence par prefix, par ordre de titre : au plus limit
+     * titres distincts, strictement après afterTitle (null pour la première page).
+     */
+    public List<BoardGame> gamesWithTitlePrefix(String prefix, String afterTitle, int limit) {
+        awaitLoaded();
+        String key = BoardGame.normalizeTitle(prefix);
+        String after = afterTitle == null ? null : BoardGame.normalizeTitle(afterTitle);
+        List<BoardGame> matches = new ArrayList<>();
+        if (indexed) {
+            Iterable<String> candidates = after == null || after.compareTo(key) < 0
+                    ? sortedTitles.tailSet(key, true)
+                    : sortedTitles.tailSet(after, false);
+            int titles = 0;
+            for (String title : candidates) {
+                if (!title.startsWith(key) || titles++ == limit) {
+                    break;
+                }
+                matches.addAll(byTitle.get(title));
+            }
+            return matches;
+        }
+        TreeMap<String, List<BoardGame>> found = new TreeMap<>();
+        forEachGame(game -> {
+            String title = BoardGame.normalizeTitle(game.title());
+            if (title.startsWith(key) && (after == null || title.compareTo(after) > 0)) {
+                found.computeIfAbsent(title, ignored -> new ArrayList<>()).add(game);
+                if (found.size() > limit) {
+                    found.pollLastEntry();
+                }
+            }
+        });
+        found.values().forEach(matches::addAll);
+        return matches;
+    }
+
+    /**
+     * Titres proches du titre saisi (deux modifications au plus, une pour un titre de trois
+     * lettres ou moins), du plus proche au plus lointain ; le titre exact n'en fait pas partie.
+     */
+    public List<String> similarTitles(String title, int limit) {
+        awaitLoaded();
+        String key = BoardGame.normalizeTitle(title);
+        int maxDistance = FuzzyTitleIndex.tolerance(key);
+        List<String> similar = new ArrayList<>();
+        if (indexed) {
+            if (fuzzyTitles == null) {
+                fuzzyTitles = new FuzzyTitleIndex();
+                sortedTitles.forEach(fuzzyTitles::add);
+            }
+            for (FuzzyTitleIndex.Match match : fuzzyTitles.search(key, maxDistance, limit + 1)) {
+                if (match.distance() > 0 && similar.size() < limit) {
+                    similar.add(byTitle.get(match.title()).get(0).title());
+                }
+            }
+            return similar;
+        }
+        TreeMap<Integer, List<String>> byDistance = new TreeMap<>();
+        forEachGame(game -> {
+            String candidate = BoardGame.normalizeTitle(game.title());
+            int distance = FuzzyTitleIndex.distance(key, candidate, maxDistance);
+            if (distance > 0 && distance <= maxDistance) {
+                byDistance.computeIfAbsent(distance, ignored -> new ArrayList<>()).add(game.title());
+            }
+        });
+        byDistance.values().forEach(titles -> titles.stream()
+                .filter(candidate -> similar.size() < limit && !similar.contains(candidate))
+                .forEach(similar::add));
+        return similar;
+    }
+
+    public boolean containsTitle(String title) {
+        if (indexed) {
+            awaitLoaded();
+            return byTitle.containsKey(BoardGame.normalizeTitle(title));
+        }
+        return !findByTitle(title).isEmpty();
+    }
+
+    // Jeux jouables à playerCount joueurs, dans l'ordre de la collection
+    public List<BoardGame> gamesForPlayers(int playerCount) {
+        awaitLoaded();
+        if (indexed && isIndexedPlayerCount(playerCount)) {
+            return new ArrayList<>(byPlayers.get(playerCount));
+        }
+        List<BoardGame> compatible = new ArrayList<>();
+        forEachGame(game -> {
+            if (game.supportsPlayers(playerCount)) {
+                compatible.add(game);
+            }
+        });
+        return compatible;
+    }
+
+    // Jeu tiré uniformément parmi ceux jouables à playerCount joueurs, ou null s'il n'y en a aucun
+    public BoardGame randomGameForPlayers(int playerCount, Random random) {
+        awaitLoaded();
+        if (indexed && isIndexedPlayerCount(playerCount)) {
+            SlottedGameList compatible = byPlayers.get(playerCount);
+            return compatible.isEmpty() ? null : compatible.random(random);
+        }
+        // Tirage par réservoir : un seul passage, sans liste intermédiaire
+        BoardGame[] recommendation = new BoardGame[1];
+        int[] compatibleCount = {0};
+        forEachGame(game -> {
+            if (game.supportsPlayers(playerCount)) {
+                compatibleCount[0]++;
+                if (random.nextInt(compatibleCount[0]) == 0) {
+                    recommendation[0] = game;
+                }
+            }
+        });
+        return recommendation[0];
+    }
+
+    // Jeux dont la plage de joueurs chevauche [from, to], triés par plage
+    public List<BoardGame> gamesOverlappingPlayers(int from, int to) {
+        awaitLoaded();
+        if (indexed) {
+            return byRange.overlapping(from, to);
+        }
+        List<BoardGame> matches = new ArrayList<>();
+        forEachGame(game -> {
+            if (game.minPlayers() <= to && game.maxPlayers() >= from) {
+                matches.add(game);
+            }
+        });
+        return matches;
+    }
+
+    // Jeux jouables pour tout nombre de joueurs entre from et to, triés par plage
+    public List<BoardGame> gamesForPlayerRange(int from, int to) {
+        awaitLoaded();
+        if (indexed) {
+            return byRange.covering(from, to);
+        }
+        List<BoardGame> matches = new ArrayList<>();
+        forEachGame(game -> {
+            if (game.supportsPlayers(from) && game.supportsPlayers(to)) {
+                matches.add(game);
+            }
+        });
+        return matches;
+    }
+
+    // Jeux d'une catégorie (texte exact), dans l'ordre de la collection
+    public List<BoardGame> gamesInCategory(String category) {
+        awaitLoaded();
+        if (indexed) {
+            return byCategory.games(category);
+        }
+        List<BoardGame> matches = new ArrayList<>();
+        forEachGame(game -> {
+            if (game.category().equals(category)) {
+                matches.add(game);
+            }
+        });
+        return matches;
+    }
+
+    /**
+     * Jeux qui satisfont un filtre composé (catégorie, joueurs, début de titre). En mémoire,
+     * le filtre est évalué sur les bitmaps sans parcourir la collection.
+     */
+    public List<BoardGame> filter(GameFilter filter) {
+        awaitLoaded();
+        if (!indexed) {
+            List<BoardGame> matches = new ArrayList<>();
+            forEachGame(game -> {
+                if (filter.test(game)) {
+                    matches.add(game);
+                }
+            });
+            return matches;
+        }
+        if (bitmaps == null) {
+            bitmaps = new GameBitmapIndex();
+            games.forEach(bitmaps::add);
+        }
+        return bitmaps.filter(filter, prefix -> gamesWithTitlePrefix(prefix, null, Integer.MAX_VALUE));
+    }
+
+    // Nombre de jeux par catégorie, triées par nom
+    public Map<String, Integer> categoryCounts() {
+        awaitLoaded();
+        if (indexed) {
+            return byCategory.counts();
+        }
+        Map<String, Integer> counts = new TreeMap<>();
+        forEachGame(game -> counts.merge(game.category(), 1, Integer::sum));
+        return counts;
+    }
+
+    private static boolean isIndexedPlayerCount(int playerCount) {
+        return playerCount >= 1 && playerCount <= MAX_INDEXED_PLAYERS;
+    }
+
+    /**
+     * Ajoute le jeu et le renvoie tel qu'il est rangé : dans la collection indexée, avec son
+     * identifiant (conservé s'il est libre, nouveau sinon), pour un retrait ou une annulation directs.
+     */
+    public BoardGame addGame(BoardGame game) {
+        awaitLoadedForWrite();
+        BoardGame added = game;
+        try {
+            if (reloader != null) {
+                added = addResident(game);
+                BoardGame stored = added;
+                reloader.ownWrite(stored, null, () -> repository.onGameAdded(stored, games));
+            } else if (resident) {
+                added = addResident(game);
+                repository.onGameAdded(added, games);
+            } else {
+                repository.add(game);
+            }
+        } catch (Exception e) {
+            System.out.println("Error saving games: " + e.getMessage());
+        }
+        return added;
+    }
+
+    // Retire le jeu portant l'identifiant de game s'il lui est égal, sinon le premier jeu égal
     public void removeGame(BoardGame game) {
-        games.remove(game);
-        save();
+        awaitLoadedForWrite();
+        try {
+            if (reloader != null) {
+                removeResident(game);
+                reloader.ownWrite(null, game, () -> repository.onGameRemoved(game, games));
+            } else if (resident) {
+                removeResident(game);
+                repository.onGameRemoved(game, games);
+            } else {
+                repository.remove(game);
+            }
+        } catch (Exception e) {
+            System.out.println("Error saving games: " + e.getMessage());
+        }
+    }
+
+    // Jeu résident portant cet identifiant, ou null ; seule la collection indexée attribue des identifiants
+    public BoardGame findById(long id) {
+        awaitLoaded();
+        if (indexed) {
+            return slotted.byId(id);
+        }
+        BoardGame[] found = new BoardGame[1];
+        forEachGame(game -> {
+            if (found[0] == null && game.id() == id) {
+                found[0] = game;
+            }
+        });
+        return found[0];
     }
 
     public void viewAllGames() {
-        presenter.displayAll(games);
+        viewAllGames(GameOrder.TITLE);
+    }
+
+    public void viewAllGames(GameOrder order) {
+        presenter.displayAll(sortedGames(order));
+        presenter.displayCategories(categoryCounts());
+    }
+
+    // Jeux dans l'ordre demandé ; sans index (streaming, compact ou hors tas), la collection est parcourue puis triée
+    public Iterable<BoardGame> sortedGames(GameOrder order) {
+        awaitLoaded();
+        if (!indexed) {
+            return SortedGameViews.sorted(getGames(), order);
+        }
+        if (sortedViews == null) {
+            sortedViews = new SortedGameViews();
+            games.forEach(sortedViews::add);
+        }
+        return sortedViews.view(order);
     }
 
     public void loadFromFile() {
+        awaitLoaded();
+        loadResident();
+    }
+
+    /**
+     * Lance le chargement sur un thread démon et rend la main tout de suite ; le futur
+     * donne le nombre de jeux chargés. Les commandes qui lisent ou modifient la
+     * collection attendent la fin du chargement.
+     */
+    public CompletableFuture<Integer> loadInBackground() {
+        awaitLoaded();
+        CompletableFuture<Integer> started = new CompletableFuture<>();
+        loading = started;
+        Thread loader = new Thread(() -> {
+            try {
+                started.complete(loadResident());
+            } catch (RuntimeException | Error e) {
+                started.completeExceptionally(e);
+                throw e;
+            }
+        }, "game-loader");
+        loader.setDaemon(true);
+        loader.start();
+        return started;
+    }
+
+    private int loadResident() {
+        if (!resident) {
+            return 0;
+        }
         try {
-            games.addAll(repository.load());
+            if (!indexed && reloader == null) {
+                int before = games.size();
+                ByteBuffer records = offHeap != null && before == 0 && repository instanceof BinaryGameRepository binary
+                        ? binary.readOffHeap()
+                        : null;
+                if (records != null) {
+                    // Même disposition que le fichier .bgc : le chargement est une simple copie d'octets
+                    offHeap.attach(records);
+                } else {
+                    // Lecture au fil de l'eau : la collection n'existe jamais entière sous forme d'objets
+                    repository.forEach(this::addResident);
+                }
+                if (compact != null) {
+                    compact.trimToSize();
+                }
+                return games.size() - before;
+            }
+            List<BoardGame> loaded = repository.load();
+            loaded.forEach(this::addResident);
+            if (reloader != null) {
+                reloader.start(loaded);
+            }
+            return loaded.size();
         } catch (Exception e) {
             System.out.println("Error loading games: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    private void awaitLoaded() {
+        try {
+            loading.join();
+        } catch (CompletionException e) {
+            // Échec déjà signalé par le thread de chargement : la collection reste vide
+        }
+        mergeExternalChanges();
+    }
+
+    // Avant une écriture, une modification externe pas encore notifiée est relue pour ne pas l'écraser
+    private void awaitLoadedForWrite() {
+        awaitLoaded();
+        if (reloader != null) {
+            reloader.refresh();
+            mergeExternalChanges();
+        }
+    }
+
+    private void mergeExternalChanges() {
+        HotReloader.Diff diff = reloader == null ? null : reloader.poll();
+        if (diff == null) {
+            return;
+        }
+        if (!diff.removed().isEmpty()) {
+            Map<BoardGame, Integer> removals = new HashMap<>();
+            diff.removed().forEach(game -> removals.merge(game, 1, Integer::sum));
+            games.removeIf(game -> {
+                Integer left = removals.get(game);
+                if (left == null || left == 0) {
+                    return false;
+                }
+                removals.put(game, left - 1);
+                unindex(game);
+                return true;
+            });
+        }
+        diff.added().forEach(this::addResident);
+    }
+
+    private BoardGame addResident(BoardGame added) {
+        if (!indexed) {
+            games.add(added);
+            return added;
+        }
+        long id = slotted.idFor(added);
+        BoardGame game = byCategory.add(added.id() == id ? added : added.withId(id));
+        slotted.add(game);
+        if (sortedViews != null) {
+            sortedViews.add(game);
+        }
+        if (bitmaps != null) {
+            bitmaps.add(game);
+        }
+        byTitle.computeIfAbsent(BoardGame.normalizeTitle(game.title()), key -> {
+            sortedTitles.add(key);
+            if (fuzzyTitles != null) {
+                fuzzyTitles.add(key);
+            }
+            return new ArrayList<>(1);
+        }).add(game);
+        int last = Math.min(game.maxPlayers(), MAX_INDEXED_PLAYERS);
+        for (int players = Math.max(game.minPlayers(), 1); players <= last; players++) {
+            byPlayers.get(players).add(game);
+        }
+        byRange.add(game);
+        return game;
+    }
+
+    private void removeResident(BoardGame game) {
+        if (!indexed) {
+            games.remove(game);
+            return;
+        }
+        BoardGame stored = game.hasId() ? slotted.byId(game.id()) : null;
+        if (stored == null || !stored.equals(game)) {
+            // Sans identifiant valable : le premier jeu égal, cherché parmi ceux du même titre
+            stored = null;
+            for (BoardGame candidate : byTitle.getOrDefault(BoardGame.normalizeTitle(game.title()), List.of())) {
+                if (candidate.equals(game)) {
+                    stored = candidate;
+                    break;
+                }
+            }
+        }
+        if (stored != null) {
+            slotted.removeById(stored.id());
+            unindex(stored);
+        }
+    }
+
+    private void unindex(BoardGame game) {
+        if (!indexed) {
+            return;
+        }
+        String key = BoardGame.normalizeTitle(game.title());
+        List<BoardGame> sameTitle = byTitle.get(key);
+        if (sameTitle != null && removeSame(sameTitle, game) && sameTitle.isEmpty()) {
+            byTitle.remove(key);
+            sortedTitles.remove(key);
+            if (fuzzyTitles != null) {
+                fuzzyTitles.remove(key);
+            }
+        }
+        int last = Math.min(game.maxPlayers(), MAX_INDEXED_PLAYERS);
+        for (int players = Math.max(game.minPlayers(), 1); players <= last; players++) {
+            byPlayers.get(players).removeById(game.id());
+        }
+        byRange.remove(game);
+        byCategory.remove(game);
+        if (sortedViews != null) {
+            sortedViews.remove(game);
+        }
+        if (bitmaps != null) {
+            bitmaps.remove(game);
         }
     }
 
-    private void save() {
+    // Retire cette instance précise : deux jeux égaux en valeur n'ont pas le même identifiant
+    private static boolean removeSame(List<BoardGame> games, BoardGame game) {
+        for (int i = 0; i < games.size(); i++) {
+            if (games.get(i) == game) {
+                games.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vide les écritures en attente et libère le stockage. Sans effet après le premier appel :
+     * la sortie par le menu ferme la collection, puis le hook d'arrêt la ferme à nouveau.
+     */
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        awaitLoaded();
+        if (reloader != null) {
+            reloader.close();
+        }
         try {
-            repository.save(games);
+            repository.close();
         } catch (Exception e) {
             System.out.println("Error saving games: " + e.getMessage());
         }
+        if (offHeap != null) {
+            offHeap.close();
+        }
+    }
+
+    private List<BoardGame> loadStored() {
+        try {
+            return new ArrayList<>(repository.load());
+        } catch (Exception e) {
+            System.out.println("Error loading games: " + e.getMessage());
+            return new ArrayList<>();
+        }
     }
-}
\ No newline at end of file
+}
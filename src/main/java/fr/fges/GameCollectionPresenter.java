@@ -1,18 +1,26 @@
 package fr.fges;
 
-import java.util.Comparator;
-import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
 
 public class GameCollectionPresenter {
-    public void displayAll(List<BoardGame> games) {
-        if (games.isEmpty()) {
+    // Les jeux arrivent déjà triés : l'affichage est un simple parcours
+    public void displayAll(Iterable<BoardGame> games) {
+        if (!games.iterator().hasNext()) {
             System.out.println("No board games in collection.");
             return;
         }
 
-        games.stream()
-                .sorted(Comparator.comparing(BoardGame::title))
-                .forEach(this::displayGame);
+        games.forEach(this::displayGame);
+    }
+
+    public void displayCategories(Map<String, Integer> counts) {
+        if (counts.isEmpty()) {
+            return;
+        }
+        StringJoiner line = new StringJoiner(", ", "Categories: ", "");
+        counts.forEach((category, count) -> line.add(category + " (" + count + ")"));
+        System.out.println(line);
     }
 
     private void displayGame(BoardGame game) {
@@ -0,0 +1,63 @@
+package fr.fges;
+
+/**
+ * Filtre composé sur la collection : catégorie, nombre de joueurs et début de titre,
+ * combinés par et / ou / sauf. En mémoire, {@link GameCollection#filter} l'évalue sur les
+ * index bitmap ; sinon {@link #test} l'applique jeu par jeu.
+ */
+public sealed interface GameFilter {
+
+    record Category(String category) implements GameFilter {
+    }
+
+    record Players(int count) implements GameFilter {
+    }
+
+    record TitlePrefix(String prefix) implements GameFilter {
+    }
+
+    record And(GameFilter left, GameFilter right) implements GameFilter {
+    }
+
+    record Or(GameFilter left, GameFilter right) implements GameFilter {
+    }
+
+    record AndNot(GameFilter left, GameFilter right) implements GameFilter {
+    }
+
+    static GameFilter category(String category) {
+        return new Category(category);
+    }
+
+    static GameFilter players(int count) {
+        return new Players(count);
+    }
+
+    static GameFilter titleStartsWith(String prefix) {
+        return new TitlePrefix(prefix);
+    }
+
+    default GameFilter and(GameFilter other) {
+        return new And(this, other);
+    }
+
+    default GameFilter or(GameFilter other) {
+        return new Or(this, other);
+    }
+
+    default GameFilter andNot(GameFilter other) {
+        return new AndNot(this, other);
+    }
+
+    default boolean test(BoardGame game) {
+        return switch (this) {
+            case Category category -> game.category().equals(category.category());
+            case Players players -> game.supportsPlayers(players.count());
+            case TitlePrefix prefix -> BoardGame.normalizeTitle(game.title())
+                    .startsWith(BoardGame.normalizeTitle(prefix.prefix()));
+            case And and -> and.left().test(game) && and.right().test(game);
+            case Or or -> or.left().test(game) || or.right().test(game);
+            case AndNot andNot -> andNot.left().test(game) && !andNot.right().test(game);
+        };
+    }
+}
@@ -0,0 +1,8 @@
+package fr.fges;
+
+/** Ordres d'affichage de la collection. */
+public enum GameOrder {
+    TITLE,
+    CATEGORY,
+    PLAYERS
+}
@@ -0,0 +1,308 @@
+package fr.fges;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Disposition binaire à largeur fixe des jeux, posée sur un {@link ByteBuffer}
+ * (fichier mappé ou tampon direct) :
+ * <pre>
+ * en-tête (64 o) | table des catégories (8 o/entrée) | enregistrements (16 o/jeu) | pool de chaînes UTF-8
+ * </pre>
+ * Un enregistrement contient un drapeau (vivant/supprimé), les nombres de joueurs,
+ * l'id de catégorie et la position du titre dans le pool. Les capacités sont fixées
+ * à la création : quand l'une est atteinte, {@link #append} renvoie false et
+ * l'appelant doit réécrire une table plus grande.
+ */
+public final class GameRecordTable {
+    static final int MAGIC = 0x42474331; // "BGC1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int CATEGORY_ENTRY_SIZE = 8;
+    static final int RECORD_SIZE = 16;
+    static final int MAX_PLAYERS_VALUE = 255;
+
+    private static final int RECORD_COUNT = 8;
+    private static final int RECORD_CAPACITY = 12;
+    private static final int CATEGORY_COUNT = 16;
+    private static final int CATEGORY_CAPACITY = 20;
+    private static final int STRINGS_USED = 24;
+    private static final int STRING_CAPACITY = 28;
+    private static final int DELETED_COUNT = 32;
+
+    private static final byte LIVE = 1;
+    private static final byte DELETED = 0;
+
+    private final ByteBuffer buffer;
+    private final int recordsStart;
+    private final int stringsStart;
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+    // Index des titres, construit à la première recherche puis tenu à jour par append : chaînes
+    // par seau de hachage des octets du titre, du plus récent au plus ancien emplacement.
+    // Deux tableaux d'entiers, sans objet par jeu ; les supprimés y restent jusqu'à la réécriture.
+    private int[] titleHeads;
+    private int[] nextInBucket;
+
+    private GameRecordTable(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.recordsStart = HEADER_SIZE + buffer.getInt(CATEGORY_CAPACITY) * CATEGORY_ENTRY_SIZE;
+        this.stringsStart = recordsStart + buffer.getInt(RECORD_CAPACITY) * RECORD_SIZE;
+        for (int id = 0; id < categoryCount(); id++) {
+            categoryIds.put(category(id), id);
+        }
+    }
+
+    public static long sizeFor(int recordCapacity, int categoryCapacity, int stringCapacity) {
+        return (long) HEADER_SIZE
+                + (long) categoryCapacity * CATEGORY_ENTRY_SIZE
+                + (long) recordCapacity * RECORD_SIZE
+                + stringCapacity;
+    }
+
+    public static GameRecordTable format(ByteBuffer buffer, int recordCapacity, int categoryCapacity, int stringCapacity) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(RECORD_COUNT, 0);
+        buffer.putInt(RECORD_CAPACITY, recordCapacity);
+        buffer.putInt(CATEGORY_COUNT, 0);
+        buffer.putInt(CATEGORY_CAPACITY, categoryCapacity);
+        buffer.putInt(STRINGS_USED, 0);
+        buffer.putInt(STRING_CAPACITY, stringCapacity);
+        buffer.putInt(DELETED_COUNT, 0);
+        return new GameRecordTable(buffer);
+    }
+
+    public static GameRecordTable open(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a board game collection file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported board game collection version: " + buffer.getInt(4));
+        }
+        long expected = sizeFor(buffer.getInt(RECORD_CAPACITY), buffer.getInt(CATEGORY_CAPACITY), buffer.getInt(STRING_CAPACITY));
+        if (buffer.capacity() < expected) {
+            throw new IOException("Truncated board game collection file");
+        }
+        return new GameRecordTable(buffer);
+    }
+
+    // Tampon sous-jacent, pour le libérer quand la table est abandonnée
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    public int recordCount() {
+        return buffer.getInt(RECORD_COUNT);
+    }
+
+    public int liveCount() {
+        return recordCount() - deletedCount();
+    }
+
+    public int deletedCount() {
+        return buffer.getInt(DELETED_COUNT);
+    }
+
+    int recordCapacity() {
+        return buffer.getInt(RECORD_CAPACITY);
+    }
+
+    int categoryCapacity() {
+        return buffer.getInt(CATEGORY_CAPACITY);
+    }
+
+    int stringCapacity() {
+        return buffer.getInt(STRING_CAPACITY);
+    }
+
+    int stringsUsed() {
+        return buffer.getInt(STRINGS_USED);
+    }
+
+    public boolean isLive(int slot) {
+        return buffer.get(recordOffset(slot)) == LIVE;
+    }
+
+    public int minPlayers(int slot) {
+        return Byte.toUnsignedInt(buffer.get(recordOffset(slot) + 1));
+    }
+
+    public int maxPlayers(int slot) {
+        return Byte.toUnsignedInt(buffer.get(recordOffset(slot) + 2));
+    }
+
+    public int categoryId(int slot) {
+        return buffer.getInt(recordOffset(slot) + 4);
+    }
+
+    public String title(int slot) {
+        int offset = recordOffset(slot);
+        return readString(buffer.getInt(offset + 8), buffer.getInt(offset + 12));
+    }
+
+    public int categoryCount() {
+        return buffer.getInt(CATEGORY_COUNT);
+    }
+
+    public String category(int id) {
+        int offset = HEADER_SIZE + id * CATEGORY_ENTRY_SIZE;
+        return readString(buffer.getInt(offset), buffer.getInt(offset + 4));
+    }
+
+    public BoardGame game(int slot) {
+        return new BoardGame(title(slot), minPlayers(slot), maxPlayers(slot), category(categoryId(slot)));
+    }
+
+    /**
+     * Ajoute un jeu en fin de table. Le compteur d'enregistrements n'est publié
+     * qu'une fois l'enregistrement écrit. Renvoie false si une capacité est atteinte.
+     */
+    public boolean append(BoardGame game) throws IOException {
+        checkPlayers(game);
+        int slot = recordCount();
+        if (slot >= buffer.getInt(RECORD_CAPACITY)) {
+            return false;
+        }
+        byte[] title = game.title().getBytes(StandardCharsets.UTF_8);
+        Integer categoryId = categoryIds.get(game.category());
+        byte[] category = categoryId == null ? game.category().getBytes(StandardCharsets.UTF_8) : null;
+        int needed = title.length + (category == null ? 0 : category.length);
+        if (buffer.getInt(STRINGS_USED) + needed > buffer.getInt(STRING_CAPACITY)) {
+            return false;
+        }
+        if (categoryId == null) {
+            if (categoryCount() >= buffer.getInt(CATEGORY_CAPACITY)) {
+                return false;
+            }
+            categoryId = addCategory(game.category(), category);
+        }
+        int titleOffset = writeString(title);
+        int offset = recordOffset(slot);
+        buffer.put(offset, LIVE);
+        buffer.put(offset + 1, (byte) game.minPlayers());
+        buffer.put(offset + 2, (byte) game.maxPlayers());
+        buffer.put(offset + 3, (byte) 0);
+        buffer.putInt(offset + 4, categoryId);
+        buffer.putInt(offset + 8, titleOffset);
+        buffer.putInt(offset + 12, title.length);
+        buffer.putInt(RECORD_COUNT, slot + 1);
+        if (titleHeads != null) {
+            link(slot, hash(title));
+        }
+        return true;
+    }
+
+    /**
+     * Cherche le premier enregistrement vivant égal au jeu, sans décoder les titres : -1 si
+     * absent. Seuls les emplacements dont le titre tombe dans le même seau sont comparés.
+     */
+    public int findLive(BoardGame game) {
+        Integer categoryId = categoryIds.get(game.category());
+        if (categoryId == null) {
+            return -1;
+        }
+        byte[] title = game.title().getBytes(StandardCharsets.UTF_8);
+        if (titleHeads == null) {
+            indexTitles();
+        }
+        int found = -1;
+        // La chaîne va du plus récent au plus ancien : la dernière correspondance est la première en ordre
+        for (int slot = titleHeads[bucket(hash(title))]; slot >= 0; slot = nextInBucket[slot]) {
+            int offset = recordOffset(slot);
+            if (buffer.get(offset) == LIVE
+                    && Byte.toUnsignedInt(buffer.get(offset + 1)) == game.minPlayers()
+                    && Byte.toUnsignedInt(buffer.get(offset + 2)) == game.maxPlayers()
+                    && buffer.getInt(offset + 4) == categoryId
+                    && titleEquals(buffer.getInt(offset + 8), buffer.getInt(offset + 12), title)) {
+                found = slot;
+            }
+        }
+        return found;
+    }
+
+    public void markDeleted(int slot) {
+        buffer.put(recordOffset(slot), DELETED);
+        buffer.putInt(DELETED_COUNT, deletedCount() + 1);
+    }
+
+    static void checkPlayers(BoardGame game) throws IOException {
+        if (game.minPlayers() < 0 || game.maxPlayers() < 0
+                || game.minPlayers() > MAX_PLAYERS_VALUE || game.maxPlayers() > MAX_PLAYERS_VALUE) {
+            throw new IOException("Player counts must be between 0 and " + MAX_PLAYERS_VALUE + ": " + game.title());
+        }
+    }
+
+    private int addCategory(String name, byte[] bytes) {
+        int id = categoryCount();
+        int offset = HEADER_SIZE + id * CATEGORY_ENTRY_SIZE;
+        buffer.putInt(offset, writeString(bytes));
+        buffer.putInt(offset + 4, bytes.length);
+        buffer.putInt(CATEGORY_COUNT, id + 1);
+        categoryIds.put(name, id);
+        return id;
+    }
+
+    private int writeString(byte[] bytes) {
+        int used = buffer.getInt(STRINGS_USED);
+        buffer.put(stringsStart + used, bytes);
+        buffer.putInt(STRINGS_USED, used + bytes.length);
+        return used;
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(stringsStart + offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void indexTitles() {
+        int capacity = recordCapacity();
+        titleHeads = new int[Integer.highestOneBit(Math.max(1, capacity - 1)) << 1];
+        Arrays.fill(titleHeads, -1);
+        nextInBucket = new int[capacity];
+        for (int slot = 0; slot < recordCount(); slot++) {
+            int offset = recordOffset(slot);
+            int start = stringsStart + buffer.getInt(offset + 8);
+            int hash = 1;
+            for (int i = 0; i < buffer.getInt(offset + 12); i++) {
+                hash = 31 * hash + buffer.get(start + i);
+            }
+            link(slot, hash);
+        }
+    }
+
+    private void link(int slot, int hash) {
+        int bucket = bucket(hash);
+        nextInBucket[slot] = titleHeads[bucket];
+        titleHeads[bucket] = slot;
+    }
+
+    private int bucket(int hash) {
+        return (hash ^ (hash >>> 16)) & (titleHeads.length - 1);
+    }
+
+    private static int hash(byte[] title) {
+        return Arrays.hashCode(title);
+    }
+
+    private boolean titleEquals(int offset, int length, byte[] title) {
+        if (length != title.length) {
+            return false;
+        }
+        int start = stringsStart + offset;
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(start + i) != title[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int recordOffset(int slot) {
+        return recordsStart + slot * RECORD_SIZE;
+    }
+}
@@ -1,8 +1,70 @@
 package fr.fges;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface GameRepository {
     void save(List<BoardGame> games) throws Exception;
     List<BoardGame> load() throws Exception;
+
+    // Parcours en streaming : les implémentations fichier ne matérialisent pas toute la collection.
+    default void forEach(Consumer<BoardGame> action) throws Exception {
+        load().forEach(action);
+    }
+
+    // Sauvegarde depuis un flux de jeux ; les formats texte l'écrivent au fil de l'eau, sans liste en mémoire.
+    default void saveFrom(GameSource source) throws Exception {
+        List<BoardGame> games = new ArrayList<>();
+        source.forEach(games::add);
+        save(games);
+    }
+
+    // Par défaut une mutation réécrit toute la collection ; les dépôts incrémentaux surchargent ces méthodes.
+    default void onGameAdded(BoardGame game, List<BoardGame> games) throws Exception {
+        save(games);
+    }
+
+    default void onGameRemoved(BoardGame game, List<BoardGame> games) throws Exception {
+        save(games);
+    }
+
+    // Vrai si les deux méthodes précédentes écrivent moins que toute la collection (journal, shard, écriture en place).
+    default boolean writesIncrementally() {
+        return false;
+    }
+
+    // Recherche par titre sans distinction de casse ; les dépôts indexés évitent le parcours complet.
+    default List<BoardGame> findByTitle(String title) throws Exception {
+        String key = BoardGame.normalizeTitle(title);
+        List<BoardGame> matches = new ArrayList<>();
+        forEach(game -> {
+            if (BoardGame.normalizeTitle(game.title()).equals(key)) {
+                matches.add(game);
+            }
+        });
+        return matches;
+    }
+
+    default long count() throws Exception {
+        long[] count = {0};
+        forEach(game -> count[0]++);
+        return count[0];
+    }
+
+    // Mutations sans collection en mémoire (mode streaming) : relecture puis hook de mutation.
+    default void add(BoardGame game) throws Exception {
+        List<BoardGame> games = new ArrayList<>(load());
+        games.add(game);
+        onGameAdded(game, games);
+    }
+
+    default void remove(BoardGame game) throws Exception {
+        List<BoardGame> games = new ArrayList<>(load());
+        games.remove(game);
+        onGameRemoved(game, games);
+    }
+
+    default void close() throws Exception {
+    }
 }
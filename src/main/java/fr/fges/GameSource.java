@@ -0,0 +1,13 @@
+package fr.fges;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Suite de jeux parcourue une seule fois, sans être matérialisée : une liste
+ * ({@code games::forEach}) ou la lecture en streaming d'un autre dépôt.
+ */
+@FunctionalInterface
+public interface GameSource {
+    void forEach(Consumer<BoardGame> action) throws IOException;
+}
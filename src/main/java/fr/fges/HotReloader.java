@@ -0,0 +1,197 @@
+package fr.fges;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rechargement à chaud du fichier de stockage : un {@link WatchService} surveille son
+ * dossier et, quand un autre programme le modifie, le fichier est relu en streaming et
+ * comparé au dernier contenu connu. Seule la différence (jeux ajoutés et supprimés) est
+ * transmise à la collection, qui l'intègre avant sa prochaine lecture ou écriture.
+ *
+ * Les écritures de l'application passent par {@link #ownWrite} : le contenu connu et
+ * l'empreinte du fichier (taille, date, identifiant) sont mis à jour sous le même verrou,
+ * si bien qu'elles ne sont jamais prises pour une modification externe.
+ */
+public class HotReloader {
+    // Laisse les écritures externes se terminer avant de relire le fichier
+    private static final long SETTLE_MILLIS = 50;
+
+    public interface Write {
+        void run() throws Exception;
+    }
+
+    public record Diff(List<BoardGame> added, List<BoardGame> removed) {
+    }
+
+    private record Fingerprint(long size, long modified, Object fileKey) {
+    }
+
+    private final Path file;
+    private final GameRepository repository;
+    // Contenu connu du fichier : nombre d'occurrences de chaque jeu
+    private Map<BoardGame, Integer> known = new HashMap<>();
+    private Fingerprint fingerprint;
+    private final List<BoardGame> pendingAdded = new ArrayList<>();
+    private final List<BoardGame> pendingRemoved = new ArrayList<>();
+    private WatchService watchService;
+    private Thread watcher;
+
+    public HotReloader(Path file, GameRepository repository) {
+        this.file = file.toAbsolutePath();
+        this.repository = repository;
+    }
+
+    public synchronized void start(List<BoardGame> loaded) throws IOException {
+        known = count(loaded);
+        fingerprint = fingerprint();
+        Path directory = file.getParent();
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        WatchService service = watchService;
+        watcher = new Thread(() -> watch(service), "game-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /** Écriture faite par l'application : elle met à jour le contenu connu sans être rechargée. */
+    public synchronized void ownWrite(BoardGame added, BoardGame removed, Write write) throws Exception {
+        write.run();
+        if (added != null) {
+            known.merge(added, 1, Integer::sum);
+        }
+        if (removed != null) {
+            known.computeIfPresent(removed, (game, occurrences) -> occurrences > 1 ? occurrences - 1 : null);
+        }
+        fingerprint = fingerprint();
+    }
+
+    /** Relit le fichier tout de suite s'il a changé, sans attendre la notification. */
+    public synchronized void refresh() {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            reloadIfChanged();
+        } catch (Exception e) {
+            System.out.println("Error reloading games: " + e.getMessage());
+        }
+    }
+
+    /** Différence accumulée depuis le dernier appel, ou null si le fichier n'a pas changé. */
+    public synchronized Diff poll() {
+        if (pendingAdded.isEmpty() && pendingRemoved.isEmpty()) {
+            return null;
+        }
+        Diff diff = new Diff(List.copyOf(pendingAdded), List.copyOf(pendingRemoved));
+        pendingAdded.clear();
+        pendingRemoved.clear();
+        return diff;
+    }
+
+    public void close() {
+        WatchService service;
+        synchronized (this) {
+            service = watchService;
+            watchService = null;
+        }
+        if (service == null) {
+            return;
+        }
+        try {
+            service.close();
+        } catch (IOException e) {
+            // le thread de surveillance s'arrête de lui-même
+        }
+    }
+
+    private void watch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean concerned = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    concerned |= file.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (!concerned) {
+                    continue;
+                }
+                // Regroupe les notifications d'une même écriture
+                Thread.sleep(SETTLE_MILLIS);
+                WatchKey more;
+                while ((more = service.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                refresh();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // arrêt de la surveillance
+        }
+    }
+
+    private void reloadIfChanged() throws Exception {
+        Fingerprint current = fingerprint();
+        if (Objects.equals(current, fingerprint) || current == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<BoardGame, Integer> latest = new HashMap<>();
+        repository.forEach(game -> latest.merge(game, 1, Integer::sum));
+        int added = 0;
+        int removed = 0;
+        for (Map.Entry<BoardGame, Integer> entry : latest.entrySet()) {
+            int difference = entry.getValue() - known.getOrDefault(entry.getKey(), 0);
+            for (int i = 0; i < difference; i++) {
+                // Une suppression encore en attente du même jeu est simplement annulée
+                if (!pendingRemoved.remove(entry.getKey())) {
+                    pendingAdded.add(entry.getKey());
+                }
+                added++;
+            }
+        }
+        for (Map.Entry<BoardGame, Integer> entry : known.entrySet()) {
+            int difference = entry.getValue() - latest.getOrDefault(entry.getKey(), 0);
+            for (int i = 0; i < difference; i++) {
+                if (!pendingAdded.remove(entry.getKey())) {
+                    pendingRemoved.add(entry.getKey());
+                }
+                removed++;
+            }
+        }
+        known = latest;
+        fingerprint = current;
+        System.err.printf("[reload] %s changed externally: +%d -%d games, reloaded in %.1f ms%n",
+                file.getFileName(), added, removed, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private Fingerprint fingerprint() throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new Fingerprint(attributes.size(), attributes.lastModifiedTime().toMillis(), attributes.fileKey());
+    }
+
+    private static Map<BoardGame, Integer> count(List<BoardGame> games) {
+        Map<BoardGame, Integer> counts = new HashMap<>();
+        for (BoardGame game : games) {
+            counts.merge(game, 1, Integer::sum);
+        }
+        return counts;
+    }
+}
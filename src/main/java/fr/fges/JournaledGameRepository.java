@@ -0,0 +1,242 @@
+package fr.fges;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Dépôt journalisé : chaque ajout/suppression est ajouté en fin de journal
+ * ({@code <fichier>.journal}) au lieu de réécrire tout le fichier. Un instantané
+ * compact est réécrit via le dépôt sous-jacent tous les {@code compactionThreshold} ajouts.
+ *
+ * La première ligne du journal identifie l'instantané (taille + CRC32) sur lequel il
+ * s'applique : si l'instantané a changé depuis, le journal est périmé et ignoré.
+ *
+ * Seule la dernière ligne peut être retirée au chargement, si elle est inachevée ou
+ * illisible (arrêt pendant un ajout). Une ligne illisible suivie d'autres entrées fait
+ * échouer le chargement, avec son numéro et sa position, plutôt que de perdre la suite.
+ */
+public class JournaledGameRepository implements GameRepository {
+    static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String HEADER_PREFIX = "# snapshot ";
+    private static final char ADD = '+';
+    private static final char REMOVE = '-';
+
+    private final GameRepository snapshot;
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final int compactionThreshold;
+    private final DurableFileWriter writer;
+    private int journalEntries;
+    private boolean synced;
+
+    public JournaledGameRepository(GameRepository snapshot, String filePath) {
+        this(snapshot, filePath, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public JournaledGameRepository(GameRepository snapshot, String filePath, int compactionThreshold) {
+        this(snapshot, filePath, compactionThreshold, new DurableFileWriter(DurabilityPolicy.ALWAYS));
+    }
+
+    public JournaledGameRepository(GameRepository snapshot, String filePath, int compactionThreshold,
+                                   DurableFileWriter writer) {
+        this.snapshot = snapshot;
+        this.snapshotPath = Path.of(filePath);
+        this.journalPath = Path.of(filePath + ".journal");
+        this.compactionThreshold = compactionThreshold;
+        this.writer = writer;
+    }
+
+    @Override
+    public void save(List<BoardGame> games) throws Exception {
+        snapshot.save(games);
+        resetJournal();
+        synced = true;
+    }
+
+    @Override
+    public void saveFrom(GameSource games) throws Exception {
+        snapshot.saveFrom(games);
+        resetJournal();
+        synced = true;
+    }
+
+    @Override
+    public List<BoardGame> load() throws Exception {
+        List<BoardGame> games = new ArrayList<>(snapshot.load());
+        if (!Files.exists(journalPath)) {
+            resetJournal();
+        } else if (!replayJournal(games)) {
+            // Journal périmé : l'instantané contient déjà ces opérations
+            resetJournal();
+        }
+        synced = true;
+        return games;
+    }
+
+    @Override
+    public boolean writesIncrementally() {
+        return true;
+    }
+
+    @Override
+    public void onGameAdded(BoardGame game, List<BoardGame> games) throws Exception {
+        append(ADD, game, games);
+    }
+
+    @Override
+    public void onGameRemoved(BoardGame game, List<BoardGame> games) throws Exception {
+        append(REMOVE, game, games);
+    }
+
+    private void append(char op, BoardGame game, List<BoardGame> games) throws Exception {
+        // Sans chargement préalable, le contenu disque est inconnu : on repart d'un instantané complet
+        if (!synced || journalEntries >= compactionThreshold) {
+            save(games);
+            return;
+        }
+        byte[] entry = (op + " " + MAPPER.writeValueAsString(game) + System.lineSeparator())
+                .getBytes(StandardCharsets.UTF_8);
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(entry);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (writer.syncsEachWrite()) {
+                channel.force(false);
+            }
+        }
+        if (!writer.syncsEachWrite()) {
+            writer.synced(journalPath, this::forceJournal);
+        }
+        journalEntries++;
+    }
+
+    private boolean replayJournal(List<BoardGame> games) throws IOException {
+        byte[] journal = Files.readAllBytes(journalPath);
+        int headerEnd = lineEnd(journal, 0);
+        if (headerEnd < 0 || !line(journal, 0, headerEnd).equals(snapshotHeader())) {
+            return false;
+        }
+        int entries = 0;
+        // Début de la première ligne non rejouée : tout ce qui précède est sain
+        int start = headerEnd + 1;
+        int end;
+        while ((end = lineEnd(journal, start)) >= 0) {
+            String line = line(journal, start, end);
+            BoardGame game = parseEntry(line);
+            if (game == null) {
+                if (end + 1 < journal.length) {
+                    // Une écriture interrompue ne peut laisser qu'une fin abîmée : au milieu, c'est une corruption
+                    throw new IOException("Corrupt journal entry at line " + (entries + 2) + " (offset " + start
+                            + ") of " + journalPath + ", followed by " + (journal.length - end - 1)
+                            + " more bytes; fix or remove the line to load the collection");
+                }
+                break;
+            }
+            if (line.charAt(0) == ADD) {
+                games.add(game);
+            } else {
+                games.remove(game);
+            }
+            entries++;
+            start = end + 1;
+        }
+        if (start < journal.length) {
+            // Dernière ligne inachevée ou illisible, laissée par un arrêt brutal : on la retire,
+            // sinon le prochain ajout s'y collerait
+            truncateJournal(start);
+        }
+        journalEntries = entries;
+        return true;
+    }
+
+    // Position du '\n' qui termine la ligne commençant à start, ou -1 si elle n'est pas terminée
+    private static int lineEnd(byte[] bytes, int start) {
+        for (int i = start; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String line(byte[] bytes, int start, int end) {
+        if (end > start && bytes[end - 1] == '\r') {
+            end--;
+        }
+        return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    private void truncateJournal(long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+            if (writer.syncsEachWrite()) {
+                channel.force(false);
+            }
+        }
+        if (!writer.syncsEachWrite()) {
+            writer.synced(journalPath, this::forceJournal);
+        }
+    }
+
+    private BoardGame parseEntry(String line) {
+        if (line.length() < 3 || (line.charAt(0) != ADD && line.charAt(0) != REMOVE)) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(line.substring(2), BoardGame.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        snapshot.close();
+        writer.close();
+    }
+
+    private void resetJournal() throws IOException {
+        byte[] header = (snapshotHeader() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        writer.replace(journalPath, out -> out.write(header));
+        journalEntries = 0;
+    }
+
+    private void forceJournal() throws IOException {
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+            channel.force(false);
+        }
+    }
+
+    private String snapshotHeader() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return HEADER_PREFIX + "0 0";
+        }
+        CRC32 crc = new CRC32();
+        long size = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(snapshotPath)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                size += read;
+            }
+        }
+        return HEADER_PREFIX + size + " " + Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,186 @@
+package fr.fges;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Lecture/écriture JSON des jeux en streaming (jackson-core) : les champs de
+ * {@link BoardGame} sont lus et écrits directement, sans passer par le databind.
+ * La fabrique est partagée, ce qui permet à Jackson de recycler ses tampons.
+ */
+public class JsonGameCodec {
+    // Le flux de sortie reste ouvert : c'est l'appelant qui le synchronise puis le ferme
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private static final String TITLE = "title";
+    private static final String MIN_PLAYERS = "minPlayers";
+    private static final String MAX_PLAYERS = "maxPlayers";
+    private static final String CATEGORY = "category";
+    private static final String ID = "id";
+
+    private final boolean pretty;
+
+    public JsonGameCodec(boolean pretty) {
+        this.pretty = pretty;
+    }
+
+    public void write(Iterable<BoardGame> games, OutputStream out) throws IOException {
+        write(games::forEach, out, null);
+    }
+
+    /**
+     * Écrit les jeux et, si {@code index} n'est pas nul, y enregistre la position et la
+     * longueur en octets de chaque objet JSON.
+     */
+    void write(GameSource games, OutputStream out, TitleIndex.Builder index) throws IOException {
+        CountingOutputStream counter = index == null ? null : new CountingOutputStream(out);
+        try (JsonGenerator generator = FACTORY.createGenerator(counter == null ? out : counter)) {
+            if (pretty) {
+                generator.useDefaultPrettyPrinter();
+            }
+            generator.writeStartArray();
+            games.forEach(game -> {
+                try {
+                    writeGame(generator, game, counter, index);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public List<BoardGame> read(InputStream in) throws IOException {
+        List<BoardGame> games = new ArrayList<>();
+        readEach(in, games::add);
+        return games;
+    }
+
+    public void readEach(InputStream in, Consumer<BoardGame> action) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return; // fichier vide
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of board games");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                action.accept(readGame(parser));
+            }
+        }
+    }
+
+    /** Relit le fichier en notant la position et la longueur en octets de chaque objet. */
+    void index(InputStream in, TitleIndex.Builder index) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(in)) {
+            // L'appelant lit la fin du flux pour terminer le calcul du CRC
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected an array of board games");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                long start = parser.currentTokenLocation().getByteOffset();
+                BoardGame game = readGame(parser);
+                index.add(game, start, (int) (parser.currentLocation().getByteOffset() - start));
+            }
+        }
+    }
+
+    // Un seul objet JSON, tel que repéré par l'index des titres
+    BoardGame readOne(byte[] json) throws IOException {
+        try (JsonParser parser = FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a board game object");
+            }
+            return readGame(parser);
+        }
+    }
+
+    private void writeGame(JsonGenerator generator, BoardGame game, CountingOutputStream counter,
+            TitleIndex.Builder index) throws IOException {
+        generator.writeStartObject();
+        if (counter == null) {
+            writeFields(generator, game);
+            generator.writeEndObject();
+            return;
+        }
+        // Position de l'accolade ouvrante, encore dans le tampon du générateur
+        long start = counter.count + generator.getOutputBuffered() - 1;
+        writeFields(generator, game);
+        generator.writeEndObject();
+        index.add(game, start, (int) (counter.count + generator.getOutputBuffered() - start));
+    }
+
+    private void writeFields(JsonGenerator generator, BoardGame game) throws IOException {
+        generator.writeStringField(TITLE, game.title());
+        generator.writeNumberField(MIN_PLAYERS, game.minPlayers());
+        generator.writeNumberField(MAX_PLAYERS, game.maxPlayers());
+        generator.writeStringField(CATEGORY, game.category());
+        if (game.hasId()) {
+            generator.writeNumberField(ID, game.id());
+        }
+    }
+
+    private BoardGame readGame(JsonParser parser) throws IOException {
+        String title = null;
+        int minPlayers = 0;
+        int maxPlayers = 0;
+        String category = null;
+        long id = BoardGame.NO_ID;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case TITLE -> title = parser.getValueAsString();
+                case MIN_PLAYERS -> minPlayers = parser.getValueAsInt();
+                case MAX_PLAYERS -> maxPlayers = parser.getValueAsInt();
+                case CATEGORY -> category = parser.getValueAsString();
+                case ID -> id = parser.getValueAsLong();
+                default -> parser.skipChildren();
+            }
+        }
+        return new BoardGame(title, minPlayers, maxPlayers, category, id);
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+    }
+}
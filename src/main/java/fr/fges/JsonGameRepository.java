@@ -1,32 +1,121 @@
 package fr.fges;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
 
 public class JsonGameRepository implements GameRepository {
     private final String filePath;
+    private final JsonGameCodec codec;
+    private final StorageCodec compression;
+    private final DurableFileWriter writer;
+    // Index des titres sur disque, seulement pour un fichier non compressé
+    private final boolean indexed;
+    private TitleIndex titleIndex;
 
     public JsonGameRepository(String filePath) {
+        this(filePath, false, new DurableFileWriter(DurabilityPolicy.ALWAYS));
+    }
+
+    public JsonGameRepository(String filePath, boolean compact, DurableFileWriter writer) {
+        this(filePath, compact, false, writer);
+    }
+
+    public JsonGameRepository(String filePath, boolean compact, boolean titleIndex, DurableFileWriter writer) {
         this.filePath = filePath;
+        this.codec = new JsonGameCodec(!compact);
+        this.compression = StorageCodec.forPath(filePath);
+        this.writer = writer;
+        this.indexed = titleIndex && compression == StorageCodec.NONE;
     }
 
     @Override
     public void save(List<BoardGame> games) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.writerWithDefaultPrettyPrinter().writeValue(new File(filePath), games);
+        saveFrom(games::forEach);
+    }
+
+    @Override
+    public void saveFrom(GameSource games) throws IOException {
+        Path path = Path.of(filePath);
+        if (!indexed) {
+            writer.replace(path, out -> compression.encode(out, compressed -> codec.write(games, compressed, null)));
+            return;
+        }
+        TitleIndex.Builder builder = new TitleIndex.Builder();
+        titleIndex = null;
+        writer.replace(path, out -> codec.write(games, new CheckedOutputStream(out, builder.checksum()), builder));
+        builder.write(path, writer);
     }
 
     @Override
     public List<BoardGame> load() throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        File file = new File(filePath);
-        if (!file.exists()) {
+        Path path = Path.of(filePath);
+        if (!Files.exists(path)) {
             return List.of();
         }
-        return mapper.readValue(file, new TypeReference<List<BoardGame>>() {});
+        try (InputStream in = compression.decode(Files.newInputStream(path))) {
+            return codec.read(in);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<BoardGame> action) throws IOException {
+        Path path = Path.of(filePath);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (InputStream in = compression.decode(Files.newInputStream(path))) {
+            codec.readEach(in, action);
+        }
+    }
+
+    @Override
+    public List<BoardGame> findByTitle(String title) throws Exception {
+        TitleIndex index = titleIndex();
+        if (index == null) {
+            return GameRepository.super.findByTitle(title);
+        }
+        List<BoardGame> matches = new ArrayList<>();
+        for (byte[] record : index.lookup(title)) {
+            matches.add(codec.readOne(record));
+        }
+        return matches;
+    }
+
+    @Override
+    public long count() throws Exception {
+        TitleIndex index = titleIndex();
+        return index == null ? GameRepository.super.count() : index.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private TitleIndex titleIndex() throws IOException {
+        Path path = Path.of(filePath);
+        if (!indexed || !Files.exists(path)) {
+            return null;
+        }
+        if (titleIndex == null || !titleIndex.isCurrent()) {
+            titleIndex = TitleIndex.openOrRebuild(path, writer, this::scanOffsets);
+        }
+        return titleIndex;
+    }
+
+    private void scanOffsets(TitleIndex.Builder builder) throws IOException {
+        try (InputStream in = new CheckedInputStream(Files.newInputStream(Path.of(filePath)), builder.checksum())) {
+            codec.index(in, builder);
+            // Le CRC couvre aussi ce qui suit le tableau
+            in.transferTo(OutputStream.nullOutputStream());
+        }
     }
 }
@@ -1,14 +1,25 @@
 package fr.fges;
 
+import java.util.Scanner;
+
 public class ListGames {
 
     private final GameCollection collection;
+    private final Scanner scanner;
 
-    public ListGames(GameCollection collection) {
+    public ListGames(GameCollection collection, Scanner scanner) {
         this.collection = collection;
+        this.scanner = scanner;
     }
 
     public void execute() {
-        collection.viewAllGames();
+        System.out.print("Sort by (1) title, (2) category, (3) number of players [1]: ");
+        String choice = scanner.nextLine().trim();
+        GameOrder order = switch (choice) {
+            case "2" -> GameOrder.CATEGORY;
+            case "3" -> GameOrder.PLAYERS;
+            default -> GameOrder.TITLE;
+        };
+        collection.viewAllGames(order);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+package fr.fges;
+
+import java.util.Arrays;
+
+/**
+ * Table de hachage identifiant -> emplacement sur des tableaux primitifs : adressage ouvert,
+ * sondage linéaire, aucune clé encapsulée dans un objet. La suppression recule les entrées
+ * suivantes de la même grappe au lieu de laisser des pierres tombales. La clé 0
+ * ({@link BoardGame#NO_ID}) est réservée aux cases vides.
+ */
+final class LongSlotMap {
+    private static final int INITIAL_CAPACITY = 16;
+    static final int ABSENT = -1;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int i = index(key, mask); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return slots[i];
+            }
+        }
+        return ABSENT;
+    }
+
+    void put(long key, int slot) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Key 0 is reserved");
+        }
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                slots[i] = slot;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        slots[i] = slot;
+        // Facteur de charge d'au plus 1/2 : les grappes restent courtes
+        if (++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+    }
+
+    int remove(long key) {
+        int mask = keys.length - 1;
+        int i = index(key, mask);
+        while (keys[i] != key) {
+            if (keys[i] == 0) {
+                return ABSENT;
+            }
+            i = (i + 1) & mask;
+        }
+        int removed = slots[i];
+        // Recule dans le trou chaque entrée de la grappe dont la place idéale le précède
+        int hole = i;
+        for (int next = (hole + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int ideal = index(keys[next], mask);
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                slots[hole] = slots[next];
+                hole = next;
+            }
+        }
+        keys[hole] = 0;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[capacity];
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = index(oldKeys[j], mask);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                slots[i] = oldSlots[j];
+            }
+        }
+    }
+
+    // Mélange de Fibonacci : des identifiants consécutifs se répartissent sur toute la table
+    private static int index(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
@@ -0,0 +1,506 @@
+package fr.fges;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Compression rapide en pur Java au format de trame LZ4 standard : les fichiers se lisent
+ * avec {@code lz4 -d}, et ceux produits par l'outil {@code lz4} se chargent directement.
+ * Les flux écrits découpent les données en blocs indépendants de 64 Ko, chacun compressé
+ * au format de bloc LZ4 (séquences littéraux + copie depuis une fenêtre de 64 Ko) ou stocké
+ * tel quel s'il est incompressible, et terminent par la somme xxHash32 du contenu.
+ *
+ * Les fichiers écrits avant le passage au format standard (en-tête "BGL4", tailles de bloc
+ * en gros-boutiste) restent lisibles.
+ */
+public final class Lz4Codec {
+    static final int MAGIC = 0x184D2204;
+    static final int LEGACY_MAGIC = 0x42474C34; // "BGL4"
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    // Descripteur de trame : version 01, blocs indépendants, somme du contenu ; blocs de 64 Ko au plus
+    private static final int FLG_VERSION = 0x40;
+    private static final int FLG_INDEPENDENT_BLOCKS = 0x20;
+    private static final int FLG_BLOCK_CHECKSUM = 0x10;
+    private static final int FLG_CONTENT_SIZE = 0x08;
+    private static final int FLG_CONTENT_CHECKSUM = 0x04;
+    private static final int FLG_DICTIONARY_ID = 0x01;
+    private static final int BD_64_KB = 4 << 4;
+    private static final int UNCOMPRESSED_BLOCK = 0x80000000;
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int MAX_OFFSET = 65535;
+    private static final int HASH_LOG = 12;
+
+    private Lz4Codec() {
+    }
+
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresse {@code src[0, length)} dans {@code dst} et renvoie la taille écrite.
+     * Recherche gloutonne : {@code table} (2^12 entrées, réutilisée d'un bloc à l'autre) ne
+     * garde que la dernière position vue pour chaque empreinte de 4 octets.
+     */
+    static int compress(byte[] src, int length, byte[] dst, int[] table) {
+        Arrays.fill(table, -1);
+        int anchor = 0;
+        int position = 0;
+        int out = 0;
+        int matchLimit = length - MATCH_FIND_LIMIT;
+        int literalLimit = length - LAST_LITERALS;
+        while (position < matchLimit) {
+            int sequence = readInt(src, position);
+            int hash = (sequence * -1640531535) >>> (32 - HASH_LOG);
+            int candidate = table[hash];
+            table[hash] = position;
+            if (candidate < 0 || position - candidate > MAX_OFFSET || readInt(src, candidate) != sequence) {
+                position++;
+                continue;
+            }
+            int matchLength = MIN_MATCH;
+            while (position + matchLength < literalLimit && src[candidate + matchLength] == src[position + matchLength]) {
+                matchLength++;
+            }
+            out = writeSequence(src, anchor, position - anchor, position - candidate, matchLength, dst, out);
+            position += matchLength;
+            anchor = position;
+        }
+        return writeSequence(src, anchor, length - anchor, 0, 0, dst, out);
+    }
+
+    /**
+     * Décompresse un bloc dans {@code dst} à partir de {@code start} sans dépasser {@code limit},
+     * et renvoie la position de fin. Les copies peuvent remonter avant {@code start} : les
+     * octets qui précèdent servent de fenêtre pour les blocs chaînés.
+     */
+    static int decompress(byte[] src, int length, byte[] dst, int start, int limit) throws IOException {
+        try {
+            int position = 0;
+            int out = start;
+            while (position < length) {
+                int token = src[position++] & 0xFF;
+                int literals = token >>> 4;
+                if (literals == 15) {
+                    int extra;
+                    do {
+                        extra = src[position++] & 0xFF;
+                        literals += extra;
+                    } while (extra == 255);
+                }
+                if (literals > limit - out || literals > length - position) {
+                    throw new IOException("Corrupted LZ4 block: literals overflow");
+                }
+                System.arraycopy(src, position, dst, out, literals);
+                position += literals;
+                out += literals;
+                if (position >= length) {
+                    break; // dernière séquence : littéraux seuls
+                }
+                int offset = (src[position] & 0xFF) | (src[position + 1] & 0xFF) << 8;
+                position += 2;
+                int matchLength = token & 0x0F;
+                if (matchLength == 15) {
+                    int extra;
+                    do {
+                        extra = src[position++] & 0xFF;
+                        matchLength += extra;
+                    } while (extra == 255);
+                }
+                matchLength += MIN_MATCH;
+                int reference = out - offset;
+                if (offset == 0 || reference < 0 || matchLength > limit - out) {
+                    throw new IOException("Corrupted LZ4 block: invalid match");
+                }
+                if (offset >= matchLength) {
+                    System.arraycopy(dst, reference, dst, out, matchLength);
+                    out += matchLength;
+                } else {
+                    // Copie octet par octet : la source chevauche la destination
+                    for (int i = 0; i < matchLength; i++) {
+                        dst[out++] = dst[reference++];
+                    }
+                }
+            }
+            return out;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Corrupted LZ4 block", e);
+        }
+    }
+
+    private static int writeSequence(byte[] src, int literalStart, int literals, int offset, int matchLength,
+                                     byte[] dst, int out) {
+        int matchCode = matchLength == 0 ? 0 : matchLength - MIN_MATCH;
+        dst[out++] = (byte) ((Math.min(literals, 15) << 4) | Math.min(matchCode, 15));
+        out = writeLength(literals, dst, out);
+        System.arraycopy(src, literalStart, dst, out, literals);
+        out += literals;
+        if (matchLength == 0) {
+            return out;
+        }
+        dst[out++] = (byte) offset;
+        dst[out++] = (byte) (offset >>> 8);
+        return writeLength(matchCode, dst, out);
+    }
+
+    private static int writeLength(int length, byte[] dst, int out) {
+        if (length < 15) {
+            return out;
+        }
+        int remaining = length - 15;
+        while (remaining >= 255) {
+            dst[out++] = (byte) 255;
+            remaining -= 255;
+        }
+        dst[out++] = (byte) remaining;
+        return out;
+    }
+
+    private static int readInt(byte[] src, int position) {
+        return (src[position] & 0xFF)
+                | (src[position + 1] & 0xFF) << 8
+                | (src[position + 2] & 0xFF) << 16
+                | (src[position + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * Somme xxHash32 (graine 0) des trames LZ4 : octet de contrôle du descripteur et somme
+     * du contenu. Calculée au fil des écritures, par paquets de 16 octets.
+     */
+    static final class XxHash32 {
+        private static final int PRIME1 = 0x9E3779B1;
+        private static final int PRIME2 = 0x85EBCA77;
+        private static final int PRIME3 = 0xC2B2AE3D;
+        private static final int PRIME4 = 0x27D4EB2F;
+        private static final int PRIME5 = 0x165667B1;
+
+        private int v1 = PRIME1 + PRIME2;
+        private int v2 = PRIME2;
+        private int v3 = 0;
+        private int v4 = -PRIME1;
+        private long totalLength;
+        private final byte[] pending = new byte[16];
+        private int pendingLength;
+
+        static int hash(byte[] bytes, int offset, int length) {
+            XxHash32 hash = new XxHash32();
+            hash.update(bytes, offset, length);
+            return hash.digest();
+        }
+
+        void update(byte[] bytes, int offset, int length) {
+            totalLength += length;
+            if (pendingLength > 0) {
+                int chunk = Math.min(length, 16 - pendingLength);
+                System.arraycopy(bytes, offset, pending, pendingLength, chunk);
+                pendingLength += chunk;
+                offset += chunk;
+                length -= chunk;
+                if (pendingLength < 16) {
+                    return;
+                }
+                consume(pending, 0);
+                pendingLength = 0;
+            }
+            while (length >= 16) {
+                consume(bytes, offset);
+                offset += 16;
+                length -= 16;
+            }
+            System.arraycopy(bytes, offset, pending, 0, length);
+            pendingLength = length;
+        }
+
+        int digest() {
+            int hash = totalLength >= 16
+                    ? Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18)
+                    : PRIME5;
+            hash += (int) totalLength;
+            int position = 0;
+            for (; position + 4 <= pendingLength; position += 4) {
+                hash = Integer.rotateLeft(hash + readInt(pending, position) * PRIME3, 17) * PRIME4;
+            }
+            for (; position < pendingLength; position++) {
+                hash = Integer.rotateLeft(hash + (pending[position] & 0xFF) * PRIME5, 11) * PRIME1;
+            }
+            hash ^= hash >>> 15;
+            hash *= PRIME2;
+            hash ^= hash >>> 13;
+            hash *= PRIME3;
+            return hash ^ hash >>> 16;
+        }
+
+        private void consume(byte[] bytes, int offset) {
+            v1 = round(v1, readInt(bytes, offset));
+            v2 = round(v2, readInt(bytes, offset + 4));
+            v3 = round(v3, readInt(bytes, offset + 8));
+            v4 = round(v4, readInt(bytes, offset + 12));
+        }
+
+        private static int round(int accumulator, int input) {
+            return Integer.rotateLeft(accumulator + input * PRIME2, 13) * PRIME1;
+        }
+    }
+
+    /**
+     * Flux compressant bloc par bloc en trame LZ4 ; {@link #finish()} écrit le dernier bloc,
+     * le marqueur de fin et la somme du contenu sans fermer le flux sous-jacent.
+     */
+    public static class FrameOutputStream extends FilterOutputStream {
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private final byte[] compressed = new byte[maxCompressedLength(BLOCK_SIZE)];
+        private final int[] table = new int[1 << HASH_LOG];
+        private final XxHash32 contentChecksum = new XxHash32();
+        private int filled;
+        private boolean finished;
+
+        public FrameOutputStream(OutputStream out) throws IOException {
+            super(out);
+            writeInt(MAGIC);
+            byte[] descriptor = {(byte) (FLG_VERSION | FLG_INDEPENDENT_BLOCKS | FLG_CONTENT_CHECKSUM), (byte) BD_64_KB};
+            out.write(descriptor);
+            out.write(XxHash32.hash(descriptor, 0, descriptor.length) >>> 8);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (filled == block.length) {
+                flushBlock();
+            }
+            block[filled++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (filled == block.length) {
+                    flushBlock();
+                }
+                int chunk = Math.min(length, block.length - filled);
+                System.arraycopy(bytes, offset, block, filled, chunk);
+                filled += chunk;
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            flushBlock();
+            writeInt(0);
+            writeInt(contentChecksum.digest());
+            out.flush();
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            out.close();
+        }
+
+        private void flushBlock() throws IOException {
+            if (filled == 0) {
+                return;
+            }
+            contentChecksum.update(block, 0, filled);
+            int length = compress(block, filled, compressed, table);
+            if (length < filled) {
+                writeInt(length);
+                out.write(compressed, 0, length);
+            } else {
+                writeInt(filled | UNCOMPRESSED_BLOCK);
+                out.write(block, 0, filled);
+            }
+            filled = 0;
+        }
+
+        // Les entiers d'une trame LZ4 sont en petit-boutiste
+        private void writeInt(int value) throws IOException {
+            out.write(value);
+            out.write(value >>> 8);
+            out.write(value >>> 16);
+            out.write(value >>> 24);
+        }
+    }
+
+    /**
+     * Lecture d'une trame LZ4 : blocs indépendants ou chaînés, jusqu'à 4 Mo, sommes de bloc
+     * et de contenu vérifiées quand la trame en porte. Les dictionnaires externes ne sont pas
+     * pris en charge.
+     */
+    public static class FrameInputStream extends InputStream {
+        private static final int WINDOW = 64 * 1024;
+
+        private final DataInputStream in;
+        private final boolean legacy;
+        private boolean linkedBlocks;
+        private boolean blockChecksums;
+        private XxHash32 contentChecksum;
+        private int maxBlockSize = BLOCK_SIZE;
+        // Bloc décodé dans window[position, available) ; pour les blocs chaînés, les 64 Ko précédents le précèdent
+        private byte[] window;
+        private byte[] compressed;
+        private int position;
+        private int available;
+        private boolean ended;
+
+        public FrameInputStream(InputStream in) throws IOException {
+            this.in = new DataInputStream(in);
+            int magic = this.in.readInt();
+            legacy = magic == LEGACY_MAGIC;
+            if (!legacy) {
+                if (Integer.reverseBytes(magic) != MAGIC) {
+                    throw new IOException("Not an LZ4 compressed collection");
+                }
+                readDescriptor();
+            }
+            window = new byte[(linkedBlocks ? WINDOW : 0) + maxBlockSize];
+            compressed = new byte[maxBlockSize];
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return window[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int chunk = Math.min(length, available - position);
+            System.arraycopy(window, position, bytes, offset, chunk);
+            position += chunk;
+            return chunk;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private void readDescriptor() throws IOException {
+            byte[] descriptor = new byte[14];
+            descriptor[0] = (byte) in.readUnsignedByte();
+            descriptor[1] = (byte) in.readUnsignedByte();
+            int flags = descriptor[0] & 0xFF;
+            int blockSizeCode = (descriptor[1] >>> 4) & 0x07;
+            if ((flags & 0xC0) != FLG_VERSION || blockSizeCode < 4) {
+                throw new IOException("Unsupported LZ4 frame descriptor");
+            }
+            if ((flags & FLG_DICTIONARY_ID) != 0) {
+                throw new IOException("LZ4 frames with a dictionary are not supported");
+            }
+            int length = 2;
+            if ((flags & FLG_CONTENT_SIZE) != 0) {
+                in.readFully(descriptor, length, 8);
+                length += 8;
+            }
+            if (in.readUnsignedByte() != ((XxHash32.hash(descriptor, 0, length) >>> 8) & 0xFF)) {
+                throw new IOException("Corrupted LZ4 frame descriptor");
+            }
+            linkedBlocks = (flags & FLG_INDEPENDENT_BLOCKS) == 0;
+            blockChecksums = (flags & FLG_BLOCK_CHECKSUM) != 0;
+            contentChecksum = (flags & FLG_CONTENT_CHECKSUM) != 0 ? new XxHash32() : null;
+            maxBlockSize = 1 << (8 + 2 * blockSizeCode);
+        }
+
+        private boolean fill() throws IOException {
+            while (position == available) {
+                if (ended) {
+                    return false;
+                }
+                try {
+                    if (legacy ? !readLegacyBlock() : !readBlock()) {
+                        ended = true;
+                        return false;
+                    }
+                } catch (EOFException e) {
+                    throw new IOException("Truncated LZ4 compressed collection", e);
+                }
+            }
+            return true;
+        }
+
+        private boolean readBlock() throws IOException {
+            int header = Integer.reverseBytes(in.readInt());
+            if (header == 0) {
+                if (contentChecksum != null && Integer.reverseBytes(in.readInt()) != contentChecksum.digest()) {
+                    throw new IOException("Corrupted LZ4 compressed collection: content checksum mismatch");
+                }
+                return false;
+            }
+            boolean stored = (header & UNCOMPRESSED_BLOCK) != 0;
+            int storedLength = header & ~UNCOMPRESSED_BLOCK;
+            if (storedLength > maxBlockSize) {
+                throw new IOException("Corrupted LZ4 block header");
+            }
+            int start = slideWindow();
+            in.readFully(stored ? window : compressed, stored ? start : 0, storedLength);
+            if (blockChecksums) {
+                byte[] data = stored ? window : compressed;
+                if (Integer.reverseBytes(in.readInt()) != XxHash32.hash(data, stored ? start : 0, storedLength)) {
+                    throw new IOException("Corrupted LZ4 block: checksum mismatch");
+                }
+            }
+            int end = stored ? start + storedLength : decompress(compressed, storedLength, window, start, start + maxBlockSize);
+            if (contentChecksum != null) {
+                contentChecksum.update(window, start, end - start);
+            }
+            position = start;
+            available = end;
+            return true;
+        }
+
+        // Garde les 64 Ko déjà lus en tête de fenêtre pour les blocs chaînés, et renvoie où décoder le suivant
+        private int slideWindow() {
+            if (!linkedBlocks) {
+                return 0;
+            }
+            int kept = Math.min(available, WINDOW);
+            System.arraycopy(window, available - kept, window, 0, kept);
+            return kept;
+        }
+
+        // Format antérieur : tailles brute et stockée en gros-boutiste, 0 en fin de flux
+        private boolean readLegacyBlock() throws IOException {
+            int rawLength = in.readInt();
+            if (rawLength == 0) {
+                return false;
+            }
+            int storedLength = in.readInt();
+            if (rawLength < 0 || rawLength > BLOCK_SIZE || storedLength < 0 || storedLength > rawLength) {
+                throw new IOException("Corrupted LZ4 block header");
+            }
+            if (storedLength == rawLength) {
+                in.readFully(window, 0, rawLength);
+            } else {
+                in.readFully(compressed, 0, storedLength);
+                if (decompress(compressed, storedLength, window, 0, rawLength) != rawLength) {
+                    throw new IOException("Corrupted LZ4 block: expected " + rawLength + " bytes");
+                }
+            }
+            position = 0;
+            available = rawLength;
+            return true;
+        }
+    }
+}
@@ -1,30 +1,98 @@
 package fr.fges;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 public class Main {
     public static void main(String[] args) {
+        long start = System.nanoTime();
+        if (args.length > 0 && args[0].equals("convert")) {
+            System.exit(convert(args));
+        }
         String storageFile = "data.json"; // Fichier par défaut
-        
-        if (args.length > 0) {
-            storageFile = args[0];
+        List<String> flags = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                flags.add(arg);
+            } else {
+                storageFile = arg;
+            }
+        }
+
+        if (!RepositoryFactory.isSupported(storageFile)) {
+            System.out.println("Error: Storage file must have " + RepositoryFactory.SUPPORTED_EXTENSIONS + " extension");
+            System.exit(1);
+        }
+
+        StorageOptions options = StorageOptions.defaults();
+        try {
+            options = StorageOptions.fromFlags(flags);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            System.exit(1);
         }
 
-        if (!storageFile.endsWith(".json") && !storageFile.endsWith(".csv")) {
-            System.out.println("Error: Storage file must have .json or .csv extension");
+        if (options.watch() && !RepositoryFactory.isTextFormat(storageFile)) {
+            System.out.println("Error: --watch requires a .json or .csv storage file");
             System.exit(1);
         }
 
-        GameCollection collection = new GameCollection(storageFile);
-        collection.loadFromFile();
+        GameCollection collection = new GameCollection(storageFile, options);
+        // Le menu s'affiche pendant le chargement ; les commandes attendent les données
+        collection.loadInBackground().thenAccept(count ->
+                System.err.printf("[startup] full load: %d games in %d ms%n", count, elapsedMillis(start)));
+        // Vide les écritures différées même en cas d'arrêt par Ctrl+C ; sans effet si le menu a déjà fermé la collection
+        Runtime.getRuntime().addShutdownHook(new Thread(collection::close));
 
         Scanner scanner = new Scanner(System.in);
         Menu menu = new Menu(collection, scanner);
 
         System.out.println("Using storage file: " + storageFile);
+        System.err.printf("[startup] first prompt: %d ms%n", elapsedMillis(start));
 
         while (true) {
             menu.handleMenu();
         }
     }
-}
\ No newline at end of file
+
+    // convert <entrée> <sortie> [options] : copie en streaming d'un format de stockage vers un autre
+    private static int convert(String[] args) {
+        List<String> files = new ArrayList<>();
+        List<String> flags = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                flags.add(args[i]);
+            } else {
+                files.add(args[i]);
+            }
+        }
+        if (files.size() != 2) {
+            System.out.println("Usage: convert <input file> <output file> [options]");
+            return 1;
+        }
+        for (String file : files) {
+            if (!RepositoryFactory.isSupported(file)) {
+                System.out.println("Error: Storage file must have " + RepositoryFactory.SUPPORTED_EXTENSIONS + " extension");
+                return 1;
+            }
+        }
+        try {
+            FormatConverter.Result result = FormatConverter.convert(files.get(0), files.get(1), StorageOptions.fromFlags(flags));
+            System.out.printf("Converted %d games from %s to %s in %d ms (%.0f games/s)%n", result.games(),
+                    files.get(0), files.get(1), result.elapsedNanos() / 1_000_000, result.gamesPerSecond());
+            return 0;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return 1;
+        } catch (Exception e) {
+            System.out.println("Error converting games: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -24,7 +24,7 @@ public class Menu {
         this.undoManager = new undo.UndoManager();
         this.addGame = new AddGame(collection, scanner, undoManager);
         this.removeGame = new RemoveGame(collection, scanner, undoManager);
-        this.listGames = new ListGames(collection);
+        this.listGames = new ListGames(collection, scanner);
         this.recommendGame = new RecommendGame(collection);
         this.GamesForXPlayers = new gamesForXPlayers(collection);
         this.WeekendSummary = new WeekendSummary(collection);
@@ -114,6 +114,7 @@ public class Menu {
     }
 
     private void exit() {
+        collection.close();
         System.out.println("Exiting the application. Goodbye!");
         System.exit(0);
     }
@@ -0,0 +1,254 @@
+package fr.fges;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.function.Consumer;
+
+/**
+ * Stockage des jeux résidents hors du tas (option --off-heap) : enregistrements et pool de
+ * chaînes vivent dans un tampon direct, avec la disposition de {@link GameRecordTable}. Le
+ * ramasse-miettes ne voit qu'un objet quelle que soit la taille de la collection ; les
+ * {@link BoardGame} sont recréés à chaque lecture. Les identifiants des jeux, absents des
+ * fichiers .bgc, sont gardés à part dans un tableau de longs indexé par emplacement.
+ *
+ * Comme la disposition est celle des fichiers .bgc, le contenu d'un tel fichier est adopté
+ * tel quel au chargement ({@link #attach}), sans décoder les jeux. Une suppression marque
+ * l'enregistrement ; la table est réécrite dans un nouveau tampon quand une capacité est
+ * atteinte ou que les enregistrements supprimés deviennent majoritaires.
+ *
+ * Chaque tampon abandonné (après une réécriture, un {@link #clear} ou un {@link #attach})
+ * est libéré aussitôt par {@link DirectBuffers#free}, de même que le tampon courant à la
+ * fermeture : une collection qui grandit ne laisse pas derrière elle des tampons morts de
+ * plus en plus gros en attendant le ramasse-miettes. Aucun jeu lu ne garde de référence au
+ * tampon, ses champs étant recopiés dans des chaînes du tas.
+ */
+final class OffHeapGameStore extends AbstractList<BoardGame> implements AutoCloseable {
+    private static final int MIN_RECORD_CAPACITY = 16;
+    private static final int MIN_CATEGORY_CAPACITY = 16;
+    private static final int MIN_STRING_CAPACITY = 1024;
+
+    private GameRecordTable table;
+    // Identifiant par emplacement, null tant qu'aucun jeu n'en a
+    private long[] ids;
+    // Dernière position résolue (index dans la liste, emplacement dans la table), pour les parcours par get(i)
+    private int cursorIndex = -1;
+    private int cursorSlot = -1;
+
+    OffHeapGameStore() {
+        table = allocate(MIN_RECORD_CAPACITY, MIN_CATEGORY_CAPACITY, MIN_STRING_CAPACITY);
+    }
+
+    /**
+     * Remplace le contenu par une table déjà posée sur un tampon, typiquement la copie d'un
+     * fichier .bgc : le tampon appartient ensuite au stockage, qui y écrit directement.
+     */
+    void attach(ByteBuffer records) throws IOException {
+        GameRecordTable previous = table;
+        table = GameRecordTable.open(records);
+        release(previous);
+        ids = null;
+        resetCursor();
+    }
+
+    @Override
+    public int size() {
+        return table().liveCount();
+    }
+
+    @Override
+    public BoardGame get(int index) {
+        return game(slotOf(index));
+    }
+
+    @Override
+    public void forEach(Consumer<? super BoardGame> action) {
+        GameRecordTable current = table();
+        for (int slot = 0; slot < current.recordCount(); slot++) {
+            if (current.isLive(slot)) {
+                action.accept(game(slot));
+            }
+        }
+    }
+
+    @Override
+    public boolean add(BoardGame game) {
+        try {
+            GameRecordTable.checkPlayers(game);
+            if (!table().append(game)) {
+                int needed = utf8Length(game.title()) + utf8Length(game.category());
+                rebuild(Math.max(MIN_RECORD_CAPACITY, 2 * (table.liveCount() + 1)),
+                        Math.max(MIN_CATEGORY_CAPACITY, 2 * (table.categoryCount() + 1)),
+                        Math.max(MIN_STRING_CAPACITY, 2 * (table.stringsUsed() + needed)));
+                table.append(game);
+            }
+            setId(table.recordCount() - 1, game.id());
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public BoardGame remove(int index) {
+        int slot = slotOf(index);
+        BoardGame removed = game(slot);
+        delete(slot);
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof BoardGame game)) {
+            return false;
+        }
+        int slot = table().findLive(game);
+        if (slot < 0) {
+            return false;
+        }
+        delete(slot);
+        return true;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof BoardGame game)) {
+            return -1;
+        }
+        int slot = table().findLive(game);
+        if (slot < 0) {
+            return -1;
+        }
+        int index = 0;
+        for (int previous = 0; previous < slot; previous++) {
+            if (table.isLive(previous)) {
+                index++;
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof BoardGame game && table().findLive(game) >= 0;
+    }
+
+    @Override
+    public void clear() {
+        GameRecordTable previous = table;
+        table = allocate(MIN_RECORD_CAPACITY, MIN_CATEGORY_CAPACITY, MIN_STRING_CAPACITY);
+        release(previous);
+        ids = null;
+        resetCursor();
+        modCount++;
+    }
+
+    @Override
+    public void close() {
+        GameRecordTable previous = table;
+        table = null;
+        release(previous);
+    }
+
+    private void delete(int slot) {
+        table.markDeleted(slot);
+        if (table.deletedCount() > MIN_RECORD_CAPACITY && table.deletedCount() > table.liveCount()) {
+            rebuild(table.recordCapacity(), table.categoryCapacity(), table.stringCapacity());
+        }
+        resetCursor();
+        modCount++;
+    }
+
+    // Recopie les enregistrements vivants, dans l'ordre, dans un nouveau tampon
+    private void rebuild(int recordCapacity, int categoryCapacity, int stringCapacity) {
+        GameRecordTable rebuilt = allocate(recordCapacity, categoryCapacity, stringCapacity);
+        long[] rebuiltIds = ids == null ? null : new long[recordCapacity];
+        try {
+            for (int slot = 0; slot < table.recordCount(); slot++) {
+                if (table.isLive(slot)) {
+                    if (rebuiltIds != null) {
+                        rebuiltIds[rebuilt.recordCount()] = ids[slot];
+                    }
+                    rebuilt.append(table.game(slot));
+                }
+            }
+        } catch (IOException e) {
+            // les jeux déjà présents ont passé la même vérification
+            throw new IllegalStateException(e);
+        }
+        GameRecordTable previous = table;
+        table = rebuilt;
+        ids = rebuiltIds;
+        resetCursor();
+        release(previous);
+    }
+
+    private static void release(GameRecordTable abandoned) {
+        if (abandoned != null) {
+            DirectBuffers.free(abandoned.buffer());
+        }
+    }
+
+    private BoardGame game(int slot) {
+        long id = ids == null ? BoardGame.NO_ID : ids[slot];
+        return new BoardGame(table.title(slot), table.minPlayers(slot), table.maxPlayers(slot),
+                table.category(table.categoryId(slot)), id);
+    }
+
+    private void setId(int slot, long id) {
+        if (ids == null) {
+            if (id == BoardGame.NO_ID) {
+                return;
+            }
+            ids = new long[table.recordCapacity()];
+        }
+        ids[slot] = id;
+    }
+
+    private static GameRecordTable allocate(int recordCapacity, int categoryCapacity, int stringCapacity) {
+        long size = GameRecordTable.sizeFor(recordCapacity, categoryCapacity, stringCapacity);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Collection too large for off-heap storage");
+        }
+        return GameRecordTable.format(ByteBuffer.allocateDirect((int) size), recordCapacity, categoryCapacity, stringCapacity);
+    }
+
+    // Sans suppression en attente, l'index est l'emplacement ; sinon on avance depuis le curseur
+    private int slotOf(int index) {
+        GameRecordTable current = table();
+        if (index < 0 || index >= current.liveCount()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + current.liveCount());
+        }
+        if (current.deletedCount() == 0) {
+            return index;
+        }
+        if (cursorIndex > index) {
+            resetCursor();
+        }
+        while (cursorIndex < index) {
+            do {
+                cursorSlot++;
+            } while (!current.isLive(cursorSlot));
+            cursorIndex++;
+        }
+        return cursorSlot;
+    }
+
+    private void resetCursor() {
+        cursorIndex = -1;
+        cursorSlot = -1;
+    }
+
+    private GameRecordTable table() {
+        if (table == null) {
+            throw new IllegalStateException("Off-heap store is closed");
+        }
+        return table;
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
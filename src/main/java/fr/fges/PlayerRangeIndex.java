@@ -0,0 +1,173 @@
+package fr.fges;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Arbre d'intervalles sur les plages [minPlayers, maxPlayers] : un treap ordonné par
+ * (min, max), un nœud par plage distincte avec ses jeux, chaque nœud mémorisant le plus
+ * grand max de son sous-arbre. Les sous-arbres qui ne peuvent pas contenir de réponse
+ * sont élagués, d'où des requêtes en O(log n + k) et des mises à jour en O(log n).
+ * Les jeux indexés portent un identifiant unique, par lequel ils sont retirés.
+ */
+final class PlayerRangeIndex {
+
+    private static final class Node {
+        final int min;
+        final int max;
+        final int priority;
+        // Retrait par identifiant : les jeux d'une même plage sont souvent nombreux
+        final SlottedGameList games = new SlottedGameList();
+        int subtreeMax;
+        Node left;
+        Node right;
+
+        Node(int min, int max, int priority) {
+            this.min = min;
+            this.max = max;
+            this.priority = priority;
+            this.subtreeMax = max;
+        }
+    }
+
+    // Graine fixe : la forme de l'arbre ne dépend que de l'ordre des mises à jour
+    private final Random priorities = new Random(0x5EED);
+    private Node root;
+
+    void add(BoardGame game) {
+        root = insert(root, game);
+    }
+
+    void remove(BoardGame game) {
+        root = delete(root, game);
+    }
+
+    /** Jeux dont la plage chevauche [from, to], triés par plage. */
+    List<BoardGame> overlapping(int from, int to) {
+        List<BoardGame> result = new ArrayList<>();
+        collect(root, from, to, result);
+        return result;
+    }
+
+    /** Jeux jouables pour tout nombre de joueurs entre from et to, triés par plage. */
+    List<BoardGame> covering(int from, int to) {
+        List<BoardGame> result = new ArrayList<>();
+        // Plage couvrante : min <= from et max >= to
+        collect(root, to, from, result);
+        return result;
+    }
+
+    // Plages de max >= lowestMax et de min <= highestMin, parcourues dans l'ordre
+    private static void collect(Node node, int lowestMax, int highestMin, List<BoardGame> result) {
+        if (node == null || node.subtreeMax < lowestMax) {
+            return;
+        }
+        collect(node.left, lowestMax, highestMin, result);
+        if (node.min > highestMin) {
+            return; // tout le sous-arbre droit commence encore plus loin
+        }
+        if (node.max >= lowestMax) {
+            result.addAll(node.games);
+        }
+        collect(node.right, lowestMax, highestMin, result);
+    }
+
+    private Node insert(Node node, BoardGame game) {
+        if (node == null) {
+            Node created = new Node(game.minPlayers(), game.maxPlayers(), priorities.nextInt());
+            created.games.add(game);
+            return created;
+        }
+        int order = compare(game, node);
+        if (order == 0) {
+            node.games.add(game);
+            return node;
+        }
+        if (order < 0) {
+            node.left = insert(node.left, game);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else {
+            node.right = insert(node.right, game);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private Node delete(Node node, BoardGame game) {
+        if (node == null) {
+            return null;
+        }
+        int order = compare(game, node);
+        if (order < 0) {
+            node.left = delete(node.left, game);
+        } else if (order > 0) {
+            node.right = delete(node.right, game);
+        } else if (node.games.removeById(game.id()) == null || !node.games.isEmpty()) {
+            return node;
+        } else {
+            return unlink(node);
+        }
+        update(node);
+        return node;
+    }
+
+    // Fait descendre le nœud vidé par rotations jusqu'à pouvoir le retirer
+    private Node unlink(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node top;
+        if (node.left.priority > node.right.priority) {
+            top = rotateRight(node);
+            top.right = unlink(node);
+        } else {
+            top = rotateLeft(node);
+            top.left = unlink(node);
+        }
+        update(top);
+        return top;
+    }
+
+    private static int compare(BoardGame game, Node node) {
+        int order = Integer.compare(game.minPlayers(), node.min);
+        return order != 0 ? order : Integer.compare(game.maxPlayers(), node.max);
+    }
+
+    private static Node rotateRight(Node node) {
+        Node top = node.left;
+        node.left = top.right;
+        top.right = node;
+        update(node);
+        update(top);
+        return top;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node top = node.right;
+        node.right = top.left;
+        top.left = node;
+        update(node);
+        update(top);
+        return top;
+    }
+
+    private static void update(Node node) {
+        int max = node.max;
+        if (node.left != null) {
+            max = Math.max(max, node.left.subtreeMax);
+        }
+        if (node.right != null) {
+            max = Math.max(max, node.right.subtreeMax);
+        }
+        node.subtreeMax = max;
+    }
+}
@@ -1,13 +1,12 @@
 package fr.fges;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
 
 public class RecommendGame {
     private GameCollection collection;
     private Scanner scanner;
+    private final Random random = new Random();
 
     public RecommendGame(GameCollection collection) {
         this.collection = collection;
@@ -32,22 +31,7 @@ public class RecommendGame {
     }
 
     public BoardGame recommendGame(int playerCount) {
-        List<BoardGame> compatibleGames = new ArrayList<>();
-        
-        // Filtrer les jeux compatibles avec le nombre de joueurs
-        for (BoardGame game : collection.getGames()) {
-            if (game.minPlayers() <= playerCount && playerCount <= game.maxPlayers()) {
-                compatibleGames.add(game);
-            }
-        }
-        
-        // Si aucun jeu compatible, retourner null
-        if (compatibleGames.isEmpty()) {
-            return null;
-        }
-        
-        // Retourner un jeu aléatoire
-        Random random = new Random();
-        return compatibleGames.get(random.nextInt(compatibleGames.size()));
+        // null si aucun jeu compatible
+        return collection.randomGameForPlayers(playerCount, random);
     }
-}
\ No newline at end of file
+}
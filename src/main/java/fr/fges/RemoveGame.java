@@ -1,5 +1,6 @@
 package fr.fges;
 
+import java.util.List;
 import java.util.Scanner;
 
 public class RemoveGame {
@@ -8,6 +9,10 @@ public class RemoveGame {
     private final Scanner scanner;
     private final undo.UndoManager undoManager;
 
+    private static final int PAGE_SIZE = 20;
+    private static final String COMPLETE = "*";
+    private static final int SUGGESTIONS = 3;
+
     public RemoveGame(GameCollection collection, Scanner scanner, undo.UndoManager undoManager) {
         this.collection = collection;
         this.scanner = scanner;
@@ -15,37 +20,74 @@ public class RemoveGame {
     }
 
     public void execute() {
-        var games = collection.getGames();
-
-        if (games.isEmpty()) {
+        if (collection.isEmpty()) {
             System.out.println("No games in collection.");
             return;
         }
 
-        System.out.println("\n=== Available Games ===");
-        for (BoardGame game : games) {
-            System.out.println("- " + game.title());
+        // Au-delà d'une page, on propose la complétion par préfixe plutôt que la liste entière
+        long size = collection.size();
+        if (size <= PAGE_SIZE) {
+            System.out.println("\n=== Available Games ===");
+            collection.forEachGame(game -> System.out.println("- " + game.title()));
+            System.out.println();
+        } else {
+            System.out.println("\n" + size + " games in collection. "
+                    + "Type the beginning of a title followed by * to list matching titles.");
         }
-        System.out.println();
 
-        System.out.print("Title of game to remove: ");
-        String title = scanner.nextLine();
+        String title = readTitle();
 
         if (title == null || title.trim().isEmpty()) {
             System.out.println("Error: Title cannot be empty.");
             return;
         }
 
-        for (BoardGame game : games) {
-            if (game.title().equals(title)) {
-                // Enregistrer l'action AVANT de supprimer
-                undoManager.recordAction(new undo.UndoableAction(undo.UndoableAction.ActionType.REMOVE, game));
-                
-                collection.removeGame(game);
-                System.out.println("Board game removed successfully.");
-                return;
-            }
+        // Même règle que le contrôle des doublons à l'ajout : casse et espaces de bord ignorés
+        List<BoardGame> matches = collection.findByTitle(title);
+        if (!matches.isEmpty()) {
+            BoardGame game = matches.stream()
+                    .filter(match -> match.title().equals(title))
+                    .findFirst()
+                    .orElse(matches.get(0));
+            // Enregistrer l'action AVANT de supprimer
+            undoManager.recordAction(new undo.UndoableAction(undo.UndoableAction.ActionType.REMOVE, game));
+
+            collection.removeGame(game);
+            System.out.println("Board game removed successfully.");
+            return;
         }
         System.out.println("No board game found with that title.");
+        List<String> similar = collection.similarTitles(title, SUGGESTIONS);
+        if (!similar.isEmpty()) {
+            System.out.println("Did you mean: " + String.join(", ", similar) + "?");
+        }
+    }
+
+    // Une saisie terminée par * affiche les titres qui commencent ainsi ; * seul affiche la page suivante
+    private String readTitle() {
+        String prefix = null;
+        String lastShown = null;
+        while (true) {
+            System.out.print("Title of game to remove: ");
+            String input = scanner.nextLine();
+            if (input == null || !input.endsWith(COMPLETE)) {
+                return input;
+            }
+            if (!input.equals(COMPLETE) || prefix == null) {
+                prefix = input.substring(0, input.length() - COMPLETE.length());
+                lastShown = null;
+            }
+            List<BoardGame> page = collection.gamesWithTitlePrefix(prefix, lastShown, PAGE_SIZE);
+            if (page.isEmpty()) {
+                System.out.println(lastShown == null ? "No title starts with \"" + prefix + "\"." : "No more titles.");
+                continue;
+            }
+            page.forEach(game -> System.out.println("- " + game.title()));
+            lastShown = page.get(page.size() - 1).title();
+            if (page.size() >= PAGE_SIZE) {
+                System.out.println("(type * for more)");
+            }
+        }
     }
-}
\ No newline at end of file
+}
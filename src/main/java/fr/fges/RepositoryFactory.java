@@ -1,10 +1,93 @@
 package fr.fges;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
 public class RepositoryFactory {
+    public static final String SUPPORTED_EXTENSIONS = ".json, .csv, .bgc or .bgt (.json and .csv may end with .gz or .lz4)";
+
+    public static boolean isSupported(String filePath) {
+        return isTextFormat(filePath) || filePath.endsWith(".bgc") || filePath.endsWith(".bgt");
+    }
+
+    // JSON ou CSV, compressé ou non : les formats que d'autres outils peuvent réécrire et qu'on peut surveiller
+    public static boolean isTextFormat(String filePath) {
+        String base = StorageCodec.stripSuffix(filePath);
+        return base.endsWith(".json") || base.endsWith(".csv");
+    }
+
     public static GameRepository create(String filePath) {
-        if (filePath.endsWith(".csv")) {
-            return new CsvGameRepository(filePath);
+        return create(filePath, StorageOptions.defaults());
+    }
+
+    public static GameRepository create(String filePath, StorageOptions options) {
+        DurableFileWriter writer = new DurableFileWriter(options.durability());
+        GameRepository repository;
+        // Un manifeste sans --shards : la collection est ramenée dans le fichier unique
+        if (options.shards() > 1 || Files.exists(Path.of(ShardedGameRepository.manifestPath(filePath)))) {
+            repository = new ShardedGameRepository(filePath, options.shards(),
+                    path -> createFile(path, options, writer), writer);
+        } else {
+            repository = createFile(filePath, options, writer);
+        }
+        if (options.writeBehindDelayMillis() > 0) {
+            repository = new WriteBehindGameRepository(repository, options.writeBehindDelayMillis());
+        }
+        return repository;
+    }
+
+    /**
+     * Dépôt qui lit le fichier tel qu'il est sur disque, pour la source d'une conversion :
+     * options par défaut, shards du manifeste pris tels quels, sans migration ni journal,
+     * si bien que la lecture ne modifie aucun fichier.
+     */
+    public static GameRepository openSource(String filePath) throws IOException {
+        StorageOptions options = StorageOptions.defaults();
+        DurableFileWriter writer = new DurableFileWriter(options.durability());
+        int shards = ShardedGameRepository.recordedShardCount(filePath);
+        if (shards > 1) {
+            List<GameRepository> files = new ArrayList<>(shards);
+            for (int shard = 0; shard < shards; shard++) {
+                files.add(createBase(shardPath(filePath, shard), options, writer));
+            }
+            return new ShardedGameRepository(files);
+        }
+        return createBase(filePath, options, writer);
+    }
+
+    // "games.json.gz" -> "games-shard-3.json.gz"
+    static String shardPath(String filePath, int shard) {
+        String base = StorageCodec.stripSuffix(filePath);
+        int nameStart = Math.max(base.lastIndexOf('/'), base.lastIndexOf('\\')) + 1;
+        int extension = base.indexOf('.', nameStart);
+        if (extension < 0) {
+            extension = base.length();
+        }
+        return base.substring(0, extension) + "-shard-" + shard + filePath.substring(extension);
+    }
+
+    private static GameRepository createFile(String filePath, StorageOptions options, DurableFileWriter writer) {
+        GameRepository repository = createBase(filePath, options, writer);
+        if (options.journal()) {
+            repository = new JournaledGameRepository(repository, filePath,
+                    JournaledGameRepository.DEFAULT_COMPACTION_THRESHOLD, writer);
+        }
+        return repository;
+    }
+
+    private static GameRepository createBase(String filePath, StorageOptions options, DurableFileWriter writer) {
+        if (StorageCodec.stripSuffix(filePath).endsWith(".csv")) {
+            return new CsvGameRepository(filePath, writer, options.titleIndex());
+        }
+        if (filePath.endsWith(".bgc")) {
+            return new BinaryGameRepository(filePath, writer);
+        }
+        if (filePath.endsWith(".bgt")) {
+            return new BTreeGameRepository(filePath, writer);
         }
-        return new JsonGameRepository(filePath);
+        return new JsonGameRepository(filePath, options.compactJson(), options.titleIndex(), writer);
     }
 }
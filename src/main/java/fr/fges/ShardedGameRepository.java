@@ -0,0 +1,355 @@
+package fr.fges;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Collection répartie sur plusieurs dépôts (shards) selon le hachage du titre normalisé.
+ * Les shards sont chargés en parallèle et un ajout/suppression ne réécrit que le shard
+ * concerné, soit environ 1/N de la collection.
+ *
+ * Chaque shard garde une copie de son contenu, connue après un chargement ou une
+ * sauvegarde complète ; avant cela, une modification réécrit tous les shards.
+ *
+ * Le nombre de shards est enregistré dans un manifeste ({@code <fichier>.shards}). Si la
+ * disposition sur disque diffère de celle demandée (fichier unique, autre nombre de shards,
+ * shards écrits avant le manifeste), la collection est relue depuis l'ancienne disposition,
+ * répartie à nouveau et sauvegardée entièrement avant tout accès ; les fichiers devenus
+ * inutiles sont supprimés. Un jeu trouvé au chargement dans un autre shard que celui de son
+ * titre provoque aussi une sauvegarde complète.
+ */
+public class ShardedGameRepository implements GameRepository {
+    static final String MANIFEST_SUFFIX = ".shards";
+
+    interface ShardTask {
+        void run(int shard) throws Exception;
+    }
+
+    private final List<GameRepository> shards;
+    private final List<List<BoardGame>> contents;
+    // Fichier de stockage et ouverture d'un fichier de shard ; null pour des shards sans fichiers
+    private final String filePath;
+    private final Function<String, GameRepository> opener;
+    private final DurableFileWriter writer;
+    private boolean layoutChecked;
+    private boolean synced;
+
+    public ShardedGameRepository(List<GameRepository> shards) {
+        this(shards, null, null, null);
+    }
+
+    /**
+     * Shards sur fichiers, ouverts par {@code opener} : {@code filePath} lui-même pour un seul
+     * shard (retour à un fichier unique), {@link RepositoryFactory#shardPath} sinon.
+     */
+    public ShardedGameRepository(String filePath, int shardCount, Function<String, GameRepository> opener,
+                                 DurableFileWriter writer) {
+        this(paths(filePath, shardCount).stream().map(opener).toList(), filePath, opener, writer);
+    }
+
+    private ShardedGameRepository(List<GameRepository> shards, String filePath,
+                                  Function<String, GameRepository> opener, DurableFileWriter writer) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.contents = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            contents.add(new ArrayList<>());
+        }
+        this.filePath = filePath;
+        this.opener = opener;
+        this.writer = writer;
+        this.layoutChecked = filePath == null;
+    }
+
+    static String manifestPath(String filePath) {
+        return filePath + MANIFEST_SUFFIX;
+    }
+
+    /** Nombre de shards inscrit dans le manifeste de filePath, 0 s'il est absent ou illisible. */
+    static int recordedShardCount(String filePath) throws IOException {
+        Path manifest = Path.of(manifestPath(filePath));
+        if (!Files.exists(manifest)) {
+            return 0;
+        }
+        String content = Files.readString(manifest, StandardCharsets.UTF_8).strip();
+        try {
+            int count = Integer.parseInt(content);
+            return count >= 1 && count <= StorageOptions.MAX_SHARDS ? count : 0;
+        } catch (NumberFormatException e) {
+            // manifeste illisible : les fichiers sont cherchés comme en son absence
+            return 0;
+        }
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public int shardOf(BoardGame game) {
+        return shardOf(game.title());
+    }
+
+    private int shardOf(String title) {
+        return Math.floorMod(BoardGame.normalizeTitle(title).hashCode(), shards.size());
+    }
+
+    @Override
+    public void save(List<BoardGame> games) throws Exception {
+        for (List<BoardGame> content : contents) {
+            content.clear();
+        }
+        for (BoardGame game : games) {
+            contents.get(shardOf(game)).add(game);
+        }
+        inParallel(shard -> shards.get(shard).save(contents.get(shard)));
+        // Le manifeste n'est écrit qu'une fois tous les shards en place
+        writeManifest();
+        layoutChecked = true;
+        synced = true;
+    }
+
+    @Override
+    public List<BoardGame> load() throws Exception {
+        if (!layoutChecked && migrateLayout()) {
+            return allGames();
+        }
+        inParallel(shard -> {
+            List<BoardGame> content = contents.get(shard);
+            content.clear();
+            content.addAll(shards.get(shard).load());
+        });
+        synced = true;
+        List<BoardGame> games = allGames();
+        if (hasMisplacedGame()) {
+            save(games);
+        }
+        return games;
+    }
+
+    @Override
+    public void forEach(Consumer<BoardGame> action) throws Exception {
+        checkLayout();
+        for (GameRepository shard : shards) {
+            shard.forEach(action);
+        }
+    }
+
+    @Override
+    public List<BoardGame> findByTitle(String title) throws Exception {
+        checkLayout();
+        return shards.get(shardOf(title)).findByTitle(title);
+    }
+
+    @Override
+    public long count() throws Exception {
+        checkLayout();
+        long count = 0;
+        for (GameRepository shard : shards) {
+            count += shard.count();
+        }
+        return count;
+    }
+
+    @Override
+    public boolean writesIncrementally() {
+        return true;
+    }
+
+    @Override
+    public void onGameAdded(BoardGame game, List<BoardGame> games) throws Exception {
+        if (!synced) {
+            save(games);
+            return;
+        }
+        addToShard(game);
+    }
+
+    @Override
+    public void onGameRemoved(BoardGame game, List<BoardGame> games) throws Exception {
+        if (!synced) {
+            save(games);
+            return;
+        }
+        removeFromShard(game);
+    }
+
+    // En mode streaming, seul le shard concerné est relu et modifié
+    @Override
+    public void add(BoardGame game) throws Exception {
+        checkLayout();
+        if (synced) {
+            addToShard(game);
+        } else {
+            shards.get(shardOf(game)).add(game);
+        }
+    }
+
+    @Override
+    public void remove(BoardGame game) throws Exception {
+        checkLayout();
+        if (synced) {
+            removeFromShard(game);
+        } else {
+            shards.get(shardOf(game)).remove(game);
+        }
+    }
+
+    private void addToShard(BoardGame game) throws Exception {
+        int shard = shardOf(game);
+        List<BoardGame> content = contents.get(shard);
+        content.add(game);
+        shards.get(shard).onGameAdded(game, content);
+    }
+
+    private void removeFromShard(BoardGame game) throws Exception {
+        int shard = shardOf(game);
+        List<BoardGame> content = contents.get(shard);
+        content.remove(game);
+        shards.get(shard).onGameRemoved(game, content);
+    }
+
+    @Override
+    public void close() throws Exception {
+        Exception failure = null;
+        for (GameRepository shard : shards) {
+            try {
+                shard.close();
+            } catch (Exception e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Hors chargement complet (mode streaming), la disposition est vérifiée au premier accès
+    private void checkLayout() throws Exception {
+        if (!layoutChecked) {
+            migrateLayout();
+        }
+    }
+
+    /**
+     * Compare la disposition sur disque à celle demandée et, si elles diffèrent, relit tous
+     * les jeux de l'ancienne pour les répartir dans la nouvelle. Renvoie vrai après une
+     * migration, le contenu des shards étant alors connu.
+     */
+    private boolean migrateLayout() throws Exception {
+        layoutChecked = true;
+        List<String> current = paths(filePath, shards.size());
+        List<String> previous = previousPaths();
+        if (previous.equals(current)) {
+            return false;
+        }
+        List<BoardGame> games = new ArrayList<>();
+        for (String path : previous) {
+            int shard = current.indexOf(path);
+            if (shard >= 0) {
+                games.addAll(shards.get(shard).load());
+            } else {
+                GameRepository old = opener.apply(path);
+                try {
+                    games.addAll(old.load());
+                } finally {
+                    old.close();
+                }
+            }
+        }
+        save(games);
+        for (String path : previous) {
+            if (!current.contains(path)) {
+                Files.deleteIfExists(Path.of(path));
+            }
+        }
+        return true;
+    }
+
+    // Fichiers de la disposition trouvée sur disque ; celle demandée si rien n'est encore écrit
+    private List<String> previousPaths() throws IOException {
+        int recorded = recordedShardCount(filePath);
+        if (recorded > 0) {
+            return paths(filePath, recorded);
+        }
+        // Shards écrits avant le manifeste, en nombre inconnu ; à défaut, le fichier unique
+        List<String> found = new ArrayList<>();
+        for (int shard = 0; shard < StorageOptions.MAX_SHARDS; shard++) {
+            String path = RepositoryFactory.shardPath(filePath, shard);
+            if (Files.exists(Path.of(path))) {
+                found.add(path);
+            }
+        }
+        if (found.isEmpty() && Files.exists(Path.of(filePath))) {
+            found.add(filePath);
+        }
+        return found.isEmpty() ? paths(filePath, shards.size()) : found;
+    }
+
+    private void writeManifest() throws IOException {
+        if (filePath == null) {
+            return;
+        }
+        Path manifest = Path.of(manifestPath(filePath));
+        if (shards.size() == 1) {
+            // Retour à un fichier unique : il n'y a plus de disposition à retenir
+            Files.deleteIfExists(manifest);
+            return;
+        }
+        byte[] content = (shards.size() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+        writer.replace(manifest, out -> out.write(content));
+    }
+
+    private static List<String> paths(String filePath, int shardCount) {
+        if (shardCount == 1) {
+            return List.of(filePath);
+        }
+        List<String> paths = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            paths.add(RepositoryFactory.shardPath(filePath, shard));
+        }
+        return paths;
+    }
+
+    private boolean hasMisplacedGame() {
+        for (int shard = 0; shard < contents.size(); shard++) {
+            for (BoardGame game : contents.get(shard)) {
+                if (shardOf(game) != shard) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private List<BoardGame> allGames() {
+        List<BoardGame> games = new ArrayList<>();
+        for (List<BoardGame> content : contents) {
+            games.addAll(content);
+        }
+        return games;
+    }
+
+    private void inParallel(ShardTask task) throws Exception {
+        try {
+            IntStream.range(0, shards.size()).parallel().forEach(shard -> {
+                try {
+                    task.run(shard);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            });
+        } catch (CompletionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package fr.fges;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Jeux résidents de la collection indexée, chacun avec un identifiant unique ; sert aussi
+ * de liste aux index dérivés (catégories, plages de joueurs). Une table {@link LongSlotMap}
+ * donne l'emplacement d'un identifiant : retrouver ou retirer un jeu identifié se fait en
+ * temps constant, sans comparer les champs, et un autre jeu égal en valeur reste en place.
+ *
+ * Un retrait laisse un emplacement vide ; la liste n'est tassée qu'à la lecture suivante
+ * par position (ou quand les vides deviennent majoritaires), si bien qu'une suite de
+ * retraits coûte un seul tassement. Le parcours par {@link #forEach} saute les vides.
+ */
+final class SlottedGameList extends AbstractList<BoardGame> {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MIN_COMPACTION = 16;
+
+    private BoardGame[] slots = new BoardGame[INITIAL_CAPACITY];
+    // Emplacements utilisés, vides compris
+    private int used;
+    private int removed;
+    private final LongSlotMap byId = new LongSlotMap();
+    private long nextId = 1;
+
+    /**
+     * Identifiant à donner au jeu : le sien s'il en a un qui n'est pas déjà pris, sinon un
+     * nouveau, toujours supérieur à tous ceux déjà vus.
+     */
+    long idFor(BoardGame game) {
+        if (game.id() > 0 && byId.get(game.id()) == LongSlotMap.ABSENT) {
+            nextId = Math.max(nextId, game.id() + 1);
+            return game.id();
+        }
+        return nextId++;
+    }
+
+    @Override
+    public boolean add(BoardGame game) {
+        if (!game.hasId() || byId.get(game.id()) != LongSlotMap.ABSENT) {
+            throw new IllegalArgumentException("Game needs an unused id: " + game.title());
+        }
+        if (used == slots.length) {
+            slots = Arrays.copyOf(slots, used + (used >> 1));
+        }
+        slots[used] = game;
+        byId.put(game.id(), used++);
+        modCount++;
+        return true;
+    }
+
+    BoardGame byId(long id) {
+        int slot = byId.get(id);
+        return slot == LongSlotMap.ABSENT ? null : slots[slot];
+    }
+
+    // Retire le jeu portant cet identifiant et le renvoie, ou null s'il n'y en a pas
+    BoardGame removeById(long id) {
+        int slot = byId.get(id);
+        if (slot == LongSlotMap.ABSENT) {
+            return null;
+        }
+        BoardGame game = vacate(slot);
+        if (removed > MIN_COMPACTION && removed > used - removed) {
+            compact();
+        }
+        return game;
+    }
+
+    /**
+     * Jeu tiré uniformément, sans tasser la liste : un emplacement vide est tiré à nouveau.
+     * Au-delà de MIN_COMPACTION vides, ceux-ci ne sont jamais majoritaires et il faut en
+     * moyenne moins de deux tirages ; sans retrait, le résultat est celui de get(nextInt(size())).
+     */
+    BoardGame random(Random random) {
+        if (size() == 0) {
+            throw new NoSuchElementException();
+        }
+        while (true) {
+            BoardGame game = slots[random.nextInt(used)];
+            if (game != null) {
+                return game;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return used - removed;
+    }
+
+    @Override
+    public BoardGame get(int index) {
+        compact();
+        if (index < 0 || index >= used) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + used);
+        }
+        return slots[index];
+    }
+
+    @Override
+    public BoardGame remove(int index) {
+        BoardGame game = get(index);
+        return removeById(game.id());
+    }
+
+    // Premier jeu égal en valeur : par identifiant si celui fourni correspond, sinon par parcours
+    @Override
+    public int indexOf(Object o) {
+        compact();
+        if (o instanceof BoardGame game && game.hasId()) {
+            int slot = byId.get(game.id());
+            if (slot != LongSlotMap.ABSENT && slots[slot].equals(game)) {
+                return slot;
+            }
+        }
+        for (int i = 0; i < used; i++) {
+            if (slots[i].equals(o)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        removeById(slots[index].id());
+        return true;
+    }
+
+    @Override
+    public void forEach(Consumer<? super BoardGame> action) {
+        for (int i = 0; i < used; i++) {
+            if (slots[i] != null) {
+                action.accept(slots[i]);
+            }
+        }
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super BoardGame> filter) {
+        boolean any = false;
+        for (int i = 0; i < used; i++) {
+            if (slots[i] != null && filter.test(slots[i])) {
+                vacate(i);
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, 0, used, null);
+        used = 0;
+        removed = 0;
+        byId.clear();
+        modCount++;
+    }
+
+    private BoardGame vacate(int slot) {
+        BoardGame game = slots[slot];
+        byId.remove(game.id());
+        slots[slot] = null;
+        removed++;
+        modCount++;
+        return game;
+    }
+
+    // Ramène les jeux sur les premiers emplacements, dans le même ordre ; les positions logiques ne changent pas
+    private void compact() {
+        if (removed == 0) {
+            return;
+        }
+        int target = 0;
+        for (int i = 0; i < used; i++) {
+            BoardGame game = slots[i];
+            if (game != null) {
+                if (target != i) {
+                    slots[target] = game;
+                    byId.put(game.id(), target);
+                }
+                target++;
+            }
+        }
+        Arrays.fill(slots, target, used, null);
+        used = target;
+        removed = 0;
+    }
+}
@@ -0,0 +1,76 @@
+package fr.fges;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Vues triées de la collection, tenues à jour à chaque ajout ou retrait : par titre, par
+ * catégorie puis titre, et par plage de joueurs. Lister la collection dans l'un de ces
+ * ordres est un simple parcours.
+ *
+ * Les titres et catégories sont comparés par leur clé de collation, calculée une fois
+ * à l'ajout : l'ordre suit les règles de la langue (accents, casse) sans repasser par le
+ * {@link Collator} à chaque comparaison.
+ */
+final class SortedGameViews {
+
+    // sequence départage les jeux identiques, qui restent tous présents
+    private record Entry(BoardGame game, CollationKey title, CollationKey category, long sequence) {
+    }
+
+    private static final Comparator<Entry> BY_TITLE = Comparator.comparing(Entry::title)
+            .thenComparingLong(Entry::sequence);
+    private static final Comparator<Entry> BY_CATEGORY = Comparator.comparing(Entry::category)
+            .thenComparing(BY_TITLE);
+    private static final Comparator<Entry> BY_PLAYERS = Comparator.<Entry>comparingInt(entry -> entry.game().minPlayers())
+            .thenComparingInt(entry -> entry.game().maxPlayers())
+            .thenComparing(BY_TITLE);
+
+    private final Collator collator = Collator.getInstance();
+    private final Map<GameOrder, TreeSet<Entry>> views = new EnumMap<>(GameOrder.class);
+    // Entrée de chaque instance, pour la retrouver au retrait : deux jeux égaux en valeur
+    // restent distincts, seul celui qui est retiré quitte les vues
+    private final Map<BoardGame, Entry> entries = new IdentityHashMap<>();
+    // Les catégories se répètent : une seule clé par texte
+    private final Map<String, CollationKey> categoryKeys = new HashMap<>();
+    private long nextSequence;
+
+    SortedGameViews() {
+        views.put(GameOrder.TITLE, new TreeSet<>(BY_TITLE));
+        views.put(GameOrder.CATEGORY, new TreeSet<>(BY_CATEGORY));
+        views.put(GameOrder.PLAYERS, new TreeSet<>(BY_PLAYERS));
+    }
+
+    /** Tri ponctuel, pour une collection qui n'est pas gardée en mémoire. */
+    static Iterable<BoardGame> sorted(Collection<BoardGame> games, GameOrder order) {
+        SortedGameViews views = new SortedGameViews();
+        games.forEach(views::add);
+        return views.view(order);
+    }
+
+    void add(BoardGame game) {
+        CollationKey category = categoryKeys.computeIfAbsent(game.category(), collator::getCollationKey);
+        Entry entry = new Entry(game, collator.getCollationKey(game.title()), category, nextSequence++);
+        entries.put(game, entry);
+        views.values().forEach(view -> view.add(entry));
+    }
+
+    void remove(BoardGame game) {
+        Entry entry = entries.remove(game);
+        if (entry != null) {
+            views.values().forEach(view -> view.remove(entry));
+        }
+    }
+
+    Iterable<BoardGame> view(GameOrder order) {
+        TreeSet<Entry> view = views.get(order);
+        return () -> view.stream().map(Entry::game).iterator();
+    }
+}
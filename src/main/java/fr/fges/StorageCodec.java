@@ -0,0 +1,87 @@
+package fr.fges;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression transparente des fichiers de stockage, choisie d'après le suffixe
+ * (.gz, .lz4). Les données sont (dé)compressées au fil du flux, sans tampon complet.
+ */
+public enum StorageCodec {
+    NONE(""),
+    GZIP(".gz"),
+    LZ4(".lz4");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String suffix;
+
+    StorageCodec(String suffix) {
+        this.suffix = suffix;
+    }
+
+    public static StorageCodec forPath(String filePath) {
+        if (filePath.endsWith(GZIP.suffix)) {
+            return GZIP;
+        }
+        if (filePath.endsWith(LZ4.suffix)) {
+            return LZ4;
+        }
+        return NONE;
+    }
+
+    // Nom du fichier sans le suffixe de compression : "games.json.gz" -> "games.json"
+    public static String stripSuffix(String filePath) {
+        return filePath.substring(0, filePath.length() - forPath(filePath).suffix.length());
+    }
+
+    public String suffix() {
+        return suffix;
+    }
+
+    /**
+     * Flux décompressé sur {@code in}, qui est fermé si l'en-tête est refusé. Un fichier
+     * compressé vide se lit comme un fichier vide.
+     */
+    public InputStream decode(InputStream in) throws IOException {
+        if (this == NONE) {
+            return in;
+        }
+        BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+        try {
+            buffered.mark(1);
+            if (buffered.read() < 0) {
+                return buffered;
+            }
+            buffered.reset();
+            return this == GZIP ? new GZIPInputStream(buffered, BUFFER_SIZE) : new Lz4Codec.FrameInputStream(buffered);
+        } catch (IOException | RuntimeException e) {
+            buffered.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Exécute {@code body} sur un flux compressé puis termine la compression
+     * sans fermer {@code out}, qui reste à la charge de l'appelant.
+     */
+    public void encode(OutputStream out, DurableFileWriter.StreamBody body) throws IOException {
+        switch (this) {
+            case NONE -> body.writeTo(out);
+            case GZIP -> {
+                GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+                body.writeTo(gzip);
+                gzip.finish();
+            }
+            case LZ4 -> {
+                Lz4Codec.FrameOutputStream lz4 = new Lz4Codec.FrameOutputStream(out);
+                body.writeTo(lz4);
+                lz4.finish();
+            }
+        }
+    }
+}
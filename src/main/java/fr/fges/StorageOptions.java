@@ -0,0 +1,92 @@
+package fr.fges;
+
+import java.util.List;
+
+/**
+ * Options de stockage passées en ligne de commande après le fichier (voir README).
+ * Un délai d'écriture différée à 0 désactive le mode write-behind ; un seul shard
+ * désactive le découpage en plusieurs fichiers.
+ */
+public record StorageOptions(
+        boolean journal,
+        long writeBehindDelayMillis,
+        boolean compactJson,
+        boolean streaming,
+        DurabilityPolicy durability,
+        int shards,
+        boolean titleIndex,
+        boolean watch,
+        boolean compact,
+        boolean offHeap
+) {
+    static final long DEFAULT_WRITE_BEHIND_DELAY_MILLIS = 200;
+    static final int MAX_SHARDS = 256;
+
+    public static StorageOptions defaults() {
+        return new StorageOptions(false, 0, false, false, DurabilityPolicy.ALWAYS, 1, false, false, false, false);
+    }
+
+    public static StorageOptions fromFlags(List<String> flags) {
+        boolean journal = false;
+        long writeBehindDelayMillis = 0;
+        boolean compactJson = false;
+        boolean streaming = false;
+        DurabilityPolicy durability = DurabilityPolicy.ALWAYS;
+        int shards = 1;
+        boolean titleIndex = false;
+        boolean watch = false;
+        boolean compact = false;
+        boolean offHeap = false;
+        for (String flag : flags) {
+            String name = flag.contains("=") ? flag.substring(0, flag.indexOf('=')) : flag;
+            String value = flag.contains("=") ? flag.substring(flag.indexOf('=') + 1) : null;
+            switch (name) {
+                case "--journal" -> journal = true;
+                case "--write-behind" -> writeBehindDelayMillis = value == null
+                        ? DEFAULT_WRITE_BEHIND_DELAY_MILLIS
+                        : parsePositive(flag, value);
+                case "--compact-json" -> compactJson = true;
+                case "--streaming" -> streaming = true;
+                case "--fsync" -> durability = DurabilityPolicy.parse(value == null ? "" : value);
+                case "--shards" -> shards = parseShards(flag, value == null ? "" : value);
+                case "--title-index" -> titleIndex = true;
+                case "--watch" -> watch = true;
+                case "--compact" -> compact = true;
+                case "--off-heap" -> offHeap = true;
+                default -> throw new IllegalArgumentException("Unknown option: " + flag);
+            }
+        }
+        // Le rechargement compare le fichier au contenu en mémoire : il faut que l'un reflète l'autre
+        if (watch && (journal || writeBehindDelayMillis > 0 || streaming || shards > 1)) {
+            throw new IllegalArgumentException("--watch cannot be combined with --journal, --write-behind, --streaming or --shards");
+        }
+        if (compact && streaming) {
+            throw new IllegalArgumentException("--compact cannot be combined with --streaming");
+        }
+        if (offHeap && (compact || streaming)) {
+            throw new IllegalArgumentException("--off-heap cannot be combined with --compact or --streaming");
+        }
+        return new StorageOptions(journal, writeBehindDelayMillis, compactJson, streaming, durability, shards,
+                titleIndex, watch, compact, offHeap);
+    }
+
+    private static int parseShards(String flag, String value) {
+        long shards = parsePositive(flag, value);
+        if (shards > MAX_SHARDS) {
+            throw new IllegalArgumentException("Invalid value for " + flag + ": at most " + MAX_SHARDS + " shards");
+        }
+        return (int) shards;
+    }
+
+    private static long parsePositive(String flag, String value) {
+        try {
+            long parsed = Long.parseLong(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // message d'erreur commun ci-dessous
+        }
+        throw new IllegalArgumentException("Invalid value for " + flag + ": expected a positive number");
+    }
+}
@@ -0,0 +1,221 @@
+package fr.fges;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Index des titres sur disque ({@code <fichier>.idx}) à côté d'un fichier JSON ou CSV non
+ * compressé : titre normalisé -> position et longueur de l'enregistrement dans le fichier.
+ * Une recherche par titre fait une recherche dichotomique dans l'index puis lit
+ * uniquement les enregistrements trouvés. L'index est lu en mémoire plutôt que mappé :
+ * sous Windows, un fichier mappé ne pourrait pas être remplacé lors de sa reconstruction.
+ *
+ * L'en-tête mémorise la taille, la date de modification et le CRC32 du fichier de données.
+ * Le CRC est vérifié à l'ouverture, la taille et la date avant chaque recherche ; un index
+ * absent ou périmé est reconstruit en relisant le fichier.
+ */
+final class TitleIndex {
+    private static final String SUFFIX = ".idx";
+    private static final int MAGIC = 0x42474931; // "BGI1"
+    private static final int HEADER_SIZE = 32;
+    // Position de la clé dans le pool, longueur de la clé, position et longueur de l'enregistrement
+    private static final int ENTRY_SIZE = 20;
+    private static final int CHECK_BUFFER_SIZE = 64 * 1024;
+
+    // Parcours complet du fichier de données pour reconstruire l'index
+    interface Scanner {
+        void scan(Builder builder) throws IOException;
+    }
+
+    private record Entry(byte[] key, long offset, int length) {
+    }
+
+    /** Collecte les enregistrements pendant une écriture ou une relecture du fichier de données. */
+    static final class Builder {
+        private final List<Entry> entries = new ArrayList<>();
+        private final CRC32 checksum = new CRC32();
+
+        // Doit voir passer tous les octets du fichier de données
+        CRC32 checksum() {
+            return checksum;
+        }
+
+        void add(BoardGame game, long offset, int length) {
+            entries.add(new Entry(key(game.title()), offset, length));
+        }
+
+        void write(Path dataPath, DurableFileWriter writer) throws IOException {
+            entries.sort(Comparator.comparing(Entry::key, Arrays::compareUnsigned));
+            long dataSize = Files.size(dataPath);
+            long dataModified = Files.getLastModifiedTime(dataPath).toMillis();
+            writer.replace(indexPath(dataPath), out -> {
+                DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, CHECK_BUFFER_SIZE));
+                data.writeInt(MAGIC);
+                data.writeInt(entries.size());
+                data.writeLong(dataSize);
+                data.writeLong(dataModified);
+                data.writeLong(checksum.getValue());
+                int keyOffset = 0;
+                for (Entry entry : entries) {
+                    data.writeInt(keyOffset);
+                    data.writeInt(entry.key().length);
+                    data.writeLong(entry.offset());
+                    data.writeInt(entry.length());
+                    keyOffset += entry.key().length;
+                }
+                for (Entry entry : entries) {
+                    data.write(entry.key());
+                }
+                data.flush();
+            });
+        }
+    }
+
+    private final Path dataPath;
+    private final ByteBuffer index;
+    private final int size;
+    private final long dataSize;
+    private final long dataModified;
+
+    private TitleIndex(Path dataPath, ByteBuffer index) {
+        this.dataPath = dataPath;
+        this.index = index;
+        this.size = index.getInt(4);
+        this.dataSize = index.getLong(8);
+        this.dataModified = index.getLong(16);
+    }
+
+    static Path indexPath(Path dataPath) {
+        return dataPath.resolveSibling(dataPath.getFileName() + SUFFIX);
+    }
+
+    /** Index à jour du fichier de données, reconstruit s'il est absent ou périmé. */
+    static TitleIndex openOrRebuild(Path dataPath, DurableFileWriter writer, Scanner scanner) throws IOException {
+        TitleIndex current = open(dataPath);
+        if (current != null) {
+            return current;
+        }
+        Builder builder = new Builder();
+        scanner.scan(builder);
+        builder.write(dataPath, writer);
+        return open(dataPath);
+    }
+
+    private static TitleIndex open(Path dataPath) throws IOException {
+        Path indexPath = indexPath(dataPath);
+        if (!Files.exists(indexPath)) {
+            return null;
+        }
+        ByteBuffer content;
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            content = ByteBuffer.allocate((int) channel.size());
+            while (content.hasRemaining()) {
+                if (channel.read(content) < 0) {
+                    return null; // tronqué pendant la lecture : reconstruit
+                }
+            }
+        }
+        if (content.getInt(0) != MAGIC) {
+            return null;
+        }
+        TitleIndex index = new TitleIndex(dataPath, content);
+        if (!index.isCurrent() || checksum(dataPath) != content.getLong(24)) {
+            return null;
+        }
+        return index;
+    }
+
+    // Vérification peu coûteuse avant chaque utilisation ; le CRC n'est relu qu'à l'ouverture
+    boolean isCurrent() throws IOException {
+        return Files.exists(dataPath)
+                && Files.size(dataPath) == dataSize
+                && Files.getLastModifiedTime(dataPath).toMillis() == dataModified;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Octets des enregistrements dont le titre normalisé correspond, dans l'ordre du fichier. */
+    List<byte[]> lookup(String title) throws IOException {
+        byte[] key = key(title);
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareKey(middle, key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<long[]> ranges = new ArrayList<>();
+        for (int entry = low; entry < size && compareKey(entry, key) == 0; entry++) {
+            int position = HEADER_SIZE + entry * ENTRY_SIZE;
+            ranges.add(new long[] {index.getLong(position + 8), index.getInt(position + 16)});
+        }
+        if (ranges.isEmpty()) {
+            return List.of();
+        }
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+        List<byte[]> records = new ArrayList<>(ranges.size());
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.READ)) {
+            for (long[] range : ranges) {
+                ByteBuffer record = ByteBuffer.allocate((int) range[1]);
+                while (record.hasRemaining()) {
+                    if (channel.read(record, range[0] + record.position()) < 0) {
+                        throw new IOException("Title index points past the end of " + dataPath);
+                    }
+                }
+                records.add(record.array());
+            }
+        }
+        return records;
+    }
+
+    private int compareKey(int entry, byte[] key) {
+        int position = HEADER_SIZE + entry * ENTRY_SIZE;
+        int keyStart = HEADER_SIZE + size * ENTRY_SIZE + index.getInt(position);
+        int keyLength = index.getInt(position + 4);
+        int common = Math.min(keyLength, key.length);
+        for (int i = 0; i < common; i++) {
+            int difference = Byte.toUnsignedInt(index.get(keyStart + i)) - Byte.toUnsignedInt(key[i]);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return keyLength - key.length;
+    }
+
+    private static byte[] key(String title) {
+        return BoardGame.normalizeTitle(title).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long checksum(Path dataPath) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[CHECK_BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(dataPath)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+}
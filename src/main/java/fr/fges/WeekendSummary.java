@@ -5,8 +5,10 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 public class WeekendSummary {
+    private static final int SUMMARY_SIZE = 3;
 
     private final GameCollection collection;
     private LocalDate currentDate; 
@@ -30,27 +32,44 @@ public class WeekendSummary {
             return;
         }
 
-        List<BoardGame> games = collection.getGames();
+        List<BoardGame> sample = new ArrayList<>();
+        int total = sampleGames(sample);
 
-        if (games.isEmpty()) {
+        if (total == 0) {
             System.out.println("No board games in collection.");
             return;
         }
-        displaySummary(games);
+        displaySummary(sample, total);
     }
 
-    private void displaySummary(List<BoardGame> games) {
-        List<BoardGame> shuffledGames = new ArrayList<>(games);
-        Collections.shuffle(shuffledGames);
-        int count = Math.min(3, shuffledGames.size());
+    // Tirage par réservoir : la collection est parcourue une fois sans être copiée
+    private int sampleGames(List<BoardGame> sample) {
+        Random random = new Random();
+        int[] seen = {0};
+        collection.forEachGame(game -> {
+            seen[0]++;
+            if (sample.size() < SUMMARY_SIZE) {
+                sample.add(game);
+            } else {
+                int slot = random.nextInt(seen[0]);
+                if (slot < SUMMARY_SIZE) {
+                    sample.set(slot, game);
+                }
+            }
+        });
+        Collections.shuffle(sample, random);
+        return seen[0];
+    }
+
+    private void displaySummary(List<BoardGame> sample, int total) {
+        int count = sample.size();
         System.out.println("\n=== Summary (" + count + " random game" + (count > 1 ? "s" : "") + ") ===");
-        for (int i = 0; i < count; i++) {
-            BoardGame game = shuffledGames.get(i);
+        for (BoardGame game : sample) {
             System.out.println("- " + game.title() +
                     " (" + game.minPlayers() + "-" + game.maxPlayers() +
                     " players, " + game.category() + ")");
         }
-        if (games.size() < 3) {
+        if (total < SUMMARY_SIZE) {
             System.out.println("\nNote: Collection has fewer than 3 games, displaying all available games.");
         }
     }
@@ -0,0 +1,233 @@
+package fr.fges;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Écriture différée : les mutations sont appliquées à une copie miroir et un thread
+ * de fond les regroupe en une seule sauvegarde au plus {@code maxFlushDelayMillis} après
+ * la première mutation non sauvegardée. La collection en mémoire reste à jour immédiatement.
+ *
+ * Si le dépôt sous-jacent écrit ses mutations une à une (journal, shards, .bgc, .bgt), les
+ * mutations en attente lui sont rejouées dans l'ordre par ses propres méthodes, chacune avec
+ * la collection telle qu'elle était juste après elle. Au-delà de {@link #MAX_PENDING_MUTATIONS}
+ * mutations en attente, ou après un {@link #save} complet, la file est abandonnée au profit
+ * d'une seule sauvegarde complète.
+ *
+ * Une sauvegarde de fond qui échoue est retentée après un délai doublé à chaque échec, au
+ * plus {@link #MAX_RETRIES} fois ; l'erreur est remontée par la mutation suivante, qui
+ * relance aussi un essai. Les mutations restent en attente jusqu'à une sauvegarde réussie.
+ */
+public class WriteBehindGameRepository implements GameRepository {
+    static final int MAX_RETRIES = 5;
+    static final int MAX_PENDING_MUTATIONS = 1024;
+
+    private record Mutation(boolean added, BoardGame game) {
+    }
+
+    private final GameRepository delegate;
+    private final long maxFlushDelayMillis;
+    private final ScheduledExecutorService flusher;
+    private final List<BoardGame> mirror = new ArrayList<>();
+    // Contenu du dépôt sous-jacent après la dernière sauvegarde réussie, null s'il est inconnu
+    private List<BoardGame> written;
+    private final List<Mutation> pending = new ArrayList<>();
+    // Vrai quand la file a été abandonnée : la prochaine sauvegarde réécrit tout
+    private boolean coalesced;
+    private final Object flushLock = new Object();
+    private ScheduledFuture<?> pendingFlush;
+    private boolean dirty;
+    // Échecs consécutifs des sauvegardes de fond, et dernier échec pas encore signalé
+    private int failedFlushes;
+    private Exception unreportedFailure;
+
+    public WriteBehindGameRepository(GameRepository delegate, long maxFlushDelayMillis) {
+        this.delegate = delegate;
+        this.maxFlushDelayMillis = maxFlushDelayMillis;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void save(List<BoardGame> games) throws Exception {
+        synchronized (this) {
+            mirror.clear();
+            mirror.addAll(games);
+            pending.clear();
+            coalesced = true;
+            dirty = true;
+        }
+        flush();
+    }
+
+    @Override
+    public List<BoardGame> load() throws Exception {
+        List<BoardGame> games = delegate.load();
+        synchronized (this) {
+            mirror.clear();
+            mirror.addAll(games);
+            written = new ArrayList<>(games);
+            pending.clear();
+            coalesced = false;
+        }
+        return games;
+    }
+
+    @Override
+    public void forEach(Consumer<BoardGame> action) throws Exception {
+        // Le fichier doit refléter les mutations en attente avant d'être parcouru
+        flush();
+        delegate.forEach(action);
+    }
+
+    @Override
+    public synchronized void onGameAdded(BoardGame game, List<BoardGame> games) throws IOException {
+        mirror.add(game);
+        record(new Mutation(true, game));
+        scheduleFlush();
+        reportFailure();
+    }
+
+    @Override
+    public synchronized void onGameRemoved(BoardGame game, List<BoardGame> games) throws IOException {
+        mirror.remove(game);
+        record(new Mutation(false, game));
+        scheduleFlush();
+        reportFailure();
+    }
+
+    @Override
+    public void close() throws Exception {
+        Exception failure = null;
+        try {
+            flush();
+        } catch (Exception e) {
+            failure = e;
+        }
+        // Le thread de fond et le dépôt sous-jacent sont libérés même si la dernière sauvegarde échoue
+        flusher.shutdown();
+        try {
+            delegate.close();
+        } catch (Exception e) {
+            if (failure == null) {
+                failure = e;
+            } else {
+                failure.addSuppressed(e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    public void flush() throws Exception {
+        // Sérialise les sauvegardes pour qu'un instantané ancien n'écrase jamais un plus récent
+        synchronized (flushLock) {
+            List<BoardGame> snapshot;
+            List<Mutation> mutations = null;
+            List<BoardGame> state = null;
+            synchronized (this) {
+                if (pendingFlush != null) {
+                    pendingFlush.cancel(false);
+                    pendingFlush = null;
+                }
+                if (!dirty) {
+                    return;
+                }
+                snapshot = new ArrayList<>(mirror);
+                if (!coalesced && written != null && delegate.writesIncrementally()) {
+                    mutations = new ArrayList<>(pending);
+                    state = written;
+                }
+                pending.clear();
+                coalesced = false;
+                dirty = false;
+            }
+            try {
+                if (mutations == null) {
+                    delegate.save(snapshot);
+                } else {
+                    replay(mutations, state);
+                }
+                synchronized (this) {
+                    written = snapshot;
+                }
+            } catch (Exception e) {
+                // Les mutations restent en attente jusqu'au prochain essai ; une partie a pu être
+                // écrite, le contenu du dépôt n'est plus connu : l'essai suivant réécrit tout
+                synchronized (this) {
+                    pending.clear();
+                    coalesced = true;
+                    dirty = true;
+                }
+                throw e;
+            }
+        }
+    }
+
+    private void replay(List<Mutation> mutations, List<BoardGame> state) throws Exception {
+        for (Mutation mutation : mutations) {
+            if (mutation.added()) {
+                state.add(mutation.game());
+                delegate.onGameAdded(mutation.game(), state);
+            } else {
+                state.remove(mutation.game());
+                delegate.onGameRemoved(mutation.game(), state);
+            }
+        }
+    }
+
+    private void record(Mutation mutation) {
+        if (coalesced) {
+            return;
+        }
+        pending.add(mutation);
+        if (pending.size() > MAX_PENDING_MUTATIONS) {
+            pending.clear();
+            coalesced = true;
+        }
+    }
+
+    private void scheduleFlush() {
+        dirty = true;
+        if (pendingFlush == null && !flusher.isShutdown()) {
+            pendingFlush = flusher.schedule(this::flushInBackground, maxFlushDelayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushInBackground() {
+        try {
+            flush();
+            synchronized (this) {
+                failedFlushes = 0;
+            }
+        } catch (Exception e) {
+            synchronized (this) {
+                failedFlushes++;
+                unreportedFailure = e;
+                if (failedFlushes <= MAX_RETRIES && pendingFlush == null && !flusher.isShutdown()) {
+                    pendingFlush = flusher.schedule(this::flushInBackground,
+                            maxFlushDelayMillis << failedFlushes, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    // Signale une seule fois l'échec d'une sauvegarde de fond, à la mutation suivante
+    private void reportFailure() throws IOException {
+        Exception failure = unreportedFailure;
+        if (failure != null) {
+            unreportedFailure = null;
+            throw new IOException("Background save failed, changes are kept in memory: " + failure.getMessage(), failure);
+        }
+    }
+}
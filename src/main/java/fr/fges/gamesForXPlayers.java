@@ -1,6 +1,5 @@
 package fr.fges;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
@@ -14,14 +13,31 @@ public class gamesForXPlayers {
     }
 
     public void execute() {
-        System.out.print("How many players? ");
-        int playerCount = scanner.nextInt();
-        scanner.nextLine();
-        
-        List<BoardGame> games = getGamesForXPlayers(playerCount);
+        System.out.print("How many players? (a number, or a range such as 4-6) ");
+        String input = scanner.nextLine().trim();
+
+        // Une plage donne les jeux jouables pour chacun des nombres de joueurs qu'elle contient
+        int separator = input.indexOf('-', 1);
+        List<BoardGame> games;
+        String players;
+        try {
+            if (separator > 0) {
+                int from = Integer.parseInt(input.substring(0, separator).trim());
+                int to = Integer.parseInt(input.substring(separator + 1).trim());
+                games = getGamesForPlayerRange(from, to);
+                players = from + " to " + to;
+            } else {
+                int playerCount = Integer.parseInt(input);
+                games = getGamesForXPlayers(playerCount);
+                players = String.valueOf(playerCount);
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Please enter a number of players or a range such as 4-6.");
+            return;
+        }
         
         if (!games.isEmpty()) {
-            System.out.println("Games available for " + playerCount + " players:");
+            System.out.println("Games available for " + players + " players:");
             for (BoardGame game : games) {
                 System.out.println("- \"" + game.title() + "\" (" + 
                                   game.minPlayers() + "-" + 
@@ -29,19 +45,15 @@ public class gamesForXPlayers {
                                   game.category() + ")");
             }
         } else {
-            System.out.println("No game found for " + playerCount + " players.");
+            System.out.println("No game found for " + players + " players.");
         }
     }
 
     public List<BoardGame> getGamesForXPlayers(int playerCount) {
-        List<BoardGame> compatibleGames = new ArrayList<>();
-        
-        for (BoardGame game : collection.getGames()) {
-            if (game.minPlayers() <= playerCount && playerCount <= game.maxPlayers()) {
-                compatibleGames.add(game);
-            }
-        }
-        
-        return compatibleGames;
+        return collection.gamesForPlayers(playerCount);
+    }
+
+    public List<BoardGame> getGamesForPlayerRange(int from, int to) {
+        return collection.gamesForPlayerRange(Math.min(from, to), Math.max(from, to));
     }
 }
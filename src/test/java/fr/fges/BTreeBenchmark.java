@@ -0,0 +1,49 @@
+package fr.fges;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coût d'un ajout puis d'une suppression : réécriture JSON complète contre mise à jour
+ * ponctuelle du B+arbre, et recherche par titre dans l'arbre.
+ * Lancement : make bench BENCH=BTreeBenchmark ARGS="<jeux> <opérations>"
+ */
+public class BTreeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        List<BoardGame> games = new ArrayList<>(gameCount);
+        for (int i = 0; i < gameCount; i++) {
+            games.add(new BoardGame("Game " + i, 1 + i % 4, 4 + i % 8, "category" + i % 20));
+        }
+        StorageOptions options = StorageOptions.fromFlags(List.of("--fsync=none"));
+
+        System.out.println("Collection size: " + gameCount + " games, " + operations + " add/remove pairs");
+        for (String extension : List.of(".json", ".bgt")) {
+            File file = File.createTempFile("btree-bench", extension);
+            GameRepository repository = RepositoryFactory.create(file.getPath(), options);
+            List<BoardGame> current = new ArrayList<>(games);
+            repository.save(current);
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                BoardGame game = new BoardGame("Extra " + i, 2, 4, "bench");
+                current.add(game);
+                repository.onGameAdded(game, current);
+                current.remove(game);
+                repository.onGameRemoved(game, current);
+            }
+            long mutation = (System.nanoTime() - start) / (2L * operations);
+            start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                repository.findByTitle("game " + (i * 7919 % gameCount));
+            }
+            long lookup = (System.nanoTime() - start) / operations;
+            repository.close();
+            System.out.printf("%-6s %10.3f ms per mutation   %10.3f ms per title lookup   %8d KB%n",
+                    extension, mutation / 1_000_000.0, lookup / 1_000_000.0, file.length() / 1024);
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("B+Tree Repository Tests")
+class BTreeGameRepositoryTest {
+
+    private File tempFile;
+
+    @BeforeEach
+    void setUp() {
+        tempFile = new File("test-btree-temp.bgt");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+        new File(tempFile.getPath() + ".tmp").delete();
+    }
+
+    private static List<BoardGame> sorted(List<BoardGame> games) {
+        List<BoardGame> copy = new ArrayList<>(games);
+        copy.sort(Comparator.comparing(BoardGame::toString));
+        return copy;
+    }
+
+    @Test
+    @DisplayName("Should save and reload a collection spanning many pages")
+    void shouldRoundTripLargeCollection() throws Exception {
+        // Arrange
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            games.add(new BoardGame("Game " + (i % 15_000), 1 + i % 4, 4 + i % 8, "category" + i % 20));
+        }
+        BTreeGameRepository repository = new BTreeGameRepository(tempFile.getPath());
+
+        // Act
+        repository.save(games);
+        repository.close();
+        BTreeGameRepository reopened = new BTreeGameRepository(tempFile.getPath());
+
+        // Assert
+        assertEquals(sorted(games), sorted(reopened.load()));
+        assertEquals(20_000, reopened.count());
+        assertEquals(2, reopened.findByTitle("GAME 42").size());
+        assertEquals(1, reopened.findByTitle("game 14999").size());
+        assertTrue(reopened.findByTitle("Game 15000").isEmpty());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Should stay consistent across random point inserts and deletes")
+    void shouldApplyPointUpdates() throws Exception {
+        // Arrange
+        Random random = new Random(7);
+        List<BoardGame> expected = new ArrayList<>();
+        BTreeGameRepository repository = new BTreeGameRepository(tempFile.getPath());
+
+        // Act
+        for (int i = 0; i < 6_000; i++) {
+            if (!expected.isEmpty() && random.nextInt(3) == 0) {
+                BoardGame removed = expected.remove(random.nextInt(expected.size()));
+                repository.remove(removed);
+            } else {
+                BoardGame added = new BoardGame("Title " + random.nextInt(2_000) + " " + "x".repeat(random.nextInt(40)),
+                        1 + random.nextInt(4), 5 + random.nextInt(10), "cat" + random.nextInt(9));
+                expected.add(added);
+                repository.add(added);
+            }
+        }
+        // Vider presque entièrement l'arbre libère des pages et fait redescendre la racine
+        while (expected.size() > 10) {
+            repository.remove(expected.remove(expected.size() - 1));
+        }
+        repository.close();
+        BTreeGameRepository reopened = new BTreeGameRepository(tempFile.getPath());
+
+        // Assert
+        assertEquals(sorted(expected), sorted(reopened.load()));
+        assertEquals(expected.size(), reopened.count());
+        for (BoardGame game : expected) {
+            assertTrue(reopened.findByTitle(game.title()).contains(game));
+        }
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Should serve a streaming collection without loading it")
+    void shouldServeStreamingCollection() {
+        // Arrange
+        StorageOptions options = StorageOptions.fromFlags(List.of("--streaming"));
+        GameCollection collection = new GameCollection(tempFile.getPath(), options);
+        BoardGame catan = new BoardGame("Catan", 3, 4, "strategy");
+
+        // Act
+        collection.addGame(catan);
+        collection.addGame(new BoardGame("Azul", 2, 4, "abstract"));
+        collection.removeGame(new BoardGame("Azul", 2, 4, "abstract"));
+        collection.close();
+        GameCollection reopened = new GameCollection(tempFile.getPath(), options);
+
+        // Assert
+        assertTrue(reopened.containsTitle("CATAN"));
+        assertFalse(reopened.containsTitle("Azul"));
+        assertEquals(List.of(catan), reopened.findByTitle("catan"));
+        assertFalse(reopened.isEmpty());
+        reopened.close();
+    }
+}
@@ -0,0 +1,133 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("Binary Repository Tests")
+class BinaryGameRepositoryTest {
+
+    private File tempFile;
+    private BinaryGameRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        tempFile = new File("test-binary-temp.bgc");
+        repository = new BinaryGameRepository(tempFile.getPath());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        repository.close();
+        tempFile.delete();
+    }
+
+    @Test
+    @DisplayName("Should round-trip games through the binary file")
+    void shouldRoundTripGames() throws Exception {
+        // Arrange
+        List<BoardGame> games = List.of(
+                new BoardGame("Catan", 3, 4, "Family"),
+                new BoardGame("Château, \"le jeu\"", 1, 30, "Family"),
+                new BoardGame("Chess", 2, 2, "Strategy"));
+
+        // Act
+        repository.save(games);
+        repository.close();
+        List<BoardGame> loaded = new BinaryGameRepository(tempFile.getPath()).load();
+
+        // Assert
+        assertEquals(games, loaded);
+    }
+
+    @Test
+    @DisplayName("Should add and remove in place without rewriting the file")
+    void shouldUpdateInPlace() throws Exception {
+        // Arrange
+        List<BoardGame> games = new ArrayList<>(List.of(new BoardGame("Catan", 3, 4, "Family")));
+        repository.save(games);
+        long size = tempFile.length();
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        BoardGame catan = games.get(0);
+
+        // Act
+        games.add(chess);
+        repository.onGameAdded(chess, games);
+        games.remove(catan);
+        repository.onGameRemoved(catan, games);
+        repository.close();
+
+        // Assert
+        assertEquals(size, tempFile.length());
+        assertEquals(List.of(chess), new BinaryGameRepository(tempFile.getPath()).load());
+    }
+
+    @Test
+    @DisplayName("Should grow the file when the reserved capacity is exhausted")
+    void shouldGrowWhenCapacityExhausted() throws Exception {
+        // Arrange
+        List<BoardGame> games = new ArrayList<>();
+        repository.save(games);
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            BoardGame game = new BoardGame("Game " + i, 1 + i % 5, 6, "Category " + i % 40);
+            games.add(game);
+            repository.onGameAdded(game, games);
+        }
+        repository.close();
+
+        // Assert
+        assertEquals(games, new BinaryGameRepository(tempFile.getPath()).load());
+    }
+
+    @Test
+    @DisplayName("Should remove the first equal record, even among titles sharing a hash")
+    void shouldRemoveThroughTitleIndex() throws Exception {
+        // Arrange
+        BoardGame aa = new BoardGame("Aa", 2, 4, "Family");
+        BoardGame bb = new BoardGame("BB", 2, 4, "Family");
+        List<BoardGame> games = new ArrayList<>(List.of(aa, bb));
+        repository.save(games);
+        List<BoardGame> added = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            BoardGame game = new BoardGame("Game " + i, 1, 4, "Family");
+            added.add(game);
+            games.add(game);
+            repository.onGameAdded(game, games);
+        }
+        games.add(aa);
+        repository.onGameAdded(aa, games);
+
+        // Act
+        games.remove(bb);
+        repository.onGameRemoved(bb, games);
+        games.remove(aa);
+        repository.onGameRemoved(aa, games);
+        for (int i = 0; i < 100; i += 2) {
+            games.remove(added.get(i));
+            repository.onGameRemoved(added.get(i), games);
+        }
+        repository.close();
+
+        // Assert
+        List<BoardGame> loaded = new BinaryGameRepository(tempFile.getPath()).load();
+        assertEquals(games, loaded);
+        assertEquals(aa, loaded.get(loaded.size() - 1));
+    }
+
+    @Test
+    @DisplayName("Should be used by the collection for the .bgc extension")
+    void shouldBeCreatedForBgcExtension() {
+        // Act & Assert
+        assertTrue(RepositoryFactory.isSupported("games.bgc"));
+        assertInstanceOf(BinaryGameRepository.class, RepositoryFactory.create("games.bgc"));
+    }
+}
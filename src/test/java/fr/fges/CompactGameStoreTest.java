@@ -0,0 +1,86 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("Compact Game Store Tests")
+class CompactGameStoreTest {
+
+    private final File tempFile = new File("test-compact-temp.json");
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+    }
+
+    @Test
+    @DisplayName("Should behave like a list of games across random adds and removes")
+    void shouldMatchArrayList() {
+        // Arrange
+        Random random = new Random(11);
+        List<BoardGame> expected = new ArrayList<>();
+        CompactGameStore store = new CompactGameStore();
+
+        // Act & Assert
+        for (int i = 0; i < 5_000; i++) {
+            if (!expected.isEmpty() && random.nextInt(3) == 0) {
+                BoardGame removed = expected.get(random.nextInt(expected.size()));
+                assertEquals(expected.remove(removed), store.remove(removed));
+            } else {
+                BoardGame added = new BoardGame("Château " + random.nextInt(500) + " ✓".repeat(random.nextInt(3)),
+                        random.nextInt(5), 4 + random.nextInt(252), "catégorie" + random.nextInt(7));
+                expected.add(added);
+                store.add(added);
+            }
+            if (i % 1_000 == 0) {
+                store.trimToSize();
+            }
+        }
+        assertEquals(expected, store);
+        assertFalse(store.remove(new BoardGame("Château 1", 1, 4, "inconnue")));
+        assertThrows(IllegalArgumentException.class, () -> store.add(new BoardGame("Géant", 2, 300, "party")));
+    }
+
+    @Test
+    @DisplayName("Should answer queries like the indexed collection")
+    void shouldMatchIndexedCollection() throws Exception {
+        // Arrange
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            games.add(new BoardGame("Game " + i % 250, 1 + i % 4, 2 + i % 9, "category" + i % 6));
+        }
+        new JsonGameRepository(tempFile.getPath()).save(games);
+        GameCollection indexed = new GameCollection(tempFile.getPath());
+        GameCollection compact = new GameCollection(tempFile.getPath(), StorageOptions.fromFlags(List.of("--compact")));
+        indexed.loadFromFile();
+        compact.loadFromFile();
+
+        // Act
+        BoardGame removed = games.get(100);
+        indexed.removeGame(removed);
+        compact.removeGame(removed);
+        GameFilter filter = GameFilter.category("category2").or(GameFilter.players(5)).andNot(GameFilter.titleStartsWith("game 1"));
+
+        // Assert
+        assertEquals(indexed.getGames(), compact.getGames());
+        assertEquals(indexed.findByTitle("GAME 42"), compact.findByTitle("GAME 42"));
+        assertEquals(indexed.gamesForPlayers(3), compact.gamesForPlayers(3));
+        assertEquals(indexed.gamesInCategory("category4"), compact.gamesInCategory("category4"));
+        assertEquals(indexed.gamesWithTitlePrefix("game 2", "game 21", 5), compact.gamesWithTitlePrefix("game 2", "game 21", 5));
+        assertEquals(indexed.categoryCounts(), compact.categoryCounts());
+        assertEquals(indexed.filter(filter), compact.filter(filter));
+        assertEquals(indexed.similarTitles("gme 7", 3), compact.similarTitles("gme 7", 3));
+        assertFalse(compact.containsTitle(removed.title()));
+        assertEquals(299, compact.size());
+        assertThrows(IllegalArgumentException.class,
+                () -> StorageOptions.fromFlags(List.of("--compact", "--streaming")));
+    }
+}
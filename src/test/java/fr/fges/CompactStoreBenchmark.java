@@ -0,0 +1,100 @@
+package fr.fges;
+
+import java.io.File;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Empreinte mémoire des jeux résidents : liste de BoardGame contre colonnes compactes, puis
+ * collection complète (liste et index) contre collection --compact chargées depuis un fichier.
+ * Lancement : make bench BENCH=CompactStoreBenchmark ARGS="<jeux>"
+ */
+public class CompactStoreBenchmark {
+    private static final String CONSONANTS = "bcdfghjklmnprstvwz";
+    private static final String VOWELS = "aeiouy";
+
+    public static void main(String[] args) throws Exception {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        List<String> categories = List.of("strategy", "family", "party", "abstract", "cooperative", "card", "dice", "wargame");
+        List<BoardGame> games = new ArrayList<>(gameCount);
+        for (int i = 0; i < gameCount; i++) {
+            int min = 1 + random.nextInt(4);
+            games.add(new BoardGame(randomTitle(random), min, min + random.nextInt(8),
+                    categories.get(random.nextInt(categories.size()))));
+        }
+
+        long objects = footprint(() -> {
+            // Copie des titres : chaque jeu chargé possède ses propres chaînes
+            List<BoardGame> list = new ArrayList<>();
+            games.forEach(game -> list.add(new BoardGame(new String(game.title().toCharArray()), game.minPlayers(),
+                    game.maxPlayers(), game.category())));
+            return list;
+        });
+        long columns = footprint(() -> {
+            CompactGameStore store = new CompactGameStore();
+            store.addAll(games);
+            store.trimToSize();
+            return store;
+        });
+        report("Game list", gameCount, objects, columns);
+
+        File file = new File("bench-compact-temp.json");
+        try {
+            new JsonGameRepository(file.getPath()).saveFrom(games::forEach);
+            long indexedCollection = footprint(() -> loaded(file, StorageOptions.defaults()));
+            long compactCollection = footprint(() -> loaded(file, StorageOptions.fromFlags(List.of("--compact"))));
+            report("Collection", gameCount, indexedCollection, compactCollection);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static GameCollection loaded(File file, StorageOptions options) {
+        GameCollection collection = new GameCollection(file.getPath(), options);
+        collection.loadFromFile();
+        return collection;
+    }
+
+    private static void report(String label, int gameCount, long objects, long compact) {
+        System.out.printf("%-10s objects %7.1f MB (%5.1f B/game), compact %7.1f MB (%5.1f B/game): %.1fx smaller%n",
+                label, objects / 1e6, (double) objects / gameCount, compact / 1e6, (double) compact / gameCount,
+                (double) objects / compact);
+    }
+
+    // Tas occupé par la structure construite, mesuré après ramasse-miettes
+    private static long footprint(Supplier<Object> build) {
+        long before = usedHeap();
+        Object built = build.get();
+        long after = usedHeap();
+        Reference.reachabilityFence(built);
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static String randomTitle(Random random) {
+        StringBuilder title = new StringBuilder();
+        int words = 1 + random.nextInt(3);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                title.append(' ');
+            }
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                title.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+                title.append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+            }
+        }
+        return title.toString();
+    }
+}
@@ -0,0 +1,102 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("Compressed Bitmap Tests")
+class CompressedBitmapTest {
+
+    private final File tempFile = new File("test-bitmap-temp.json");
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+    }
+
+    private static BitSet toBitSet(CompressedBitmap bitmap) {
+        BitSet bits = new BitSet();
+        bitmap.forEach(bits::set);
+        return bits;
+    }
+
+    @Test
+    @DisplayName("Should match a BitSet across sparse and dense containers")
+    void shouldMatchBitSet() {
+        // Arrange : un conteneur dense, un clairsemé et un qui change de forme
+        Random random = new Random(11);
+        CompressedBitmap[] bitmaps = {new CompressedBitmap(), new CompressedBitmap()};
+        BitSet[] expected = {new BitSet(), new BitSet()};
+
+        // Act
+        for (int i = 0; i < 60_000; i++) {
+            int which = random.nextInt(2);
+            int value = random.nextInt(3) == 0 ? random.nextInt(1 << 20) : random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                bitmaps[which].remove(value);
+                expected[which].clear(value);
+            } else {
+                bitmaps[which].add(value);
+                expected[which].set(value);
+            }
+        }
+
+        // Assert
+        for (int which = 0; which < 2; which++) {
+            assertEquals(expected[which], toBitSet(bitmaps[which]));
+            assertEquals(expected[which].cardinality(), bitmaps[which].cardinality());
+            assertTrue(bitmaps[which].contains(expected[which].nextSetBit(0)));
+        }
+        BitSet and = (BitSet) expected[0].clone();
+        and.and(expected[1]);
+        BitSet or = (BitSet) expected[0].clone();
+        or.or(expected[1]);
+        BitSet andNot = (BitSet) expected[0].clone();
+        andNot.andNot(expected[1]);
+        assertEquals(and, toBitSet(bitmaps[0].and(bitmaps[1])));
+        assertEquals(or, toBitSet(bitmaps[0].or(bitmaps[1])));
+        assertEquals(andNot, toBitSet(bitmaps[0].andNot(bitmaps[1])));
+    }
+
+    @Test
+    @DisplayName("Should evaluate composite filters through adds, removes and undo")
+    void shouldFilterAcrossMutationsAndUndo() {
+        // Arrange
+        GameCollection collection = new GameCollection(tempFile.getPath());
+        undo.UndoManager undoManager = new undo.UndoManager();
+        BoardGame catan = new BoardGame("Catan", 3, 4, "Strategy");
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        BoardGame carcassonne = new BoardGame("Carcassonne", 2, 5, "Family");
+        BoardGame caylus = new BoardGame("Caylus", 2, 5, "Strategy");
+        List<BoardGame> all = List.of(catan, chess, carcassonne, caylus, new BoardGame("Azul", 2, 4, "Strategy"));
+        all.forEach(collection::addGame);
+        GameFilter filter = GameFilter.category("Strategy")
+                .and(GameFilter.players(4))
+                .and(GameFilter.titleStartsWith("c"));
+        assertEquals(List.of(catan, caylus), collection.filter(filter));
+
+        // Act
+        collection.removeGame(caylus);
+        undoManager.recordAction(new undo.UndoableAction(undo.UndoableAction.ActionType.REMOVE, caylus));
+        List<BoardGame> afterRemove = collection.filter(filter);
+        new undo.UndoService(collection, undoManager).execute();
+
+        // Assert
+        assertEquals(List.of(catan), afterRemove);
+        assertEquals(List.of(catan, caylus), collection.filter(filter));
+        assertEquals(List.of(chess), collection.filter(GameFilter.players(2).andNot(GameFilter.players(3))
+                .andNot(GameFilter.category("Family")).and(GameFilter.titleStartsWith("CH"))));
+        List<BoardGame> union = collection.filter(GameFilter.category("Family").or(GameFilter.players(3)));
+        assertEquals(List.of(catan, carcassonne, caylus, all.get(4)), union);
+        for (BoardGame game : all) {
+            assertEquals(filter.test(game), collection.filter(filter).contains(game));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package fr.fges;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Taille sur disque et débit de sauvegarde/chargement selon la compression (.gz, .lz4).
+ * Le débit est rapporté à la taille non compressée du format.
+ * Lancement : make bench BENCH=CompressionBenchmark ARGS="<jeux>"
+ */
+public class CompressionBenchmark {
+    private static final int GAMES = 500_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : GAMES;
+        List<BoardGame> games = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            games.add(new BoardGame("Game " + i, 1 + i % 4, 4 + i % 8, "category" + i % 20));
+        }
+        StorageOptions options = StorageOptions.fromFlags(List.of("--fsync=none"));
+
+        System.out.println("Collection size: " + count + " games");
+        System.out.printf("%-12s %10s %8s %10s %10s %10s %10s%n",
+                "file", "size (KB)", "ratio", "save (ms)", "save MB/s", "load (ms)", "load MB/s");
+        for (String extension : List.of(".json", ".csv")) {
+            long rawSize = 0;
+            for (StorageCodec codec : StorageCodec.values()) {
+                File file = File.createTempFile("compression-bench", extension + codec.suffix());
+                GameRepository repository = RepositoryFactory.create(file.getPath(), options);
+                long save = best(() -> repository.save(games));
+                long load = best(repository::load);
+                repository.close();
+                long size = Files.size(file.toPath());
+                if (codec == StorageCodec.NONE) {
+                    rawSize = size;
+                }
+                System.out.printf("%-12s %10d %7.1fx %10.1f %10.1f %10.1f %10.1f%n",
+                        extension + codec.suffix(), size / 1024, (double) rawSize / size,
+                        save / 1_000_000.0, throughput(rawSize, save),
+                        load / 1_000_000.0, throughput(rawSize, load));
+                file.delete();
+            }
+        }
+    }
+
+    private static long best(JsonCodecBenchmark.Task task) throws Exception {
+        task.run(); // préchauffage
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+
+    private static double throughput(long bytes, long nanos) {
+        return bytes / (1024.0 * 1024.0) / (nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,114 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("CSV Repository Tests")
+class CsvGameRepositoryTest {
+
+    private File tempFile;
+    private CsvGameRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        tempFile = new File("test-csv-repository-temp.csv");
+        repository = new CsvGameRepository(tempFile.getPath());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+    }
+
+    @Test
+    @DisplayName("Should round-trip titles containing commas, quotes and line breaks")
+    void shouldRoundTripSpecialCharacters() throws Exception {
+        // Arrange
+        List<BoardGame> games = List.of(
+                new BoardGame("Catan", 3, 4, "Family"),
+                new BoardGame("Pandemic, Legacy", 2, 4, "Cooperative"),
+                new BoardGame("The \"Mind\"", 2, 4, "Party, Cards"),
+                new BoardGame("Line\nBreak", 1, 2, "Château"));
+
+        // Act
+        repository.save(games);
+        List<BoardGame> loaded = repository.load();
+        List<BoardGame> streamed = new ArrayList<>();
+        repository.forEach(streamed::add);
+
+        // Assert
+        assertEquals(games, loaded);
+        assertEquals(games, streamed);
+    }
+
+    @Test
+    @DisplayName("Should read legacy files with CRLF line endings and skip invalid lines")
+    void shouldReadLegacyFiles() throws Exception {
+        // Arrange
+        Files.writeString(tempFile.toPath(),
+                "title,minPlayers,maxPlayers,category\r\nChess,2,2,Strategy\r\nbroken line\r\nCatan,x,4,Family\r\nRisk,2,6,Strategy",
+                StandardCharsets.UTF_8);
+
+        // Act
+        List<BoardGame> loaded = repository.load();
+
+        // Assert
+        assertEquals(List.of(new BoardGame("Chess", 2, 2, "Strategy"), new BoardGame("Risk", 2, 6, "Strategy")), loaded);
+    }
+
+    @Test
+    @DisplayName("Should keep file order when loading large files in parallel chunks")
+    void shouldKeepOrderAcrossChunks() throws Exception {
+        // Arrange
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < 60_000; i++) {
+            String title = i % 7 == 0 ? "Game, \"" + i + "\"\nsecond line" : "Game " + i;
+            games.add(new BoardGame(title, 1 + i % 5, 6 + i % 10, "Category " + i % 12));
+        }
+        repository.save(games);
+        assertTrue(tempFile.length() > CsvGameParser.CHUNK_SIZE);
+
+        // Act
+        List<BoardGame> loaded = repository.load();
+        List<BoardGame> streamed = new ArrayList<>();
+        new CsvGameParser().parse(new ByteArrayInputStream(Files.readAllBytes(tempFile.toPath())), streamed::add);
+
+        // Assert
+        assertEquals(games, loaded);
+        assertEquals(games, streamed);
+    }
+
+    @Test
+    @DisplayName("Should split large files like the sequential parser despite stray quotes")
+    void shouldSplitChunksDespiteStrayQuotes() throws Exception {
+        // Arrange - files written by hand may hold a bare quote inside an unquoted title
+        StringBuilder csv = new StringBuilder("title,minPlayers,maxPlayers,category\n");
+        csv.append("12\" Pizza,2,4,Party\n");
+        for (int i = 0; i < 60_000; i++) {
+            csv.append(i % 7 == 0 ? "\"Game, \"\"" + i + "\"\"\nsecond line\"" : "Game " + i).append(",2,4,Family\n");
+        }
+        Files.writeString(tempFile.toPath(), csv, StandardCharsets.UTF_8);
+        assertTrue(tempFile.length() > CsvGameParser.CHUNK_SIZE);
+        List<BoardGame> streamed = new ArrayList<>();
+        new CsvGameParser().parse(new ByteArrayInputStream(Files.readAllBytes(tempFile.toPath())), streamed::add);
+
+        // Act
+        List<BoardGame> loaded = repository.load();
+
+        // Assert
+        assertEquals(60_001, streamed.size());
+        assertEquals(new BoardGame("12\" Pizza", 2, 4, "Party"), streamed.get(0));
+        assertEquals(streamed, loaded);
+    }
+}
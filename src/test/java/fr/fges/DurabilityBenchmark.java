@@ -0,0 +1,45 @@
+package fr.fges;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Latence d'une sauvegarde JSON selon la politique de fsync.
+ * Lancement : make bench BENCH=DurabilityBenchmark ARGS="<jeux> <sauvegardes>"
+ */
+public class DurabilityBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int saves = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        List<BoardGame> games = new ArrayList<>(gameCount);
+        for (int i = 0; i < gameCount; i++) {
+            games.add(new BoardGame("Game " + i, 1 + i % 4, 4 + i % 8, "category" + i % 20));
+        }
+
+        System.out.println("Collection size: " + gameCount + " games, " + saves + " saves per policy");
+        for (DurabilityPolicy policy : List.of(DurabilityPolicy.ALWAYS, DurabilityPolicy.group(50), DurabilityPolicy.NONE)) {
+            File file = File.createTempFile("durability-bench", ".json");
+            DurableFileWriter writer = new DurableFileWriter(policy);
+            JsonGameRepository repository = new JsonGameRepository(file.getPath(), false, writer);
+            long[] latencies = new long[saves];
+            long start = System.nanoTime();
+            for (int i = 0; i < saves; i++) {
+                long saveStart = System.nanoTime();
+                repository.save(games);
+                latencies[i] = System.nanoTime() - saveStart;
+            }
+            repository.close();
+            long total = System.nanoTime() - start;
+            Arrays.sort(latencies);
+            System.out.printf("%-16s p50 %7.2f ms   p99 %7.2f ms   %7.1f saves/s%n",
+                    policy.mode() + (policy.mode() == DurabilityPolicy.Mode.GROUP ? " (" + policy.groupCommitMillis() + " ms)" : ""),
+                    latencies[saves / 2] / 1_000_000.0,
+                    latencies[saves * 99 / 100] / 1_000_000.0,
+                    saves / (total / 1_000_000_000.0));
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("Durable File Writer Tests")
+class DurableFileWriterTest {
+
+    private File target;
+    private File temp;
+
+    @BeforeEach
+    void setUp() {
+        target = new File("test-durable-temp.json");
+        temp = new File("test-durable-temp.json.tmp");
+    }
+
+    @AfterEach
+    void tearDown() {
+        target.delete();
+        temp.delete();
+    }
+
+    @Test
+    @DisplayName("Should replace the target atomically and leave no temporary file")
+    void shouldReplaceTargetAtomically() throws Exception {
+        // Arrange
+        DurableFileWriter writer = new DurableFileWriter(DurabilityPolicy.ALWAYS);
+        Files.writeString(target.toPath(), "old");
+
+        // Act
+        writer.replace(target.toPath(), out -> out.write("new".getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals("new", Files.readString(target.toPath()));
+        assertFalse(temp.exists());
+    }
+
+    @Test
+    @DisplayName("Should keep the previous content when a save fails midway")
+    void shouldKeepPreviousContentOnFailure() throws Exception {
+        // Arrange
+        DurableFileWriter writer = new DurableFileWriter(DurabilityPolicy.NONE);
+        Files.writeString(target.toPath(), "old");
+
+        // Act
+        assertThrows(IOException.class, () -> writer.replace(target.toPath(), out -> {
+            out.write("partial".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("disk full");
+        }));
+
+        // Assert
+        assertEquals("old", Files.readString(target.toPath()));
+        assertFalse(temp.exists());
+    }
+
+    @Test
+    @DisplayName("Should coalesce group commit syncs and run them on close")
+    void shouldCoalesceGroupCommitSyncs() throws Exception {
+        // Arrange
+        DurableFileWriter writer = new DurableFileWriter(DurabilityPolicy.group(60_000));
+        AtomicInteger syncs = new AtomicInteger();
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            writer.synced(target.toPath(), syncs::incrementAndGet);
+        }
+        int beforeClose = syncs.get();
+        writer.close();
+
+        // Assert
+        assertEquals(0, beforeClose);
+        assertEquals(1, syncs.get());
+    }
+
+    @Test
+    @DisplayName("Should parse fsync policies from the command line")
+    void shouldParsePolicies() {
+        // Act & Assert
+        assertEquals(DurabilityPolicy.ALWAYS, DurabilityPolicy.parse("always"));
+        assertEquals(DurabilityPolicy.NONE, DurabilityPolicy.parse("none"));
+        assertEquals(DurabilityPolicy.group(50), DurabilityPolicy.parse("group"));
+        assertEquals(DurabilityPolicy.group(10), DurabilityPolicy.parse("group:10"));
+        assertThrows(IllegalArgumentException.class, () -> DurabilityPolicy.parse("group:-1"));
+    }
+}
@@ -0,0 +1,146 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("Format Converter Tests")
+class FormatConverterTest {
+
+    private final List<File> files = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private String tempFile(String name) {
+        files.add(new File(name));
+        return name;
+    }
+
+    @Test
+    @DisplayName("Should convert JSON to CSV and every other format without losing games")
+    void shouldConvertBetweenFormats() throws Exception {
+        // Arrange
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            games.add(new BoardGame("Game " + i, 1 + i % 4, 4 + i % 8, "category" + i % 7));
+        }
+        games.add(new BoardGame("The \"Mind\", Extreme", 2, 4, "Party, Cards"));
+        games.add(new BoardGame("Château\r\nCombo 🎲", 2, 4, "日本語"));
+        String json = tempFile("test-convert-temp.json");
+        new JsonGameRepository(json).save(games);
+        StorageOptions options = StorageOptions.defaults();
+
+        // Act
+        FormatConverter.Result toCsv = FormatConverter.convert(json, tempFile("test-convert-temp.csv"), options);
+        FormatConverter.convert("test-convert-temp.csv", tempFile("test-convert-temp.bgc"), options);
+        FormatConverter.convert("test-convert-temp.bgc", tempFile("test-convert-temp.json.gz"), options);
+        FormatConverter.convert("test-convert-temp.json.gz", tempFile("test-convert-temp.csv.lz4"), options);
+        FormatConverter.Result back = FormatConverter.convert("test-convert-temp.csv.lz4", tempFile("test-convert-temp-back.json"), options);
+
+        // Assert
+        assertEquals(games.size(), toCsv.games());
+        assertEquals(games.size(), back.games());
+        assertEquals(games, new CsvGameRepository("test-convert-temp.csv").load());
+        assertEquals(games, new JsonGameRepository("test-convert-temp-back.json").load());
+    }
+
+    @Test
+    @DisplayName("Should apply storage options to the output only and leave the input untouched")
+    void shouldLeaveInputUntouched() throws Exception {
+        // Arrange
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            games.add(new BoardGame("Game " + i, 1 + i % 4, 4 + i % 8, "category" + i % 7));
+        }
+        String json = tempFile("test-convert-temp.json");
+        new JsonGameRepository(json).save(games);
+        byte[] before = Files.readAllBytes(new File(json).toPath());
+        StorageOptions options = StorageOptions.fromFlags(List.of("--shards=4", "--journal"));
+        String csv = tempFile("test-convert-temp.csv");
+        for (int i = 0; i < 4; i++) {
+            tempFile(RepositoryFactory.shardPath(json, i));
+            tempFile(RepositoryFactory.shardPath(csv, i));
+            tempFile(RepositoryFactory.shardPath(csv, i) + ".journal");
+        }
+        tempFile(ShardedGameRepository.manifestPath(json));
+        tempFile(ShardedGameRepository.manifestPath(csv));
+        tempFile(json + ".journal");
+
+        // Act
+        FormatConverter.Result result = FormatConverter.convert(json, csv, options);
+
+        // Assert
+        assertEquals(games.size(), result.games());
+        assertArrayEquals(before, Files.readAllBytes(new File(json).toPath()));
+        assertFalse(new File(json + ".journal").exists());
+        assertFalse(new File(ShardedGameRepository.manifestPath(json)).exists());
+        assertFalse(new File(RepositoryFactory.shardPath(json, 0)).exists());
+        assertEquals(games.size(), RepositoryFactory.create(csv, options).load().size());
+    }
+
+    @Test
+    @DisplayName("Should read a sharded input through its manifest without merging its shards")
+    void shouldReadShardedInputAsIs() throws Exception {
+        // Arrange
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            games.add(new BoardGame("Game " + i, 1 + i % 4, 4 + i % 8, "category" + i % 7));
+        }
+        String json = tempFile("test-convert-temp.json");
+        RepositoryFactory.create(json, StorageOptions.fromFlags(List.of("--shards=4"))).save(games);
+        List<byte[]> before = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            before.add(Files.readAllBytes(new File(tempFile(RepositoryFactory.shardPath(json, i))).toPath()));
+        }
+        tempFile(ShardedGameRepository.manifestPath(json));
+
+        // Act
+        FormatConverter.Result result = FormatConverter.convert(json, tempFile("test-convert-temp.csv"),
+                StorageOptions.defaults());
+
+        // Assert
+        assertEquals(games.size(), result.games());
+        for (int i = 0; i < 4; i++) {
+            assertArrayEquals(before.get(i), Files.readAllBytes(new File(RepositoryFactory.shardPath(json, i)).toPath()));
+        }
+        assertTrue(new File(ShardedGameRepository.manifestPath(json)).exists());
+        assertFalse(new File(json).exists());
+        assertEquals(new HashSet<>(games), new HashSet<>(new CsvGameRepository("test-convert-temp.csv").load()));
+    }
+
+    @Test
+    @DisplayName("Should write the same CSV text as the original formatter")
+    void shouldWriteRfc4180Csv() throws Exception {
+        // Arrange
+        String csv = tempFile("test-convert-temp.csv");
+        List<BoardGame> games = List.of(
+                new BoardGame("Catan", 3, 4, "Family"),
+                new BoardGame("The \"Mind\"", 2, 4, "Party, Cards"),
+                new BoardGame("Line\nBreak", 1, 12, "Château"));
+
+        // Act
+        new CsvGameRepository(csv).saveFrom(games::forEach);
+
+        // Assert
+        String separator = System.lineSeparator();
+        assertEquals("title,minPlayers,maxPlayers,category" + separator
+                        + "Catan,3,4,Family" + separator
+                        + "\"The \"\"Mind\"\"\",2,4,\"Party, Cards\"" + separator
+                        + "\"Line\nBreak\",1,12,Château" + separator,
+                Files.readString(new File(csv).toPath(), StandardCharsets.UTF_8));
+    }
+}
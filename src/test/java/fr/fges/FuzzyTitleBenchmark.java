@@ -0,0 +1,83 @@
+package fr.fges;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Suggestions de titres proches : index des segments contre calcul de distance sur tous les titres.
+ * Lancement : make bench BENCH=FuzzyTitleBenchmark ARGS="<titres> <recherches>"
+ */
+public class FuzzyTitleBenchmark {
+    private static final String CONSONANTS = "bcdfghjklmnprstvwz";
+    private static final String VOWELS = "aeiouy";
+
+    public static void main(String[] args) {
+        int titleCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Random random = new Random(42);
+        List<String> titles = new ArrayList<>(titleCount);
+        for (int i = 0; i < titleCount; i++) {
+            titles.add(BoardGame.normalizeTitle(randomTitle(random)));
+        }
+
+        long start = System.nanoTime();
+        FuzzyTitleIndex index = new FuzzyTitleIndex();
+        titles.forEach(index::add);
+        System.out.printf("Built index over %d titles in %.0f ms%n", titleCount, (System.nanoTime() - start) / 1_000_000.0);
+
+        // Fautes de frappe : une lettre remplacée dans un titre existant
+        List<String> queries = new ArrayList<>(lookups);
+        for (int i = 0; i < lookups; i++) {
+            char[] title = titles.get(random.nextInt(titleCount)).toCharArray();
+            title[random.nextInt(title.length)] = 'x';
+            queries.add(new String(title));
+        }
+        for (String query : queries) {
+            index.search(query, FuzzyTitleIndex.tolerance(query), 3); // chauffe du JIT
+        }
+        int found = 0;
+        long[] times = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            String query = queries.get(i);
+            start = System.nanoTime();
+            found += index.search(query, FuzzyTitleIndex.tolerance(query), 3).size();
+            times[i] = System.nanoTime() - start;
+        }
+        double mean = Arrays.stream(times).average().orElse(0) / 1_000_000.0;
+        Arrays.sort(times);
+        double median = times[lookups / 2] / 1_000_000.0;
+
+        int scanned = Math.max(1, lookups / 20);
+        start = System.nanoTime();
+        for (String query : queries.subList(0, scanned)) {
+            for (String title : titles) {
+                FuzzyTitleIndex.distance(query, title, 2);
+            }
+        }
+        double scan = (System.nanoTime() - start) / 1_000_000.0 / scanned;
+        System.out.printf("Index %.3f ms/lookup (median %.3f ms, %d suggestions), full scan %.1f ms/lookup%n",
+                mean, median, found, scan);
+    }
+
+    private static String randomTitle(Random random) {
+        StringBuilder title = new StringBuilder();
+        int words = 1 + random.nextInt(3);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                title.append(' ');
+            }
+            // Mots faits de syllabes consonne-voyelle, parfois fermées par une consonne
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                title.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+                title.append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+                if (random.nextInt(4) == 0) {
+                    title.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+                }
+            }
+        }
+        return title.toString();
+    }
+}
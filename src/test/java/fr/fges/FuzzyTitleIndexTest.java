@@ -0,0 +1,93 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("Fuzzy Title Index Tests")
+class FuzzyTitleIndexTest {
+
+    private final File tempFile = new File("test-fuzzy-temp.csv");
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 1 + random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            word.append("abcde ".charAt(random.nextInt(6)));
+        }
+        return word.toString();
+    }
+
+    @Test
+    @DisplayName("Should find exactly the titles a full edit-distance scan finds")
+    void shouldMatchFullScan() {
+        // Arrange
+        Random random = new Random(3);
+        FuzzyTitleIndex index = new FuzzyTitleIndex();
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < 3_000; i++) {
+            String title = randomWord(random);
+            if (!titles.contains(title)) {
+                titles.add(title);
+                index.add(title);
+            }
+        }
+        // Les retraits dépassent le seuil de reconstruction de l'index
+        for (int i = 0; i < 1_500 && !titles.isEmpty(); i++) {
+            index.remove(titles.remove(random.nextInt(titles.size())));
+        }
+
+        // Act & Assert
+        for (int i = 0; i < 300; i++) {
+            String query = randomWord(random);
+            for (int tolerance = 1; tolerance <= 2; tolerance++) {
+                int limit = tolerance;
+                List<FuzzyTitleIndex.Match> expected = titles.stream()
+                        .map(title -> new FuzzyTitleIndex.Match(title, FuzzyTitleIndex.distance(query, title, limit)))
+                        .filter(match -> match.distance() <= limit)
+                        .sorted(Comparator.comparingInt(FuzzyTitleIndex.Match::distance)
+                                .thenComparing(FuzzyTitleIndex.Match::title))
+                        .toList();
+                assertEquals(expected, index.search(query, tolerance, Integer.MAX_VALUE), query);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should suggest near titles from memory and in streaming mode")
+    void shouldSuggestSimilarTitles() throws Exception {
+        // Arrange
+        List<BoardGame> games = List.of(
+                new BoardGame("Carcassonne", 2, 5, "Family"),
+                new BoardGame("Catan", 3, 4, "Family"),
+                new BoardGame("Caylus", 2, 5, "Strategy"),
+                new BoardGame("Pandemic", 2, 4, "Cooperative"));
+        new CsvGameRepository(tempFile.getPath()).save(games);
+        GameCollection resident = new GameCollection(tempFile.getPath());
+        resident.loadFromFile();
+        GameCollection streaming = new GameCollection(tempFile.getPath(), StorageOptions.fromFlags(List.of("--streaming")));
+
+        // Act
+        resident.removeGame(new BoardGame("Caylus", 2, 5, "Strategy"));
+
+        // Assert
+        assertEquals(List.of("Catan"), resident.similarTitles("catna", 3));
+        assertEquals(List.of("Carcassonne"), resident.similarTitles("Carcasone", 3));
+        assertTrue(resident.similarTitles("Caylus", 3).isEmpty());
+        assertTrue(resident.similarTitles("Catan", 3).isEmpty());
+        assertEquals(List.of("Pandemic"), streaming.similarTitles("pandemik", 3));
+    }
+}
@@ -6,7 +6,13 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -328,4 +334,307 @@ class GameCollectionTest {
         assertTrue(games.contains(catan));
         assertTrue(games.contains(pandemic));
     }
+
+    @Test
+    @DisplayName("Should keep title lookups in sync with adds, removes and reloads")
+    void shouldKeepTitleIndexInSync() {
+        // Arrange
+        BoardGame catan = new BoardGame("Catan", 3, 4, "Family");
+        BoardGame lowerCatan = new BoardGame("catan ", 2, 4, "Family");
+        collection.addGame(catan);
+        collection.addGame(lowerCatan);
+        collection.addGame(new BoardGame("Chess", 2, 2, "Strategy"));
+
+        // Act
+        collection.removeGame(catan);
+        GameCollection reloaded = new GameCollection(tempFile.getPath());
+        reloaded.loadFromFile();
+
+        // Assert
+        assertEquals(List.of(lowerCatan), collection.findByTitle("CATAN"));
+        assertTrue(collection.containsTitle(" Chess"));
+        assertFalse(collection.containsTitle("Azul"));
+        assertEquals(List.of(lowerCatan), reloaded.findByTitle("Catan"));
+        reloaded.removeGame(lowerCatan);
+        assertFalse(reloaded.containsTitle("catan"));
+    }
+
+    @Test
+    @DisplayName("Should answer player-count queries from buckets kept in sync with mutations")
+    void shouldKeepPlayerBucketsInSync() {
+        // Arrange
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        BoardGame catan = new BoardGame("Catan", 3, 4, "Family");
+        BoardGame party = new BoardGame("Werewolf", 8, 40, "Party");
+        collection.addGame(chess);
+        collection.addGame(catan);
+        collection.addGame(party);
+        collection.addGame(new BoardGame("Pandemic", 2, 4, "Cooperative"));
+
+        // Act
+        collection.removeGame(new BoardGame("Pandemic", 2, 4, "Cooperative"));
+
+        // Assert
+        assertEquals(List.of(chess), collection.gamesForPlayers(2));
+        assertEquals(List.of(catan), collection.gamesForPlayers(4));
+        assertEquals(List.of(party), collection.gamesForPlayers(30));
+        assertEquals(List.of(party), collection.gamesForPlayers(35));
+        assertTrue(collection.gamesForPlayers(0).isEmpty());
+        assertEquals(catan, collection.randomGameForPlayers(3, new Random()));
+        assertNull(collection.randomGameForPlayers(5, new Random()));
+    }
+
+    @Test
+    @DisplayName("Should only draw remaining games after removals from a player bucket")
+    void shouldDrawRemainingGamesAfterRemovals() {
+        // Arrange
+        List<BoardGame> kept = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            BoardGame game = collection.addGame(new BoardGame("Game " + i, 2, 4, "Family"));
+            if (i % 2 == 0) {
+                kept.add(game);
+            } else {
+                collection.removeGame(game);
+            }
+        }
+        Random random = new Random(42);
+        Set<BoardGame> drawn = new HashSet<>();
+
+        // Act
+        for (int i = 0; i < 500; i++) {
+            drawn.add(collection.randomGameForPlayers(3, random));
+        }
+
+        // Assert
+        assertEquals(new HashSet<>(kept), drawn);
+        assertEquals(kept, collection.gamesForPlayers(3));
+    }
+
+    @Test
+    @DisplayName("Should intern categories and keep category counts up to date")
+    void shouldIndexCategories() {
+        // Arrange
+        BoardGame chess = new BoardGame("Chess", 2, 2, new String("Strategy"));
+        BoardGame risk = new BoardGame("Risk", 2, 6, new String("Strategy"));
+        BoardGame catan = new BoardGame("Catan", 3, 4, "Family");
+        collection.addGame(chess);
+        collection.addGame(risk);
+        collection.addGame(catan);
+
+        // Act
+        collection.removeGame(catan);
+
+        // Assert
+        List<BoardGame> strategy = collection.gamesInCategory("Strategy");
+        assertEquals(List.of(chess, risk), strategy);
+        assertSame(strategy.get(0).category(), strategy.get(1).category());
+        assertEquals(Map.of("Strategy", 2), collection.categoryCounts());
+        assertTrue(collection.gamesInCategory("Family").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should page through titles sharing a prefix in title order")
+    void shouldFindTitlesByPrefix() {
+        // Arrange
+        BoardGame catan = new BoardGame("Catan", 3, 4, "Family");
+        BoardGame carcassonne = new BoardGame("Carcassonne", 2, 5, "Family");
+        BoardGame cascadia = new BoardGame("Cascadia", 1, 4, "Family");
+        collection.addGame(catan);
+        collection.addGame(new BoardGame("Chess", 2, 2, "Strategy"));
+        collection.addGame(cascadia);
+        collection.addGame(carcassonne);
+
+        // Act
+        List<BoardGame> firstPage = collection.gamesWithTitlePrefix("CA", null, 2);
+        List<BoardGame> nextPage = collection.gamesWithTitlePrefix("ca", "Cascadia", 2);
+        collection.removeGame(cascadia);
+
+        // Assert
+        assertEquals(List.of(carcassonne, cascadia), firstPage);
+        assertEquals(List.of(catan), nextPage);
+        assertEquals(List.of(carcassonne, catan), collection.gamesWithTitlePrefix("ca", null, 5));
+        assertTrue(collection.gamesWithTitlePrefix("z", null, 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep sorted views by title, category and players up to date")
+    void shouldMaintainSortedViews() {
+        // Arrange
+        BoardGame banana = new BoardGame("banana", 2, 6, "Party");
+        BoardGame apple = new BoardGame("Apple", 3, 4, "Family");
+        BoardGame eclipse = new BoardGame("Éclipse", 2, 6, "Strategy");
+        BoardGame dune = new BoardGame("Dune", 2, 4, "Strategy");
+        collection.addGame(banana);
+        collection.addGame(apple);
+        collection.addGame(eclipse);
+        collection.addGame(dune);
+        collection.addGame(dune);
+
+        // Act
+        collection.removeGame(dune);
+        collection.removeGame(banana);
+        collection.addGame(new BoardGame("Azul", 2, 4, "Abstract"));
+
+        // Assert
+        List<String> byTitle = new ArrayList<>();
+        collection.sortedGames(GameOrder.TITLE).forEach(game -> byTitle.add(game.title()));
+        List<String> byCategory = new ArrayList<>();
+        collection.sortedGames(GameOrder.CATEGORY).forEach(game -> byCategory.add(game.title()));
+        List<String> byPlayers = new ArrayList<>();
+        collection.sortedGames(GameOrder.PLAYERS).forEach(game -> byPlayers.add(game.title()));
+        assertEquals(List.of("Apple", "Azul", "Dune", "Éclipse"), byTitle);
+        assertEquals(List.of("Azul", "Apple", "Dune", "Éclipse"), byCategory);
+        assertEquals(List.of("Azul", "Dune", "Éclipse", "Apple"), byPlayers);
+        collection.addGame(new BoardGame("brass", 2, 4, "Strategy"));
+        collection.removeGame(apple);
+        List<String> updated = new ArrayList<>();
+        collection.sortedGames(GameOrder.TITLE).forEach(game -> updated.add(game.title()));
+        assertEquals(List.of("Azul", "brass", "Dune", "Éclipse"), updated);
+    }
+
+    @Test
+    @DisplayName("Should give each game a stable id persisted in JSON and CSV")
+    void shouldPersistStableIds() {
+        for (String name : List.of("test-collection-ids.json", "test-collection-ids.csv")) {
+            // Arrange
+            File file = new File(name);
+            GameCollection first = new GameCollection(name);
+            BoardGame chess = first.addGame(new BoardGame("Chess", 2, 2, "Strategy"));
+            BoardGame catan = first.addGame(new BoardGame("Catan", 3, 4, "Family"));
+            first.removeGame(chess);
+
+            // Act
+            GameCollection reopened = new GameCollection(name);
+            reopened.loadFromFile();
+            BoardGame azul = reopened.addGame(new BoardGame("Azul", 2, 4, "Abstract"));
+
+            // Assert
+            assertNotEquals(chess.id(), catan.id(), name);
+            assertEquals(List.of(catan.id(), azul.id()), reopened.getGames().stream().map(BoardGame::id).toList(), name);
+            assertTrue(azul.id() > catan.id(), name);
+            assertEquals(catan, reopened.findById(catan.id()), name);
+            assertNull(reopened.findById(chess.id()), name);
+            file.delete();
+        }
+    }
+
+    @Test
+    @DisplayName("Should remove the exact duplicate by id and restore it with the same id on undo")
+    void shouldRemoveAndUndoById() {
+        // Arrange
+        undo.UndoManager undoManager = new undo.UndoManager();
+        BoardGame first = collection.addGame(new BoardGame("Dune", 2, 4, "Strategy"));
+        BoardGame second = collection.addGame(new BoardGame("Dune", 2, 4, "Strategy"));
+        BoardGame azul = collection.addGame(new BoardGame("Azul", 2, 4, "Abstract"));
+        // Vues triées et bitmaps construites avant le retrait, pour qu'il les mette à jour
+        collection.sortedGames(GameOrder.TITLE);
+        collection.filter(GameFilter.category("Strategy"));
+
+        // Act
+        collection.removeGame(second);
+        undoManager.recordAction(new undo.UndoableAction(undo.UndoableAction.ActionType.REMOVE, second));
+        List<Long> afterRemove = collection.getGames().stream().map(BoardGame::id).toList();
+        List<Long> inCategory = ids(collection.gamesInCategory("Strategy"));
+        List<Long> inRange = ids(collection.gamesForPlayerRange(2, 4));
+        List<Long> forPlayers = ids(collection.gamesForPlayers(3));
+        List<Long> filtered = ids(collection.filter(GameFilter.titleStartsWith("du")));
+        List<Long> byTitle = new ArrayList<>();
+        collection.sortedGames(GameOrder.TITLE).forEach(game -> byTitle.add(game.id()));
+        BoardGame removed = collection.findById(second.id());
+        new undo.UndoService(collection, undoManager).execute();
+
+        // Assert
+        assertEquals(first.id(), afterRemove.get(0));
+        assertEquals(2, afterRemove.size());
+        assertNull(removed);
+        assertEquals(List.of(first.id()), inCategory);
+        assertEquals(List.of(first.id()), filtered);
+        assertEquals(List.of(first.id(), azul.id()), forPlayers);
+        assertEquals(Set.of(first.id(), azul.id()), Set.copyOf(inRange));
+        assertEquals(List.of(azul.id(), first.id()), byTitle);
+        assertEquals(second, collection.findById(second.id()));
+        collection.removeGame(new BoardGame("Dune", 2, 4, "Strategy"));
+        assertNull(collection.findById(first.id()));
+        assertEquals(1, collection.findByTitle("dune").size());
+        assertEquals(second.id(), collection.findByTitle("dune").get(0).id());
+    }
+
+    private static List<Long> ids(List<BoardGame> games) {
+        return games.stream().map(BoardGame::id).toList();
+    }
+
+    @Test
+    @DisplayName("Should read games from storage in streaming mode")
+    void shouldReadGamesFromStorageInStreamingMode() throws Exception {
+        // Arrange
+        File csvFile = new File("test-collection-streaming.csv");
+        new CsvGameRepository(csvFile.getPath()).save(List.of(
+                new BoardGame("Chess", 2, 2, "Strategy"),
+                new BoardGame("Catan", 3, 4, "Family")));
+        GameCollection streaming = new GameCollection(csvFile.getPath(), StorageOptions.fromFlags(List.of("--streaming")));
+
+        // Act
+        streaming.loadFromFile();
+        List<BoardGame> forTwo = new gamesForXPlayers(streaming).getGamesForXPlayers(2);
+        streaming.addGame(new BoardGame("Pandemic", 2, 4, "Cooperative"));
+        List<String> titles = new ArrayList<>();
+        streaming.forEachGame(game -> titles.add(game.title()));
+
+        // Assert
+        assertEquals(List.of(new BoardGame("Chess", 2, 2, "Strategy")), forTwo);
+        assertEquals(List.of("Chess", "Catan", "Pandemic"), titles);
+
+        // Cleanup
+        csvFile.delete();
+    }
+
+    @Test
+    @DisplayName("Should make commands wait for a background load")
+    void shouldWaitForBackgroundLoad() throws Exception {
+        // Arrange
+        new JsonGameRepository(tempFile.getPath()).save(List.of(
+                new BoardGame("Chess", 2, 2, "Strategy"),
+                new BoardGame("Catan", 3, 4, "Family")));
+        GameCollection background = new GameCollection(tempFile.getPath());
+
+        // Act
+        CompletableFuture<Integer> loaded = background.loadInBackground();
+        background.addGame(new BoardGame("Pandemic", 2, 4, "Cooperative"));
+
+        // Assert
+        assertEquals(2, loaded.join());
+        assertEquals(3, background.getGames().size());
+        assertTrue(background.containsTitle("catan"));
+    }
+
+    @Test
+    @DisplayName("Should merge games written by another program when watching the file")
+    void shouldMergeExternalChangesWhenWatching() throws Exception {
+        // Arrange
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        BoardGame catan = new BoardGame("Catan", 3, 4, "Family");
+        BoardGame azul = new BoardGame("Azul", 2, 4, "Abstract");
+        new JsonGameRepository(tempFile.getPath()).save(List.of(chess, catan));
+        GameCollection watched = new GameCollection(tempFile.getPath(), StorageOptions.fromFlags(List.of("--watch")));
+        watched.loadFromFile();
+
+        // Act : un autre programme remplace Chess par Azul, puis l'application ajoute un jeu
+        new JsonGameRepository(tempFile.getPath()).save(List.of(catan, azul));
+        BoardGame pandemic = new BoardGame("Pandemic", 2, 4, "Cooperative");
+        watched.addGame(pandemic);
+        watched.close();
+
+        // Assert
+        assertEquals(List.of(catan, azul, pandemic), watched.getGames());
+        assertEquals(List.of(catan, azul, pandemic), new JsonGameRepository(tempFile.getPath()).load());
+    }
+
+    @Test
+    @DisplayName("Should reject --watch with options that delay or split writes")
+    void shouldRejectIncompatibleWatchOptions() {
+        assertThrows(IllegalArgumentException.class,
+                () -> StorageOptions.fromFlags(List.of("--watch", "--write-behind")));
+        assertThrows(IllegalArgumentException.class,
+                () -> StorageOptions.fromFlags(List.of("--watch", "--journal")));
+    }
 }
@@ -0,0 +1,177 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("Journaled Repository Tests")
+class JournaledGameRepositoryTest {
+
+    private File dataFile;
+    private File journalFile;
+
+    @BeforeEach
+    void setUp() {
+        dataFile = new File("test-journal-temp.json");
+        journalFile = new File("test-journal-temp.json.journal");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataFile.delete();
+        journalFile.delete();
+    }
+
+    private JournaledGameRepository newRepository(int compactionThreshold) {
+        return new JournaledGameRepository(new JsonGameRepository(dataFile.getPath()), dataFile.getPath(), compactionThreshold);
+    }
+
+    @Test
+    @DisplayName("Should append mutations to the journal without rewriting the snapshot")
+    void shouldAppendWithoutRewritingSnapshot() throws Exception {
+        // Arrange
+        BoardGame pandemic = new BoardGame("Pandemic", 2, 4, "Cooperative");
+        new JsonGameRepository(dataFile.getPath()).save(List.of(pandemic));
+        long snapshotSize = dataFile.length();
+        GameCollection collection = new GameCollection(dataFile.getPath(), StorageOptions.fromFlags(List.of("--journal")));
+        collection.loadFromFile();
+
+        // Act
+        collection.addGame(new BoardGame("Chess", 2, 2, "Strategy"));
+        collection.addGame(new BoardGame("Catan", 3, 4, "Family"));
+        collection.removeGame(new BoardGame("Chess", 2, 2, "Strategy"));
+
+        // Assert
+        assertEquals(snapshotSize, dataFile.length());
+        List<String> lines = Files.readAllLines(journalFile.toPath());
+        assertEquals(4, lines.size());
+        assertEquals(List.of(pandemic, new BoardGame("Catan", 3, 4, "Family")), newRepository(100).load());
+    }
+
+    @Test
+    @DisplayName("Should compact the journal into the snapshot after the threshold")
+    void shouldCompactAfterThreshold() throws Exception {
+        // Arrange
+        JournaledGameRepository repository = newRepository(2);
+        List<BoardGame> games = new ArrayList<>(repository.load());
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            BoardGame game = new BoardGame("Game" + i, 2, 4, "Family");
+            games.add(game);
+            repository.onGameAdded(game, games);
+        }
+
+        // Assert
+        assertTrue(Files.readAllLines(journalFile.toPath()).size() <= 3);
+        assertEquals(games, newRepository(2).load());
+        assertTrue(new JsonGameRepository(dataFile.getPath()).load().size() >= 2);
+    }
+
+    @Test
+    @DisplayName("Should ignore a stale journal when the snapshot changed")
+    void shouldIgnoreStaleJournal() throws Exception {
+        // Arrange
+        JournaledGameRepository repository = newRepository(100);
+        List<BoardGame> games = new ArrayList<>(repository.load());
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        games.add(chess);
+        repository.onGameAdded(chess, games);
+
+        // Act - another writer replaces the snapshot
+        new JsonGameRepository(dataFile.getPath()).save(List.of(new BoardGame("Catan", 3, 4, "Family")));
+
+        // Assert
+        assertEquals(List.of(new BoardGame("Catan", 3, 4, "Family")), newRepository(100).load());
+    }
+
+    @Test
+    @DisplayName("Should skip a truncated last journal entry")
+    void shouldSkipTruncatedLastEntry() throws Exception {
+        // Arrange
+        JournaledGameRepository repository = newRepository(100);
+        List<BoardGame> games = new ArrayList<>(repository.load());
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        games.add(chess);
+        repository.onGameAdded(chess, games);
+
+        // Act
+        Files.writeString(journalFile.toPath(), "+ {\"title\":\"Cat", StandardOpenOption.APPEND);
+
+        // Assert
+        assertEquals(List.of(chess), newRepository(100).load());
+    }
+
+    @Test
+    @DisplayName("Should keep entries appended after a truncated last entry")
+    void shouldAppendAfterTruncatedEntry() throws Exception {
+        // Arrange
+        JournaledGameRepository repository = newRepository(100);
+        List<BoardGame> games = new ArrayList<>(repository.load());
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        games.add(chess);
+        repository.onGameAdded(chess, games);
+        Files.writeString(journalFile.toPath(), "+ {\"title\":\"Cat", StandardOpenOption.APPEND);
+
+        // Act
+        JournaledGameRepository reopened = newRepository(100);
+        List<BoardGame> reloaded = new ArrayList<>(reopened.load());
+        BoardGame catan = new BoardGame("Catan", 3, 4, "Family");
+        reloaded.add(catan);
+        reopened.onGameAdded(catan, reloaded);
+
+        // Assert
+        assertEquals(List.of(chess, catan), newRepository(100).load());
+    }
+
+    @Test
+    @DisplayName("Should refuse to load a journal with a corrupt entry followed by valid ones")
+    void shouldFailOnCorruptMiddleEntry() throws Exception {
+        // Arrange
+        JournaledGameRepository repository = newRepository(100);
+        List<BoardGame> games = new ArrayList<>(repository.load());
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        games.add(chess);
+        repository.onGameAdded(chess, games);
+        Files.writeString(journalFile.toPath(), "+ {\"title\":\"Cat" + System.lineSeparator(), StandardOpenOption.APPEND);
+        BoardGame catan = new BoardGame("Catan", 3, 4, "Family");
+        games.add(catan);
+        repository.onGameAdded(catan, games);
+        byte[] journal = Files.readAllBytes(journalFile.toPath());
+
+        // Act
+        Exception error = assertThrows(Exception.class, () -> newRepository(100).load());
+
+        // Assert
+        assertTrue(error.getMessage().contains("line 3"), error.getMessage());
+        assertArrayEquals(journal, Files.readAllBytes(journalFile.toPath()));
+    }
+
+    @Test
+    @DisplayName("Should drop a complete but corrupt last journal entry")
+    void shouldDropCorruptLastEntry() throws Exception {
+        // Arrange
+        JournaledGameRepository repository = newRepository(100);
+        List<BoardGame> games = new ArrayList<>(repository.load());
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        games.add(chess);
+        repository.onGameAdded(chess, games);
+        Files.writeString(journalFile.toPath(), "+ {\"title\":\"Cat" + System.lineSeparator(), StandardOpenOption.APPEND);
+
+        // Act
+        List<BoardGame> loaded = newRepository(100).load();
+
+        // Assert
+        assertEquals(List.of(chess), loaded);
+        assertEquals(2, Files.readAllLines(journalFile.toPath()).size());
+    }
+}
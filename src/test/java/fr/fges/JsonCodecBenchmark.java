@@ -0,0 +1,76 @@
+package fr.fges;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compare l'ancien chemin databind au codec streaming sur une collection de 1M jeux.
+ * Lancement : make bench BENCH=JsonCodecBenchmark
+ */
+public class JsonCodecBenchmark {
+    private static final int GAMES = 1_000_000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : GAMES;
+        List<BoardGame> games = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            games.add(new BoardGame("Game " + i, 1 + i % 4, 4 + i % 8, "category" + i % 20));
+        }
+        File file = File.createTempFile("json-bench", ".json");
+        file.deleteOnExit();
+
+        JsonGameCodec pretty = new JsonGameCodec(true);
+        JsonGameCodec compact = new JsonGameCodec(false);
+
+        System.out.println("Collection size: " + count + " games");
+        measure("databind save (pretty)", () -> {
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, games);
+        });
+        measure("databind load", () -> {
+            new ObjectMapper().readValue(file, new TypeReference<List<BoardGame>>() {});
+        });
+        measure("streaming save (pretty)", () -> {
+            try (OutputStream out = Files.newOutputStream(file.toPath())) {
+                pretty.write(games, out);
+            }
+        });
+        measure("streaming load (pretty file)", () -> {
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                pretty.read(in);
+            }
+        });
+        measure("streaming save (compact)", () -> {
+            try (OutputStream out = Files.newOutputStream(file.toPath())) {
+                compact.write(games, out);
+            }
+        });
+        measure("streaming load (compact file)", () -> {
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                compact.read(in);
+            }
+        });
+    }
+
+    interface Task {
+        void run() throws Exception;
+    }
+
+    static void measure(String name, Task task) throws Exception {
+        task.run(); // préchauffage
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-32s %8.1f ms%n", name, best / 1_000_000.0);
+    }
+}
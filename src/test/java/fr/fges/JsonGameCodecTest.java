@@ -0,0 +1,68 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+@DisplayName("JSON Codec Tests")
+class JsonGameCodecTest {
+
+    private final List<BoardGame> games = List.of(
+            new BoardGame("Catan", 3, 4, "Family"),
+            new BoardGame("Ticket to Ride: \"Europe\"", 2, 5, "Adventure"),
+            new BoardGame("Château", 1, 1, "Solo")
+    );
+
+    @Test
+    @DisplayName("Should write the same pretty output as the databind mapper")
+    void shouldMatchDatabindPrettyOutput() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        new JsonGameCodec(true).write(games, out);
+
+        // Assert
+        String expected = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(games);
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should round-trip games in compact mode")
+    void shouldRoundTripCompact() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonGameCodec codec = new JsonGameCodec(false);
+
+        // Act
+        codec.write(games, out);
+        List<BoardGame> read = codec.read(new ByteArrayInputStream(out.toByteArray()));
+
+        // Assert
+        assertFalse(out.toString(StandardCharsets.UTF_8).contains("\n"));
+        assertEquals(games, read);
+    }
+
+    @Test
+    @DisplayName("Should ignore unknown fields and accept an empty file")
+    void shouldIgnoreUnknownFieldsAndEmptyFile() throws Exception {
+        // Arrange
+        String json = "[{\"title\":\"Chess\",\"extra\":{\"a\":[1,2]},\"minPlayers\":2,\"maxPlayers\":2,\"category\":\"Strategy\"}]";
+        JsonGameCodec codec = new JsonGameCodec(true);
+
+        // Act
+        List<BoardGame> read = codec.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        List<BoardGame> empty = codec.read(new ByteArrayInputStream(new byte[0]));
+
+        // Assert
+        assertEquals(List.of(new BoardGame("Chess", 2, 2, "Strategy")), read);
+        assertTrue(empty.isEmpty());
+    }
+}
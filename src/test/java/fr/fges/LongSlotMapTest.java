@@ -0,0 +1,40 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+@DisplayName("Long Slot Map Tests")
+class LongSlotMapTest {
+
+    @Test
+    @DisplayName("Should agree with a HashMap across random puts and removes")
+    void shouldMatchHashMap() {
+        // Arrange
+        Random random = new Random(9);
+        Map<Long, Integer> expected = new HashMap<>();
+        LongSlotMap map = new LongSlotMap();
+
+        // Act & Assert
+        for (int i = 0; i < 50_000; i++) {
+            // Clés proches les unes des autres, comme des identifiants consécutifs, et quelques grandes
+            long key = random.nextInt(10) == 0 ? 1 + (random.nextLong() >>> 1) : 1 + random.nextInt(4_000);
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? LongSlotMap.ABSENT : removed, map.remove(key));
+            } else {
+                expected.put(key, i);
+                map.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 4_000; key++) {
+            assertEquals(expected.getOrDefault(key, LongSlotMap.ABSENT), map.get(key));
+        }
+    }
+}
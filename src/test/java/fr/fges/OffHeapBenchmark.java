@@ -0,0 +1,79 @@
+package fr.fges;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Pauses du ramasse-miettes selon la taille de la collection, jeux sur le tas contre hors tas,
+ * puis chargement d'un fichier .bgc en objets et index contre copie directe hors tas.
+ * Lancement : make bench BENCH=OffHeapBenchmark ARGS="<jeux> [<jeux> ...]"
+ */
+public class OffHeapBenchmark {
+    private static final int COLLECTIONS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : new int[] {250_000, 1_000_000, 4_000_000};
+        for (int gameCount : sizes) {
+            List<BoardGame> heap = new ArrayList<>();
+            fill(heap, gameCount);
+            double heapPause = fullGcMillis();
+            heap = null;
+            fullGcMillis();
+
+            OffHeapGameStore offHeap = new OffHeapGameStore();
+            fill(offHeap, gameCount);
+            double offHeapPause = fullGcMillis();
+            offHeap.close();
+            System.out.printf("%,10d games: full GC %7.1f ms on heap, %5.1f ms off heap%n",
+                    gameCount, heapPause, offHeapPause);
+        }
+
+        File file = new File("bench-offheap-temp.bgc");
+        try {
+            int gameCount = sizes[sizes.length - 1];
+            List<BoardGame> games = new ArrayList<>();
+            fill(games, gameCount);
+            new BinaryGameRepository(file.getPath()).save(games);
+            games = null;
+            long decoded = loadMillis(file, StorageOptions.defaults());
+            long copied = loadMillis(file, StorageOptions.fromFlags(List.of("--off-heap")));
+            System.out.printf("Load %,d games from .bgc: %d ms into objects and indexes, %d ms copied off heap%n",
+                    gameCount, decoded, copied);
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static long loadMillis(File file, StorageOptions options) {
+        long start = System.nanoTime();
+        GameCollection collection = new GameCollection(file.getPath(), options);
+        collection.loadFromFile();
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        collection.close();
+        return elapsed;
+    }
+
+    private static void fill(List<BoardGame> games, int gameCount) {
+        Random random = new Random(42);
+        for (int i = 0; i < gameCount; i++) {
+            int min = 1 + random.nextInt(4);
+            games.add(new BoardGame("Game " + Integer.toString(random.nextInt(), 36), min, min + random.nextInt(8),
+                    "category" + random.nextInt(20)));
+        }
+    }
+
+    // Durée moyenne d'un ramasse-miettes complet, proportionnelle aux objets vivants à marquer
+    private static double fullGcMillis() {
+        System.gc();
+        long start = System.nanoTime();
+        for (int i = 0; i < COLLECTIONS; i++) {
+            System.gc();
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / COLLECTIONS;
+    }
+}
@@ -0,0 +1,114 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("Off-Heap Game Store Tests")
+class OffHeapGameStoreTest {
+
+    private final File tempFile = new File("test-offheap-temp.bgc");
+
+    @AfterEach
+    void tearDown() {
+        tempFile.delete();
+        new File(tempFile.getPath() + ".tmp").delete();
+    }
+
+    @Test
+    @DisplayName("Should behave like a list of games across growth and compaction")
+    void shouldMatchArrayList() {
+        // Arrange
+        Random random = new Random(5);
+        List<BoardGame> expected = new ArrayList<>();
+        OffHeapGameStore store = new OffHeapGameStore();
+
+        // Act & Assert
+        for (int i = 0; i < 6_000; i++) {
+            int choice = random.nextInt(5);
+            if (!expected.isEmpty() && choice == 0) {
+                BoardGame removed = expected.get(random.nextInt(expected.size()));
+                assertEquals(expected.remove(removed), store.remove(removed));
+            } else if (!expected.isEmpty() && choice == 1) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), store.remove(index));
+            } else {
+                BoardGame added = new BoardGame("Jeu " + random.nextInt(800) + " é".repeat(random.nextInt(3)),
+                        random.nextInt(4), 4 + random.nextInt(200), "catégorie" + random.nextInt(40));
+                expected.add(added);
+                store.add(added);
+            }
+        }
+        assertEquals(expected, store);
+        assertEquals(expected.get(expected.size() / 2), store.get(expected.size() / 2));
+        assertEquals(expected.indexOf(expected.get(10)), store.indexOf(expected.get(10)));
+        store.close();
+        assertThrows(IllegalStateException.class, store::size);
+    }
+
+    @Test
+    @DisplayName("Should map a binary file at load and keep it in sync through the repository")
+    void shouldMapBinaryFile() throws Exception {
+        // Arrange
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            games.add(new BoardGame("Game " + i, 1 + i % 4, 2 + i % 9, "category" + i % 6));
+        }
+        new BinaryGameRepository(tempFile.getPath()).save(games);
+        GameCollection collection = new GameCollection(tempFile.getPath(), StorageOptions.fromFlags(List.of("--off-heap")));
+
+        // Act
+        collection.loadFromFile();
+        BoardGame azul = new BoardGame("Azul", 2, 4, "abstract");
+        collection.addGame(azul);
+        for (int i = 0; i < 300; i++) {
+            collection.removeGame(games.get(i));
+        }
+        List<BoardGame> expected = new ArrayList<>(games.subList(300, 500));
+        expected.add(azul);
+        List<BoardGame> inMemory = new ArrayList<>(collection.getGames());
+        collection.close();
+        GameCollection reopened = new GameCollection(tempFile.getPath());
+        reopened.loadFromFile();
+
+        // Assert
+        assertEquals(expected, inMemory);
+        assertEquals(expected, reopened.getGames());
+        assertThrows(IllegalArgumentException.class,
+                () -> StorageOptions.fromFlags(List.of("--off-heap", "--compact")));
+    }
+
+    @Test
+    @DisplayName("Should free the direct buffers it abandons while growing and when closed")
+    void shouldFreeDirectBuffers() {
+        // Arrange
+        BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .findFirst()
+                .orElseThrow();
+        long before = direct.getMemoryUsed();
+        OffHeapGameStore store = new OffHeapGameStore();
+
+        // Act
+        for (int i = 0; i < 50_000; i++) {
+            store.add(new BoardGame("Game " + i, 2, 4, "category" + i % 10));
+        }
+        long whileOpen = direct.getMemoryUsed() - before;
+        store.close();
+        long afterClose = direct.getMemoryUsed() - before;
+
+        // Assert
+        // La table finale occupe environ 1,5 Mo ; avec les tampons des réécritures précédentes, près du double
+        assertTrue(whileOpen < 2 * 1024 * 1024, "direct memory in use: " + whileOpen);
+        assertTrue(afterClose <= 0, "direct memory left after close: " + afterClose);
+    }
+}
@@ -0,0 +1,83 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+@DisplayName("Player Range Index Tests")
+class PlayerRangeIndexTest {
+
+    private static final Comparator<BoardGame> BY_RANGE = Comparator.comparingInt(BoardGame::minPlayers)
+            .thenComparingInt(BoardGame::maxPlayers)
+            .thenComparing(BoardGame::title);
+
+    private static List<BoardGame> sorted(List<BoardGame> games) {
+        List<BoardGame> copy = new ArrayList<>(games);
+        copy.sort(BY_RANGE);
+        return copy;
+    }
+
+    @Test
+    @DisplayName("Should answer overlap and containment queries like a full scan")
+    void shouldMatchFullScan() {
+        // Arrange
+        Random random = new Random(17);
+        PlayerRangeIndex index = new PlayerRangeIndex();
+        List<BoardGame> expected = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 3_000; i++) {
+            if (!expected.isEmpty() && random.nextInt(3) == 0) {
+                index.remove(expected.remove(random.nextInt(expected.size())));
+            } else {
+                int min = 1 + random.nextInt(12);
+                BoardGame game = new BoardGame("Game " + i, min, min + random.nextInt(25), "category", i + 1);
+                expected.add(game);
+                index.add(game);
+            }
+        }
+
+        // Assert
+        for (int from = 0; from <= 40; from++) {
+            for (int to = from; to <= 40; to += 3) {
+                int a = from;
+                int b = to;
+                assertEquals(sorted(expected.stream().filter(g -> g.minPlayers() <= b && g.maxPlayers() >= a).toList()),
+                        sorted(index.overlapping(a, b)), "overlap " + a + "-" + b);
+                assertEquals(sorted(expected.stream().filter(g -> g.minPlayers() <= a && g.maxPlayers() >= b).toList()),
+                        sorted(index.covering(a, b)), "covering " + a + "-" + b);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve range queries from the collection after adds and removes")
+    void shouldServeRangeQueriesFromCollection() {
+        // Arrange
+        GameCollection collection = new GameCollection("test-range-temp.json");
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        BoardGame catan = new BoardGame("Catan", 3, 4, "Family");
+        BoardGame wonders = new BoardGame("7 Wonders", 3, 7, "Strategy");
+        BoardGame tokyo = new BoardGame("King of Tokyo", 2, 6, "Party");
+        collection.addGame(chess);
+        collection.addGame(catan);
+        collection.addGame(wonders);
+        collection.addGame(tokyo);
+
+        // Act
+        collection.removeGame(catan);
+
+        // Assert
+        assertEquals(List.of(tokyo, wonders), collection.gamesForPlayerRange(4, 6));
+        assertEquals(List.of(chess, tokyo, wonders), collection.gamesOverlappingPlayers(1, 3));
+        assertEquals(List.of(wonders), new gamesForXPlayers(collection).getGamesForPlayerRange(7, 5));
+        new File("test-range-temp.json").delete();
+    }
+}
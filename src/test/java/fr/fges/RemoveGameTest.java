@@ -3,8 +3,11 @@ package fr.fges;
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Scanner;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -327,4 +330,34 @@ class RemoveGameTest {
         assertEquals(1, collection.getGames().size());
         assertFalse(undoManager.hasActions());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should offer paged prefix completions instead of listing a large collection")
+    void shouldOfferPrefixCompletions() {
+        // Arrange
+        for (int i = 0; i < 50; i++) {
+            collection.addGame(new BoardGame(String.format("Game %02d", i), 2, 4, "Family"));
+        }
+        collection.addGame(new BoardGame("Azul", 2, 4, "Abstract"));
+        Scanner scanner = new Scanner(new ByteArrayInputStream("game*\n*\nGame 42\n".getBytes()));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+
+        // Act
+        System.setOut(new PrintStream(output));
+        try {
+            new RemoveGame(collection, scanner, undoManager).execute();
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        // Assert
+        String printed = output.toString();
+        assertFalse(printed.contains("- Azul"));
+        assertTrue(printed.contains("- Game 00"));
+        assertTrue(printed.contains("- Game 39"));
+        assertFalse(printed.contains("- Game 40"));
+        assertFalse(collection.containsTitle("Game 42"));
+        assertEquals(50, collection.getGames().size());
+    }
+}
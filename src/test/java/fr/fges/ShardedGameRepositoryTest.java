@@ -0,0 +1,193 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("Sharded Repository Tests")
+class ShardedGameRepositoryTest {
+
+    private static final int SHARDS = 4;
+
+    // Shard en mémoire qui compte ses sauvegardes
+    private static class CountingRepository implements GameRepository {
+        private List<BoardGame> stored = List.of();
+        private int saveCount;
+
+        @Override
+        public synchronized void save(List<BoardGame> games) {
+            stored = List.copyOf(games);
+            saveCount++;
+        }
+
+        @Override
+        public synchronized List<BoardGame> load() {
+            return stored;
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (int i = 0; i < SHARDS * 2; i++) {
+            new File(RepositoryFactory.shardPath("test-sharded-temp.json", i)).delete();
+        }
+        new File("test-sharded-temp.json").delete();
+        new File(ShardedGameRepository.manifestPath("test-sharded-temp.json")).delete();
+    }
+
+    private static List<BoardGame> sampleGames(int count) {
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            games.add(new BoardGame("Game " + i, 1 + i % 4, 4 + i % 8, "category" + i % 5));
+        }
+        return games;
+    }
+
+    @Test
+    @DisplayName("Should name shard files after the storage file")
+    void shouldNameShardFiles() {
+        assertEquals("games-shard-0.json", RepositoryFactory.shardPath("games.json", 0));
+        assertEquals("data/games-shard-3.csv.gz", RepositoryFactory.shardPath("data/games.csv.gz", 3));
+    }
+
+    @Test
+    @DisplayName("Should save and load a collection spread over shard files")
+    void shouldRoundTripShardFiles() throws Exception {
+        // Arrange
+        StorageOptions options = StorageOptions.fromFlags(List.of("--shards=" + SHARDS));
+        List<BoardGame> games = sampleGames(200);
+
+        // Act
+        RepositoryFactory.create("test-sharded-temp.json", options).save(games);
+        List<BoardGame> loaded = RepositoryFactory.create("test-sharded-temp.json", options).load();
+
+        // Assert
+        assertEquals(new HashSet<>(games), new HashSet<>(loaded));
+        assertEquals(games.size(), loaded.size());
+        for (int i = 0; i < SHARDS; i++) {
+            assertTrue(new File(RepositoryFactory.shardPath("test-sharded-temp.json", i)).exists());
+        }
+    }
+
+    @Test
+    @DisplayName("Should only rewrite the shard of an added or removed game")
+    void shouldRewriteOnlyDirtyShard() throws Exception {
+        // Arrange
+        List<CountingRepository> shards = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            shards.add(new CountingRepository());
+        }
+        ShardedGameRepository repository = new ShardedGameRepository(new ArrayList<>(shards));
+        List<BoardGame> games = new ArrayList<>(sampleGames(100));
+        repository.save(games);
+        BoardGame added = new BoardGame("Azul", 2, 4, "abstract");
+        int target = repository.shardOf(added);
+
+        // Act
+        games.add(added);
+        repository.onGameAdded(added, games);
+        games.remove(added);
+        repository.onGameRemoved(added, games);
+
+        // Assert
+        for (int i = 0; i < SHARDS; i++) {
+            assertEquals(i == target ? 3 : 1, shards.get(i).saveCount, "shard " + i);
+        }
+        assertEquals(new HashSet<>(games), new HashSet<>(repository.load()));
+    }
+
+    @Test
+    @DisplayName("Should move an unsharded collection into shards when sharding is turned on")
+    void shouldMigrateUnshardedFile() throws Exception {
+        // Arrange
+        List<BoardGame> games = sampleGames(50);
+        RepositoryFactory.create("test-sharded-temp.json").save(games);
+
+        // Act
+        List<BoardGame> loaded = RepositoryFactory.create("test-sharded-temp.json",
+                StorageOptions.fromFlags(List.of("--shards=" + SHARDS))).load();
+
+        // Assert
+        assertEquals(new HashSet<>(games), new HashSet<>(loaded));
+        assertEquals(String.valueOf(SHARDS),
+                Files.readString(new File(ShardedGameRepository.manifestPath("test-sharded-temp.json")).toPath()).strip());
+        assertFalse(new File("test-sharded-temp.json").exists());
+        assertEquals(games.size(), RepositoryFactory.create("test-sharded-temp.json",
+                StorageOptions.fromFlags(List.of("--shards=" + SHARDS))).load().size());
+    }
+
+    @Test
+    @DisplayName("Should re-partition the collection when the shard count changes between runs")
+    void shouldMigrateOnShardCountChange() throws Exception {
+        // Arrange
+        StorageOptions before = StorageOptions.fromFlags(List.of("--shards=" + SHARDS));
+        StorageOptions after = StorageOptions.fromFlags(List.of("--shards=" + (SHARDS - 1)));
+        List<BoardGame> games = new ArrayList<>(sampleGames(60));
+        RepositoryFactory.create("test-sharded-temp.json", before).save(games);
+
+        // Act
+        GameRepository repository = RepositoryFactory.create("test-sharded-temp.json", after);
+        List<BoardGame> loaded = repository.load();
+        BoardGame removed = games.remove(7);
+        repository.onGameRemoved(removed, games);
+        for (BoardGame game : games) {
+            assertEquals(List.of(game), repository.findByTitle(game.title()), game.title());
+        }
+
+        // Assert
+        assertEquals(60, loaded.size());
+        assertFalse(new File(RepositoryFactory.shardPath("test-sharded-temp.json", SHARDS - 1)).exists());
+        assertEquals(new HashSet<>(games), new HashSet<>(RepositoryFactory.create("test-sharded-temp.json", after).load()));
+        List<BoardGame> unsharded = RepositoryFactory.create("test-sharded-temp.json").load();
+        assertEquals(new HashSet<>(games), new HashSet<>(unsharded));
+        assertFalse(new File(ShardedGameRepository.manifestPath("test-sharded-temp.json")).exists());
+    }
+
+    @Test
+    @DisplayName("Should move a game found in the wrong shard back where its title hashes")
+    void shouldRepairMisplacedGame() throws Exception {
+        // Arrange
+        StorageOptions options = StorageOptions.fromFlags(List.of("--shards=" + SHARDS));
+        ShardedGameRepository layout = (ShardedGameRepository) RepositoryFactory.create("test-sharded-temp.json", options);
+        layout.save(List.of());
+        BoardGame azul = new BoardGame("Azul", 2, 4, "abstract");
+        int wrongShard = (layout.shardOf(azul) + 1) % SHARDS;
+        RepositoryFactory.create(RepositoryFactory.shardPath("test-sharded-temp.json", wrongShard)).save(List.of(azul));
+
+        // Act
+        ShardedGameRepository repository = (ShardedGameRepository) RepositoryFactory.create("test-sharded-temp.json", options);
+        List<BoardGame> games = new ArrayList<>(repository.load());
+        List<BoardGame> found = repository.findByTitle("Azul");
+        games.remove(azul);
+        repository.onGameRemoved(azul, games);
+
+        // Assert
+        assertEquals(List.of(azul), found);
+        assertEquals(List.of(), RepositoryFactory.create("test-sharded-temp.json", options).load());
+    }
+
+    @Test
+    @DisplayName("Should place titles differing only by case in the same shard")
+    void shouldShardByNormalizedTitle() {
+        ShardedGameRepository repository = new ShardedGameRepository(
+                List.of(new CountingRepository(), new CountingRepository(), new CountingRepository()));
+
+        assertEquals(repository.shardOf(new BoardGame("Catan", 3, 4, "strategy")),
+                repository.shardOf(new BoardGame("  CATAN ", 3, 4, "strategy")));
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid shard count")
+    void shouldRejectInvalidShardCount() {
+        assertThrows(IllegalArgumentException.class, () -> StorageOptions.fromFlags(List.of("--shards=0")));
+        assertThrows(IllegalArgumentException.class, () -> StorageOptions.fromFlags(List.of("--shards=1000")));
+    }
+}
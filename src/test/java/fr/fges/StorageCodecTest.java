@@ -0,0 +1,156 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("Storage Codec Tests")
+class StorageCodecTest {
+
+    private final List<File> files = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        files.forEach(File::delete);
+    }
+
+    @Test
+    @DisplayName("Should pick the codec from the file suffix")
+    void shouldPickCodecFromSuffix() {
+        assertEquals(StorageCodec.GZIP, StorageCodec.forPath("games.json.gz"));
+        assertEquals(StorageCodec.LZ4, StorageCodec.forPath("games.csv.lz4"));
+        assertEquals(StorageCodec.NONE, StorageCodec.forPath("games.json"));
+        assertEquals("games.csv", StorageCodec.stripSuffix("games.csv.gz"));
+        assertTrue(RepositoryFactory.isSupported("games.json.lz4"));
+        assertFalse(RepositoryFactory.isSupported("games.bgc.gz"));
+    }
+
+    @Test
+    @DisplayName("Should save and load compressed JSON and CSV collections")
+    void shouldRoundTripCompressedCollections() throws Exception {
+        // Arrange
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            games.add(new BoardGame("Game, \"" + i + "\"", 1 + i % 4, 4 + i % 8, "category" + i % 20));
+        }
+
+        for (String name : List.of("test-codec.json.gz", "test-codec.json.lz4", "test-codec.csv.gz", "test-codec.csv.lz4")) {
+            File file = new File(name);
+            files.add(file);
+            GameRepository repository = RepositoryFactory.create(name);
+
+            // Act
+            repository.save(games);
+            List<BoardGame> streamed = new ArrayList<>();
+            repository.forEach(streamed::add);
+
+            // Assert
+            assertEquals(games, repository.load(), name);
+            assertEquals(games, streamed, name);
+            assertTrue(file.length() < games.size() * 20L, name + " should be compressed");
+        }
+    }
+
+    @Test
+    @DisplayName("Should round-trip repetitive and random data across LZ4 blocks")
+    void shouldRoundTripLz4Frames() throws Exception {
+        byte[] repetitive = new byte[Lz4Codec.BLOCK_SIZE * 3 + 123];
+        for (int i = 0; i < repetitive.length; i++) {
+            repetitive[i] = (byte) ("Game " + i % 97).charAt(i % 5);
+        }
+        byte[] random = new byte[Lz4Codec.BLOCK_SIZE + 7];
+        new Random(42).nextBytes(random);
+
+        for (byte[] data : List.of(repetitive, random, new byte[0])) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            StorageCodec.LZ4.encode(out, compressed -> compressed.write(data));
+            try (InputStream in = StorageCodec.LZ4.decode(new ByteArrayInputStream(out.toByteArray()))) {
+                assertArrayEquals(data, in.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject a truncated LZ4 file")
+    void shouldRejectTruncatedLz4() throws Exception {
+        byte[] data = new byte[10_000];
+        Arrays.fill(data, (byte) 'a');
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StorageCodec.LZ4.encode(out, compressed -> compressed.write(data));
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 6);
+
+        assertThrows(IOException.class, () -> {
+            try (InputStream in = StorageCodec.LZ4.decode(new ByteArrayInputStream(truncated))) {
+                in.readAllBytes();
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Should write standard LZ4 frames with xxHash32 checksums")
+    void shouldWriteStandardLz4Frames() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        StorageCodec.LZ4.encode(out, compressed -> compressed.write(new byte[0]));
+
+        // Assert - magic 0x184D2204, FLG 0x64, BD 0x40, HC 0xA7 as written by the lz4 tool
+        byte[] header = Arrays.copyOf(out.toByteArray(), 7);
+        assertArrayEquals(new byte[] {0x04, 0x22, 0x4D, 0x18, 0x64, 0x40, (byte) 0xA7}, header);
+        assertEquals(0x02CC5D05, Lz4Codec.XxHash32.hash(new byte[0], 0, 0));
+        byte[] text = "Nobody inspects the spammish repetition".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0xE2293B2F, Lz4Codec.XxHash32.hash(text, 0, text.length));
+    }
+
+    @Test
+    @DisplayName("Should read LZ4 frames with linked blocks")
+    void shouldReadLinkedLz4Blocks() throws Exception {
+        // Arrange - second block copies 8 bytes from the first, then adds one literal
+        byte[] descriptor = {0x40, 0x40};
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        frame.write(new byte[] {0x04, 0x22, 0x4D, 0x18});
+        frame.write(descriptor);
+        frame.write(Lz4Codec.XxHash32.hash(descriptor, 0, 2) >>> 8);
+        frame.write(new byte[] {8, 0, 0, (byte) 0x80});
+        frame.write("Catan 34".getBytes(StandardCharsets.US_ASCII));
+        frame.write(new byte[] {5, 0, 0, 0, 0x04, 8, 0, 0x10, 'X'});
+        frame.write(new byte[4]);
+
+        // Act
+        byte[] data;
+        try (InputStream in = StorageCodec.LZ4.decode(new ByteArrayInputStream(frame.toByteArray()))) {
+            data = in.readAllBytes();
+        }
+
+        // Assert
+        assertEquals("Catan 34Catan 34X", new String(data, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    @DisplayName("Should load an empty compressed file as an empty collection")
+    void shouldLoadEmptyCompressedFile() throws Exception {
+        for (String name : List.of("test-codec-empty.json.gz", "test-codec-empty.csv.lz4")) {
+            // Arrange
+            File file = new File(name);
+            files.add(file);
+            assertTrue(file.createNewFile());
+
+            // Act & Assert
+            assertEquals(List.of(), RepositoryFactory.create(name).load(), name);
+        }
+    }
+}
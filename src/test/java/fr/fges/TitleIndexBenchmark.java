@@ -0,0 +1,45 @@
+package fr.fges;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recherche par titre dans un fichier JSON/CSV : parcours complet contre index sur disque.
+ * Lancement : make bench BENCH=TitleIndexBenchmark ARGS="<jeux> <recherches>"
+ */
+public class TitleIndexBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        List<BoardGame> games = new ArrayList<>(gameCount);
+        for (int i = 0; i < gameCount; i++) {
+            games.add(new BoardGame("Game " + i, 1 + i % 4, 4 + i % 8, "category" + i % 20));
+        }
+
+        System.out.println("Collection size: " + gameCount + " games, " + lookups + " lookups");
+        for (String extension : List.of(".json", ".csv")) {
+            File file = File.createTempFile("index-bench", extension);
+            for (boolean indexed : List.of(false, true)) {
+                List<String> flags = indexed ? List.of("--fsync=none", "--title-index") : List.of("--fsync=none");
+                GameRepository repository = RepositoryFactory.create(file.getPath(), StorageOptions.fromFlags(flags));
+                long start = System.nanoTime();
+                repository.save(games);
+                long save = System.nanoTime() - start;
+                repository.findByTitle("warm-up");
+                int scanned = indexed ? lookups : Math.max(1, lookups / 20);
+                start = System.nanoTime();
+                for (int i = 0; i < scanned; i++) {
+                    repository.findByTitle("game " + (i * 7919 % gameCount));
+                }
+                long lookup = (System.nanoTime() - start) / scanned;
+                repository.close();
+                System.out.printf("%-6s %-10s save %8.1f ms   lookup %10.3f ms%n", extension,
+                        indexed ? "indexed" : "scan", save / 1_000_000.0, lookup / 1_000_000.0);
+            }
+            file.delete();
+            new File(file.getPath() + ".idx").delete();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.AfterEach;
+
+@DisplayName("Title Index Tests")
+class TitleIndexTest {
+
+    private final List<File> files = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        for (File file : files) {
+            file.delete();
+            new File(file.getPath() + ".idx").delete();
+        }
+    }
+
+    private GameRepository indexedRepository(String name) {
+        files.add(new File(name));
+        return RepositoryFactory.create(name, StorageOptions.fromFlags(List.of("--title-index")));
+    }
+
+    private static List<BoardGame> sampleGames() {
+        List<BoardGame> games = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            games.add(new BoardGame("Game " + i, 1 + i % 4, 4 + i % 8, "category" + i % 5));
+        }
+        games.add(new BoardGame("Ticket to Ride, \"Europe\"", 2, 5, "family"));
+        games.add(new BoardGame("Château\nCombo", 2, 4, "card"));
+        games.add(new BoardGame("game 7", 3, 3, "duplicate"));
+        return games;
+    }
+
+    @Test
+    @DisplayName("Should look up JSON and CSV records through the side-car index")
+    void shouldLookUpThroughIndex() throws Exception {
+        for (String name : List.of("test-index-temp.json", "test-index-temp.csv")) {
+            // Arrange
+            GameRepository repository = indexedRepository(name);
+            List<BoardGame> games = sampleGames();
+
+            // Act
+            repository.save(games);
+
+            // Assert
+            assertTrue(new File(name + ".idx").exists(), name);
+            assertEquals(games.size(), repository.count(), name);
+            assertEquals(List.of(new BoardGame("Game 7", 4, 11, "category2"), new BoardGame("game 7", 3, 3, "duplicate")),
+                    repository.findByTitle("GAME 7"), name);
+            assertEquals(List.of(games.get(1_000)), repository.findByTitle("ticket to ride, \"europe\""), name);
+            assertEquals(List.of(games.get(1_001)), repository.findByTitle("CHÂTEAU\nCOMBO"), name);
+            assertTrue(repository.findByTitle("Game 1000").isEmpty(), name);
+        }
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index when the data file changed behind its back")
+    void shouldRebuildStaleIndex() throws Exception {
+        // Arrange
+        GameRepository repository = indexedRepository("test-index-temp.json");
+        repository.save(sampleGames());
+        new JsonGameRepository("test-index-temp.json").save(List.of(new BoardGame("Azul", 2, 4, "abstract")));
+
+        // Act
+        List<BoardGame> found = repository.findByTitle("azul");
+
+        // Assert
+        assertEquals(List.of(new BoardGame("Azul", 2, 4, "abstract")), found);
+        assertTrue(repository.findByTitle("Game 1").isEmpty());
+        assertEquals(1, repository.count());
+    }
+
+    @Test
+    @DisplayName("Should detect an edit that keeps the file size and modification time")
+    void shouldDetectChecksumMismatch() throws Exception {
+        // Arrange
+        indexedRepository("test-index-temp.csv").save(List.of(new BoardGame("Catan", 3, 4, "strategy")));
+        File data = new File("test-index-temp.csv");
+        FileTime modified = Files.getLastModifiedTime(data.toPath());
+        String content = Files.readString(data.toPath(), StandardCharsets.UTF_8);
+        Files.writeString(data.toPath(), content.replace("Catan", "Sagan"), StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(data.toPath(), modified);
+
+        // Act
+        GameRepository reopened = indexedRepository("test-index-temp.csv");
+
+        // Assert
+        assertEquals(List.of(new BoardGame("Sagan", 3, 4, "strategy")), reopened.findByTitle("sagan"));
+        assertTrue(reopened.findByTitle("catan").isEmpty());
+    }
+}
@@ -0,0 +1,301 @@
+package fr.fges;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+@DisplayName("Write-Behind Repository Tests")
+class WriteBehindGameRepositoryTest {
+
+    // Dépôt en mémoire qui compte les sauvegardes
+    private static class CountingRepository implements GameRepository {
+        private final List<List<BoardGame>> saves = new ArrayList<>();
+
+        @Override
+        public synchronized void save(List<BoardGame> games) {
+            saves.add(List.copyOf(games));
+        }
+
+        @Override
+        public List<BoardGame> load() {
+            return List.of();
+        }
+
+        synchronized int saveCount() {
+            return saves.size();
+        }
+
+        synchronized List<BoardGame> lastSave() {
+            return saves.get(saves.size() - 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should coalesce a burst of mutations into a single save on close")
+    void shouldCoalesceBurstIntoSingleSave() throws Exception {
+        // Arrange
+        CountingRepository delegate = new CountingRepository();
+        WriteBehindGameRepository repository = new WriteBehindGameRepository(delegate, 60_000);
+        List<BoardGame> games = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            BoardGame game = new BoardGame("Game" + i, 2, 4, "Family");
+            games.add(game);
+            repository.onGameAdded(game, games);
+        }
+        BoardGame removed = games.remove(0);
+        repository.onGameRemoved(removed, games);
+        int savesBeforeClose = delegate.saveCount();
+        repository.close();
+
+        // Assert
+        assertEquals(0, savesBeforeClose);
+        assertEquals(1, delegate.saveCount());
+        assertEquals(games, delegate.lastSave());
+    }
+
+    // Dépôt incrémental en mémoire : note chaque mutation reçue et l'état qui l'accompagne
+    private static class IncrementalRepository extends CountingRepository {
+        private final List<String> mutations = new ArrayList<>();
+        private List<BoardGame> lastState = List.of();
+
+        @Override
+        public boolean writesIncrementally() {
+            return true;
+        }
+
+        @Override
+        public synchronized void onGameAdded(BoardGame game, List<BoardGame> games) {
+            mutations.add("+" + game.title());
+            lastState = List.copyOf(games);
+        }
+
+        @Override
+        public synchronized void onGameRemoved(BoardGame game, List<BoardGame> games) {
+            mutations.add("-" + game.title());
+            lastState = List.copyOf(games);
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay pending mutations through an incremental repository instead of saving")
+    void shouldReplayMutationsIncrementally() throws Exception {
+        // Arrange
+        IncrementalRepository delegate = new IncrementalRepository();
+        WriteBehindGameRepository repository = new WriteBehindGameRepository(delegate, 60_000);
+        List<BoardGame> games = new ArrayList<>(repository.load());
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        BoardGame catan = new BoardGame("Catan", 3, 4, "Family");
+
+        // Act
+        games.add(chess);
+        repository.onGameAdded(chess, games);
+        games.add(catan);
+        repository.onGameAdded(catan, games);
+        games.remove(chess);
+        repository.onGameRemoved(chess, games);
+        repository.flush();
+
+        // Assert
+        assertEquals(0, delegate.saveCount());
+        assertEquals(List.of("+Chess", "+Catan", "-Chess"), delegate.mutations);
+        assertEquals(List.of(catan), delegate.lastState);
+        repository.close();
+    }
+
+    @Test
+    @DisplayName("Should fall back to a single save once too many mutations are pending")
+    void shouldCoalesceLongQueueIntoSave() throws Exception {
+        // Arrange
+        IncrementalRepository delegate = new IncrementalRepository();
+        WriteBehindGameRepository repository = new WriteBehindGameRepository(delegate, 60_000);
+        List<BoardGame> games = new ArrayList<>(repository.load());
+
+        // Act
+        for (int i = 0; i <= WriteBehindGameRepository.MAX_PENDING_MUTATIONS; i++) {
+            BoardGame game = new BoardGame("Game" + i, 2, 4, "Family");
+            games.add(game);
+            repository.onGameAdded(game, games);
+        }
+        repository.close();
+
+        // Assert
+        assertTrue(delegate.mutations.isEmpty());
+        assertEquals(1, delegate.saveCount());
+        assertEquals(games, delegate.lastSave());
+    }
+
+    @Test
+    @DisplayName("Should append to the journal instead of rewriting the snapshot")
+    void shouldKeepJournalAppendsBehindWriteBehind() throws Exception {
+        // Arrange
+        File snapshot = new File("test-write-behind-journal-temp.json");
+        File journal = new File("test-write-behind-journal-temp.json.journal");
+        new JsonGameRepository(snapshot.getPath()).save(List.of(new BoardGame("Chess", 2, 2, "Strategy")));
+        byte[] before = Files.readAllBytes(snapshot.toPath());
+        GameRepository repository = RepositoryFactory.create(snapshot.getPath(),
+                StorageOptions.fromFlags(List.of("--journal", "--write-behind=60000")));
+        List<BoardGame> games = new ArrayList<>(repository.load());
+        BoardGame catan = new BoardGame("Catan", 3, 4, "Family");
+
+        // Act
+        games.add(catan);
+        repository.onGameAdded(catan, games);
+        repository.close();
+
+        // Assert
+        assertArrayEquals(before, Files.readAllBytes(snapshot.toPath()));
+        assertTrue(Files.readString(journal.toPath()).contains("Catan"));
+        assertEquals(games, RepositoryFactory.create(snapshot.getPath(),
+                StorageOptions.fromFlags(List.of("--journal"))).load());
+        snapshot.delete();
+        journal.delete();
+    }
+
+    @Test
+    @DisplayName("Should flush in the background after the maximum delay")
+    void shouldFlushAfterMaxDelay() throws Exception {
+        // Arrange
+        CountingRepository delegate = new CountingRepository();
+        WriteBehindGameRepository repository = new WriteBehindGameRepository(delegate, 20);
+        List<BoardGame> games = new ArrayList<>();
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        games.add(chess);
+
+        // Act
+        repository.onGameAdded(chess, games);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (delegate.saveCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertEquals(1, delegate.saveCount());
+        assertEquals(List.of(chess), delegate.lastSave());
+        repository.close();
+        assertEquals(1, delegate.saveCount());
+    }
+
+    @Test
+    @DisplayName("Should keep pending mutations after a failed save")
+    void shouldRetryAfterFailedSave() throws Exception {
+        // Arrange
+        CountingRepository delegate = new CountingRepository() {
+            private boolean failed;
+
+            @Override
+            public synchronized void save(List<BoardGame> games) {
+                if (!failed) {
+                    failed = true;
+                    throw new IllegalStateException("disk full");
+                }
+                super.save(games);
+            }
+        };
+        WriteBehindGameRepository repository = new WriteBehindGameRepository(delegate, 60_000);
+        List<BoardGame> games = new ArrayList<>();
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        games.add(chess);
+        repository.onGameAdded(chess, games);
+
+        // Act
+        assertThrows(IllegalStateException.class, repository::flush);
+        repository.close();
+
+        // Assert
+        assertEquals(1, delegate.saveCount());
+        assertEquals(List.of(chess), delegate.lastSave());
+    }
+
+    @Test
+    @DisplayName("Should stop retrying a failing background save and report it on the next mutation")
+    void shouldCapBackgroundRetries() throws Exception {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        CountingRepository delegate = new CountingRepository() {
+            @Override
+            public synchronized void save(List<BoardGame> games) {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("disk full");
+            }
+        };
+        WriteBehindGameRepository repository = new WriteBehindGameRepository(delegate, 1);
+        List<BoardGame> games = new ArrayList<>();
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        games.add(chess);
+
+        // Act
+        repository.onGameAdded(chess, games);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (attempts.get() <= WriteBehindGameRepository.MAX_RETRIES && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(200);
+        int attemptsAfterRetries = attempts.get();
+        BoardGame catan = new BoardGame("Catan", 3, 4, "Family");
+        games.add(catan);
+        IOException reported = assertThrows(IOException.class, () -> repository.onGameAdded(catan, games));
+
+        // Assert
+        assertEquals(WriteBehindGameRepository.MAX_RETRIES + 1, attemptsAfterRetries);
+        assertTrue(reported.getMessage().contains("disk full"));
+        assertThrows(IllegalStateException.class, repository::close);
+    }
+
+    @Test
+    @DisplayName("Should close the delegate even when the final save fails")
+    void shouldCloseDelegateAfterFailedFlush() throws Exception {
+        // Arrange
+        AtomicInteger closes = new AtomicInteger();
+        CountingRepository delegate = new CountingRepository() {
+            @Override
+            public synchronized void save(List<BoardGame> games) {
+                throw new IllegalStateException("disk full");
+            }
+
+            @Override
+            public void close() {
+                closes.incrementAndGet();
+            }
+        };
+        WriteBehindGameRepository repository = new WriteBehindGameRepository(delegate, 60_000);
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+        repository.onGameAdded(chess, List.of(chess));
+
+        // Act
+        assertThrows(IllegalStateException.class, repository::close);
+
+        // Assert
+        assertEquals(1, closes.get());
+    }
+
+    @Test
+    @DisplayName("Should keep the collection state visible immediately")
+    void shouldKeepCollectionStateVisibleImmediately() {
+        // Arrange
+        GameCollection collection = new GameCollection("test-write-behind-temp.json", StorageOptions.fromFlags(List.of("--write-behind=60000")));
+        undo.UndoManager undoManager = new undo.UndoManager();
+        undo.UndoService undoService = new undo.UndoService(collection, undoManager);
+        BoardGame chess = new BoardGame("Chess", 2, 2, "Strategy");
+
+        // Act
+        collection.addGame(chess);
+        undoManager.recordAction(new undo.UndoableAction(undo.UndoableAction.ActionType.ADD, chess));
+        undoService.execute();
+
+        // Assert
+        assertTrue(collection.getGames().isEmpty());
+        assertFalse(new File("test-write-behind-temp.json").exists());
+        collection.close();
+        new File("test-write-behind-temp.json").delete();
+    }
+}